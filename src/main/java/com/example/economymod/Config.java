@@ -34,6 +34,42 @@ public class Config {
             .comment("每日奖励金额")
             .defineInRange("dailyRewardAmount", 50, 0, Integer.MAX_VALUE);
 
+    private static final ForgeConfigSpec.BooleanValue MINECRAFT_TRADING_DAYS = BUILDER
+            .comment("交易日是否跟随Minecraft昼夜循环（否则使用现实日期）")
+            .define("minecraftTradingDays", false);
+
+    private static final ForgeConfigSpec.IntValue DYNAMIC_PRICING_INTERVAL = BUILDER
+            .comment("动态定价重新计算间隔（分钟）")
+            .defineInRange("dynamicPricingIntervalMinutes", 5, 1, 1440);
+
+    private static final ForgeConfigSpec.DoubleValue DEMAND_HALF_LIFE = BUILDER
+            .comment("动态定价需求/供给计数的半衰期（小时）")
+            .defineInRange("demandHalfLifeHours", 6.0, 0.1, 720.0);
+
+    private static final ForgeConfigSpec.DoubleValue COMMODITY_HALF_LIFE = BUILDER
+            .comment("大宗商品指数成交量加权均价的半衰期（小时）")
+            .defineInRange("commodityHalfLifeHours", 24.0, 0.1, 720.0);
+
+    private static final ForgeConfigSpec.DoubleValue COMMODITY_DRIFT_WEIGHT = BUILDER
+            .comment("关联股票跟随大宗商品指数涨跌的比例（0表示不影响股价）")
+            .defineInRange("commodityDriftWeight", 0.5, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.IntValue STOCK_UPDATE_INTERVAL = BUILDER
+            .comment("股价自动更新间隔（分钟，0表示只在管理员命令时更新）")
+            .defineInRange("stockUpdateIntervalMinutes", 5, 0, 1440);
+
+    private static final ForgeConfigSpec.ConfigValue<String> PRICE_MODEL = BUILDER
+            .comment("默认股价随机模型：gaussian（正态+趋势）、gbm（几何布朗运动）、ou（均值回归）、jump（跳跃扩散）")
+            .define("priceModel", "gaussian");
+
+    private static final ForgeConfigSpec.DoubleValue MARKET_CORRELATION = BUILDER
+            .comment("所有股票之间的股价冲击相关系数（市场因子解释的方差占比）")
+            .defineInRange("marketCorrelation", 0.1, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.DoubleValue SECTOR_CORRELATION = BUILDER
+            .comment("同行业股票额外的股价冲击相关系数（行业因子解释的方差占比，与市场相关之和不超过1）")
+            .defineInRange("sectorCorrelation", 0.2, 0.0, 1.0);
+
     static final ForgeConfigSpec SPEC = BUILDER.build();
 
     public static int startingMoney;
@@ -42,6 +78,15 @@ public class Config {
     public static int maxShopsPerPlayer;
     public static boolean enableDailyRewards;
     public static int dailyRewardAmount;
+    public static boolean minecraftTradingDays;
+    public static int dynamicPricingIntervalMinutes = 5;
+    public static double demandHalfLifeHours = 6.0;
+    public static double commodityHalfLifeHours = 24.0;
+    public static double commodityDriftWeight = 0.5;
+    public static int stockUpdateIntervalMinutes = 5;
+    public static String priceModel = "gaussian";
+    public static double marketCorrelation = 0.1;
+    public static double sectorCorrelation = 0.2;
 
     @SubscribeEvent
     static void onLoad(final ModConfigEvent event) {
@@ -51,5 +96,14 @@ public class Config {
         maxShopsPerPlayer = MAX_SHOPS_PER_PLAYER.get();
         enableDailyRewards = ENABLE_DAILY_REWARDS.get();
         dailyRewardAmount = DAILY_REWARD_AMOUNT.get();
+        minecraftTradingDays = MINECRAFT_TRADING_DAYS.get();
+        dynamicPricingIntervalMinutes = DYNAMIC_PRICING_INTERVAL.get();
+        demandHalfLifeHours = DEMAND_HALF_LIFE.get();
+        commodityHalfLifeHours = COMMODITY_HALF_LIFE.get();
+        commodityDriftWeight = COMMODITY_DRIFT_WEIGHT.get();
+        stockUpdateIntervalMinutes = STOCK_UPDATE_INTERVAL.get();
+        priceModel = PRICE_MODEL.get();
+        marketCorrelation = MARKET_CORRELATION.get();
+        sectorCorrelation = SECTOR_CORRELATION.get();
     }
 }
\ No newline at end of file
@@ -1,18 +1,33 @@
 package com.example.economymod;
 
+import com.example.economymod.commands.AuctionCommands;
 import com.example.economymod.commands.EconomyCommands;
+import com.example.economymod.commands.ShopCommands;
+import com.example.economymod.economy.CoinPurse;
+import com.example.economymod.economy.EconomyClock;
 import com.example.economymod.economy.EconomyManager;
+import com.example.economymod.economy.ServerShopLoader;
 import com.example.economymod.items.ModItems;
+import com.example.economymod.blocks.ModBlockEntities;
+import com.example.economymod.blocks.EconomyBlockIndex;
 import com.example.economymod.blocks.ModBlocks;
+import com.example.economymod.stock.StockExchange;
 import com.example.economymod.stock.StockMarket;
 import com.example.economymod.stock.StockCommands;
+import com.example.economymod.stock.StockListingLoader;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.CreativeModeTabs;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.event.BuildCreativeModeTabContentsEvent;
 import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.ModLoadingContext;
@@ -36,6 +51,7 @@ public class EconomyMod {
         // 注册物品和方块
         ModItems.register(modEventBus);
         ModBlocks.register(modEventBus);
+        ModBlockEntities.register(modEventBus);
 
         // 注册事件
         modEventBus.addListener(this::commonSetup);
@@ -74,6 +90,7 @@ public class EconomyMod {
         if(event.getTabKey() == CreativeModeTabs.FUNCTIONAL_BLOCKS) {
             event.accept(ModBlocks.ATM_BLOCK);
             event.accept(ModBlocks.SHOP_BLOCK);
+            event.accept(ModBlocks.SHOP_STOCK_BLOCK);
             event.accept(ModBlocks.BANK_BLOCK);
         }
     }
@@ -82,13 +99,68 @@ public class EconomyMod {
     @SubscribeEvent
     public void onServerStarting(ServerStartingEvent event) {
         LOGGER.info("经济模组服务器启动中...");
+        EconomyClock.tick(event.getServer()); // 加载数据前按当前世界刷新交易日
         EconomyManager.loadData();
+        EconomyBlockIndex.reattachShopStock();
+    }
+
+    // 订单簿不持久化，关服前撤销所有挂单并退回冻结的资金和持仓
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        StockExchange.cancelAll(null);
+    }
+
+    // 玩家登录和重生时开始缓存背包中的硬币，打开容器时一并监听
+    @SubscribeEvent
+    public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            CoinPurse.attach(player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            CoinPurse.attach(player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onContainerOpen(PlayerContainerEvent.Open event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            CoinPurse.watch(player, event.getContainer());
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        CoinPurse.detach(event.getEntity().getUUID());
+    }
+
+    // 每个服务器tick开始时刷新经济时钟、处理到期拍卖，并按间隔重新计算动态价格和股价
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            EconomyClock.tick(event.getServer());
+            EconomyManager.tickAuctions();
+            EconomyManager.tickPricing();
+            StockMarket.tickPrices();
+        }
+    }
+
+    // 注册数据包加载器（系统商店价格表和上市股票），/reload 时重新加载
+    @SubscribeEvent
+    public void onAddReloadListeners(AddReloadListenerEvent event) {
+        event.addListener(new ServerShopLoader());
+        event.addListener(new StockListingLoader());
     }
 
     // 注册命令
     @SubscribeEvent
     public void onRegisterCommands(RegisterCommandsEvent event) {
         EconomyCommands.register(event.getDispatcher());
+        AuctionCommands.register(event.getDispatcher());
+        ShopCommands.register(event.getDispatcher());
         StockCommands.register(event.getDispatcher());
         LOGGER.info("经济命令注册完成");
     }
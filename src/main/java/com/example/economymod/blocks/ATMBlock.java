@@ -8,14 +8,13 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
 // ATM方块类 - 自动提款机
-public class ATMBlock extends Block {
+public class ATMBlock extends EconomyBlock {
     public ATMBlock(Properties properties) {
-        super(properties);
+        super(properties, EconomyService.ATM);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.example.economymod.blocks;
 
+import com.example.economymod.economy.EconomyClock;
 import com.example.economymod.economy.EconomyManager;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
@@ -8,17 +9,15 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 // 银行方块类
-public class BankBlock extends Block {
+public class BankBlock extends EconomyBlock {
     public BankBlock(Properties properties) {
-        super(properties);
+        super(properties, EconomyService.BANK);
     }
 
     @Override
@@ -35,7 +34,7 @@ public class BankBlock extends Block {
         long savings = EconomyManager.getSavings(player.getUUID());
         long totalTransactions = EconomyManager.getTransactionCount(player.getUUID());
         
-        String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        String currentTime = EconomyClock.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
         
         player.displayClientMessage(
             Component.literal("======= 经济银行 =======").withStyle(ChatFormatting.GOLD), false
@@ -0,0 +1,48 @@
+package com.example.economymod.blocks;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.EntityBlock;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+
+import javax.annotation.Nullable;
+
+// 经济方块基类 - 由EconomyBlockEntity保存绑定信息，并登记到EconomyBlockIndex
+public abstract class EconomyBlock extends Block implements EntityBlock {
+    private final EconomyService service;
+
+    protected EconomyBlock(Properties properties, EconomyService service) {
+        super(properties);
+        this.service = service;
+    }
+
+    public EconomyService getService() {
+        return service;
+    }
+
+    @Override
+    public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
+        return new EconomyBlockEntity(pos, state);
+    }
+
+    // 放置时记录放置者
+    @Override
+    public void setPlacedBy(Level level, BlockPos pos, BlockState state, @Nullable LivingEntity placer, ItemStack stack) {
+        super.setPlacedBy(level, pos, state, placer, stack);
+        if (!level.isClientSide() && placer instanceof Player player
+                && level.getBlockEntity(pos) instanceof EconomyBlockEntity blockEntity) {
+            blockEntity.bindOwner(player.getUUID(), player.getName().getString());
+        }
+    }
+
+    // 通过空间索引获取方块绑定（O(1)）
+    @Nullable
+    protected static EconomyBlockEntity getBinding(Level level, BlockPos pos) {
+        return EconomyBlockIndex.get(level, pos);
+    }
+}
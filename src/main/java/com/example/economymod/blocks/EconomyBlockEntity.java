@@ -0,0 +1,106 @@
+package com.example.economymod.blocks;
+
+import com.example.economymod.economy.EconomyManager;
+import com.example.economymod.economy.PlayerShop;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.state.BlockState;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+
+// 经济方块实体 - 保存方块与经济实体（放置者、商店）的绑定，随区块保存和加载
+public class EconomyBlockEntity extends BlockEntity {
+    private UUID ownerId;       // 放置者
+    private String ownerName;
+    private String shopName;    // 绑定的商店（仅商店方块）
+
+    public EconomyBlockEntity(BlockPos pos, BlockState state) {
+        this(ModBlockEntities.ECONOMY_BLOCK.get(), pos, state);
+    }
+
+    protected EconomyBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
+        super(type, pos, state);
+    }
+
+    // 区块加载或方块放置时登记到空间索引
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide()) {
+            EconomyBlockIndex.register(this);
+        }
+    }
+
+    // 区块卸载时移出空间索引
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        EconomyBlockIndex.unregister(this);
+    }
+
+    // 方块被破坏时移出空间索引
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        EconomyBlockIndex.unregister(this);
+    }
+
+    public void bindOwner(UUID ownerId, String ownerName) {
+        this.ownerId = ownerId;
+        this.ownerName = ownerName;
+        setChanged();
+    }
+
+    // 绑定商店（传入null解除绑定）
+    public void bindShop(@Nullable String shopName) {
+        String previous = this.shopName;
+        this.shopName = shopName;
+        setChanged();
+        EconomyBlockIndex.updateShopBinding(this, previous, shopName);
+    }
+
+    @Nullable
+    public EconomyService getService() {
+        return getBlockState().getBlock() instanceof EconomyBlock block ? block.getService() : null;
+    }
+
+    // 获取绑定的商店
+    @Nullable
+    public PlayerShop getShop() {
+        return shopName != null ? EconomyManager.getShop(shopName) : null;
+    }
+
+    public boolean isOwner(UUID playerId) {
+        return ownerId == null || ownerId.equals(playerId);
+    }
+
+    @Nullable
+    public UUID getOwnerId() { return ownerId; }
+    @Nullable
+    public String getOwnerName() { return ownerName; }
+    @Nullable
+    public String getShopName() { return shopName; }
+
+    @Override
+    protected void saveAdditional(CompoundTag tag) {
+        super.saveAdditional(tag);
+        if (ownerId != null) {
+            tag.putUUID("Owner", ownerId);
+            tag.putString("OwnerName", ownerName != null ? ownerName : "");
+        }
+        if (shopName != null) {
+            tag.putString("Shop", shopName);
+        }
+    }
+
+    @Override
+    public void load(CompoundTag tag) {
+        super.load(tag);
+        ownerId = tag.hasUUID("Owner") ? tag.getUUID("Owner") : null;
+        ownerName = tag.contains("OwnerName") ? tag.getString("OwnerName") : null;
+        shopName = tag.contains("Shop") ? tag.getString("Shop") : null;
+    }
+}
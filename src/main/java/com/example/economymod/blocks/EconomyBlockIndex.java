@@ -0,0 +1,129 @@
+package com.example.economymod.blocks;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 经济方块空间索引 - 维度 -> 区块 -> 方块位置 -> 方块实体
+// 只包含已加载区块中的方块，区块加载/卸载时随方块实体一起换入换出
+public class EconomyBlockIndex {
+    private static final Map<ResourceKey<Level>, Map<Long, Map<Long, EconomyBlockEntity>>> dimensions = new ConcurrentHashMap<>();
+
+    // 商店名 -> 已加载的商店方块
+    private static final Map<String, Set<EconomyBlockEntity>> shopBlocks = new ConcurrentHashMap<>();
+
+    // 登记方块实体
+    static void register(EconomyBlockEntity blockEntity) {
+        Level level = blockEntity.getLevel();
+        if (level == null) return;
+
+        BlockPos pos = blockEntity.getBlockPos();
+        Map<Long, Map<Long, EconomyBlockEntity>> chunks = dimensions.computeIfAbsent(level.dimension(), k -> new HashMap<>());
+        EconomyBlockEntity previous = chunks.computeIfAbsent(ChunkPos.asLong(pos), k -> new HashMap<>())
+                .put(pos.asLong(), blockEntity);
+
+        if (previous != null && previous != blockEntity) {
+            removeShopBlock(previous.getShopName(), previous);
+        }
+        addShopBlock(blockEntity.getShopName(), blockEntity);
+    }
+
+    // 移出方块实体（只移除同一个实例，避免误删新放置的方块）
+    static void unregister(EconomyBlockEntity blockEntity) {
+        Level level = blockEntity.getLevel();
+        if (level == null) return;
+
+        Map<Long, Map<Long, EconomyBlockEntity>> chunks = dimensions.get(level.dimension());
+        if (chunks == null) return;
+
+        BlockPos pos = blockEntity.getBlockPos();
+        long chunkKey = ChunkPos.asLong(pos);
+        Map<Long, EconomyBlockEntity> positions = chunks.get(chunkKey);
+        if (positions == null || positions.get(pos.asLong()) != blockEntity) return;
+
+        positions.remove(pos.asLong());
+        if (positions.isEmpty()) {
+            chunks.remove(chunkKey);
+        }
+        removeShopBlock(blockEntity.getShopName(), blockEntity);
+    }
+
+    // 方块的商店绑定变化
+    static void updateShopBinding(EconomyBlockEntity blockEntity, @Nullable String previous, @Nullable String current) {
+        if (get(blockEntity.getLevel(), blockEntity.getBlockPos()) != blockEntity) return;
+        removeShopBlock(previous, blockEntity);
+        addShopBlock(current, blockEntity);
+    }
+
+    // 获取某个位置的经济方块
+    @Nullable
+    public static EconomyBlockEntity get(@Nullable Level level, BlockPos pos) {
+        if (level == null) return null;
+
+        Map<Long, Map<Long, EconomyBlockEntity>> chunks = dimensions.get(level.dimension());
+        if (chunks == null) return null;
+
+        Map<Long, EconomyBlockEntity> positions = chunks.get(ChunkPos.asLong(pos));
+        return positions != null ? positions.get(pos.asLong()) : null;
+    }
+
+    // 获取某个区块中的经济方块
+    public static Collection<EconomyBlockEntity> getChunk(Level level, ChunkPos chunkPos) {
+        Map<Long, Map<Long, EconomyBlockEntity>> chunks = dimensions.get(level.dimension());
+        Map<Long, EconomyBlockEntity> positions = chunks != null ? chunks.get(chunkPos.toLong()) : null;
+        return positions != null ? new ArrayList<>(positions.values()) : Collections.emptyList();
+    }
+
+    // 获取已加载的绑定到某个商店的方块
+    public static List<EconomyBlockEntity> getShopBlocks(String shopName) {
+        Set<EconomyBlockEntity> blocks = shopBlocks.get(shopName);
+        return blocks != null ? new ArrayList<>(blocks) : Collections.emptyList();
+    }
+
+    // 商店数据重新加载后，让已加载的商店库存箱重新连接到新的商店对象
+    public static void reattachShopStock() {
+        for (Map<Long, Map<Long, EconomyBlockEntity>> chunks : dimensions.values()) {
+            for (Map<Long, EconomyBlockEntity> positions : chunks.values()) {
+                for (EconomyBlockEntity blockEntity : positions.values()) {
+                    if (blockEntity instanceof ShopStockBlockEntity stock) {
+                        stock.attachToShop();
+                    }
+                }
+            }
+        }
+    }
+
+    // 已加载的经济方块数量
+    public static int getLoadedCount() {
+        int count = 0;
+        for (Map<Long, Map<Long, EconomyBlockEntity>> chunks : dimensions.values()) {
+            for (Map<Long, EconomyBlockEntity> positions : chunks.values()) {
+                count += positions.size();
+            }
+        }
+        return count;
+    }
+
+    private static void addShopBlock(@Nullable String shopName, EconomyBlockEntity blockEntity) {
+        if (shopName != null) {
+            shopBlocks.computeIfAbsent(shopName, k -> new HashSet<>()).add(blockEntity);
+        }
+    }
+
+    private static void removeShopBlock(@Nullable String shopName, EconomyBlockEntity blockEntity) {
+        if (shopName == null) return;
+
+        Set<EconomyBlockEntity> blocks = shopBlocks.get(shopName);
+        if (blocks != null) {
+            blocks.remove(blockEntity);
+            if (blocks.isEmpty()) {
+                shopBlocks.remove(shopName);
+            }
+        }
+    }
+}
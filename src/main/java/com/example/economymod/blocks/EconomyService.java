@@ -0,0 +1,21 @@
+package com.example.economymod.blocks;
+
+// 经济方块提供的服务类型
+public enum EconomyService {
+    SHOP("商店"),
+    SHOP_STOCK("商店库存箱"),
+    ATM("ATM"),
+    BANK("银行"),
+    VAULT("保险箱"),
+    EXCHANGE("交易所");
+
+    private final String description;
+
+    EconomyService(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
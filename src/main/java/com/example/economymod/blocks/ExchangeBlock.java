@@ -7,14 +7,13 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
 // 交易所方块类 - 全球市场交易
-public class ExchangeBlock extends Block {
+public class ExchangeBlock extends EconomyBlock {
     public ExchangeBlock(Properties properties) {
-        super(properties);
+        super(properties, EconomyService.EXCHANGE);
     }
 
     @Override
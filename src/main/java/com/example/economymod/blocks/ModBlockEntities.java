@@ -0,0 +1,32 @@
+package com.example.economymod.blocks;
+
+import com.example.economymod.EconomyMod;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.registries.DeferredRegister;
+import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.RegistryObject;
+
+// 模组方块实体注册类
+public class ModBlockEntities {
+    public static final DeferredRegister<BlockEntityType<?>> BLOCK_ENTITIES =
+            DeferredRegister.create(ForgeRegistries.BLOCK_ENTITY_TYPES, EconomyMod.MOD_ID);
+
+    // 经济方块实体（所有经济方块共用）
+    public static final RegistryObject<BlockEntityType<EconomyBlockEntity>> ECONOMY_BLOCK =
+            BLOCK_ENTITIES.register("economy_block", () -> BlockEntityType.Builder.of(EconomyBlockEntity::new,
+                    ModBlocks.ATM_BLOCK.get(),
+                    ModBlocks.BANK_BLOCK.get(),
+                    ModBlocks.SHOP_BLOCK.get(),
+                    ModBlocks.VAULT_BLOCK.get(),
+                    ModBlocks.EXCHANGE_BLOCK.get()).build(null));
+
+    // 商店库存箱方块实体
+    public static final RegistryObject<BlockEntityType<ShopStockBlockEntity>> SHOP_STOCK =
+            BLOCK_ENTITIES.register("shop_stock", () -> BlockEntityType.Builder.of(ShopStockBlockEntity::new,
+                    ModBlocks.SHOP_STOCK_BLOCK.get()).build(null));
+
+    public static void register(IEventBus eventBus) {
+        BLOCK_ENTITIES.register(eventBus);
+    }
+}
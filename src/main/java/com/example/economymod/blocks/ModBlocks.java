@@ -34,6 +34,11 @@ public class ModBlocks {
             () -> new ShopBlock(BlockBehaviour.Properties.copy(Blocks.OAK_PLANKS)
                     .strength(4f)));
 
+    // 商店库存箱方块
+    public static final RegistryObject<Block> SHOP_STOCK_BLOCK = registerBlock("shop_stock_block",
+            () -> new ShopStockBlock(BlockBehaviour.Properties.copy(Blocks.BARREL)
+                    .strength(2.5f)));
+
     // 保险箱方块
     public static final RegistryObject<Block> VAULT_BLOCK = registerBlock("vault_block",
             () -> new VaultBlock(BlockBehaviour.Properties.copy(Blocks.OBSIDIAN)
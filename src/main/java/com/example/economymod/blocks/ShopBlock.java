@@ -1,5 +1,6 @@
 package com.example.economymod.blocks;
 
+import com.example.economymod.economy.PlayerShop;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
@@ -7,25 +8,71 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
+import java.util.Map;
+
 // 商店方块类
-public class ShopBlock extends Block {
+public class ShopBlock extends EconomyBlock {
+    // 商店方块上直接显示的商品数量
+    private static final int MAX_LISTED_ITEMS = 8;
+
     public ShopBlock(Properties properties) {
-        super(properties);
+        super(properties, EconomyService.SHOP);
     }
 
     @Override
     public InteractionResult use(BlockState state, Level level, BlockPos pos, Player player, 
                                 InteractionHand hand, BlockHitResult hit) {
         if (!level.isClientSide()) {
-            showShopMenu(player);
+            EconomyBlockEntity binding = getBinding(level, pos);
+            PlayerShop shop = binding != null ? binding.getShop() : null;
+            if (shop != null) {
+                showShopListing(player, shop);
+            } else {
+                showShopMenu(player);
+            }
         }
         return InteractionResult.sidedSuccess(level.isClientSide());
     }
 
+    // 显示绑定商店的商品
+    private void showShopListing(Player player, PlayerShop shop) {
+        player.displayClientMessage(
+            Component.literal("======= " + shop.getShopName() + " =======").withStyle(ChatFormatting.GREEN), false
+        );
+        player.displayClientMessage(
+            Component.literal("店主: " + shop.getOwnerName()).withStyle(ChatFormatting.GRAY), false
+        );
+        if (!shop.isOpen()) {
+            player.displayClientMessage(
+                Component.literal("商店已关闭").withStyle(ChatFormatting.RED), false
+            );
+            return;
+        }
+
+        int shown = 0;
+        for (Map.Entry<String, PlayerShop.ShopItem> entry : shop.getItems().entrySet()) {
+            if (shown++ >= MAX_LISTED_ITEMS) break;
+            PlayerShop.ShopItem item = entry.getValue();
+            player.displayClientMessage(
+                Component.literal("• " + item.getDisplayName() + " ").withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal(item.getPrice() + " 金币").withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(" (库存 " + shop.getAvailableQuantity(entry.getKey()) + ")").withStyle(ChatFormatting.GRAY)),
+                false
+            );
+        }
+        if (shop.getItemCount() > MAX_LISTED_ITEMS) {
+            player.displayClientMessage(
+                Component.literal("... 共 " + shop.getItemCount() + " 种商品，使用 /shop info 查看全部").withStyle(ChatFormatting.GRAY), false
+            );
+        }
+        player.displayClientMessage(
+            Component.literal("购买: /shop buy " + shop.getShopName() + " <数量> <物品>").withStyle(ChatFormatting.BLUE), false
+        );
+    }
+
     private void showShopMenu(Player player) {
         player.displayClientMessage(
             Component.literal("======= 玩家商店 =======").withStyle(ChatFormatting.GREEN), false
@@ -47,19 +94,29 @@ public class ShopBlock extends Block {
         player.displayClientMessage(
             Component.literal("• /shop info <商店名> - 查看商店信息").withStyle(ChatFormatting.GRAY), false
         );
+        player.displayClientMessage(
+            Component.literal("• /shop bind <商店名> - 将看着的商店方块绑定到商店").withStyle(ChatFormatting.GRAY), false
+        );
         
         player.displayClientMessage(Component.literal(""), false);
         player.displayClientMessage(
             Component.literal("商品管理:").withStyle(ChatFormatting.BLUE), false
         );
         player.displayClientMessage(
-            Component.literal("• /shop add <价格> - 添加手持物品到商店").withStyle(ChatFormatting.GRAY), false
+            Component.literal("• /shop add <商店名> <价格> - 添加手持物品到商店").withStyle(ChatFormatting.GRAY), false
         );
         player.displayClientMessage(
-            Component.literal("• /shop remove <物品> - 从商店移除物品").withStyle(ChatFormatting.GRAY), false
+            Component.literal("• /shop stock <商店名> <价格> - 出售相邻库存箱中的手持物品").withStyle(ChatFormatting.GRAY), false
         );
         player.displayClientMessage(
-            Component.literal("• /shop buy <商店名> <物品> <数量> - 购买物品").withStyle(ChatFormatting.GRAY), false
+            Component.literal("• /shop remove <商店名> <物品> - 从商店移除物品").withStyle(ChatFormatting.GRAY), false
+        );
+        player.displayClientMessage(
+            Component.literal("• /shop buy <商店名> <数量> <物品> - 购买物品").withStyle(ChatFormatting.GRAY), false
+        );
+        
+        player.displayClientMessage(
+            Component.literal("• /shop find <物品名> - 搜索全服最低价").withStyle(ChatFormatting.GRAY), false
         );
         
         player.displayClientMessage(Component.literal(""), false);
@@ -0,0 +1,84 @@
+package com.example.economymod.blocks;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.Containers;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.InteractionResult;
+import net.minecraft.world.SimpleMenuProvider;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.inventory.ChestMenu;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraftforge.items.IItemHandler;
+
+import javax.annotation.Nullable;
+
+// 商店库存箱方块 - 放在已绑定的商店方块旁边时自动绑定到同一商店，漏斗可以直接向其补货
+public class ShopStockBlock extends EconomyBlock {
+    public ShopStockBlock(Properties properties) {
+        super(properties, EconomyService.SHOP_STOCK);
+    }
+
+    @Override
+    public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
+        return new ShopStockBlockEntity(pos, state);
+    }
+
+    // 放置时绑定到相邻的、同一放置者的商店方块所绑定的商店
+    @Override
+    public void setPlacedBy(Level level, BlockPos pos, BlockState state, @Nullable LivingEntity placer, ItemStack stack) {
+        super.setPlacedBy(level, pos, state, placer, stack);
+        if (level.isClientSide() || !(placer instanceof Player player)
+                || !(level.getBlockEntity(pos) instanceof ShopStockBlockEntity stock)) {
+            return;
+        }
+
+        for (Direction direction : Direction.values()) {
+            EconomyBlockEntity neighbor = getBinding(level, pos.relative(direction));
+            if (neighbor != null && neighbor.getService() == EconomyService.SHOP && neighbor.getShopName() != null
+                    && neighbor.isOwner(player.getUUID())) {
+                stock.bindShop(neighbor.getShopName());
+                player.displayClientMessage(Component.literal("库存箱已连接到商店 " + neighbor.getShopName())
+                        .withStyle(ChatFormatting.GREEN), false);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public InteractionResult use(BlockState state, Level level, BlockPos pos, Player player,
+                                InteractionHand hand, BlockHitResult hit) {
+        if (!level.isClientSide() && level.getBlockEntity(pos) instanceof ShopStockBlockEntity stock) {
+            if (!stock.isOwner(player.getUUID())) {
+                player.displayClientMessage(
+                    Component.literal("这个库存箱属于 " + stock.getOwnerName()).withStyle(ChatFormatting.RED), false
+                );
+            } else {
+                Component title = Component.literal(stock.getShopName() != null
+                        ? "库存箱 - " + stock.getShopName() : "库存箱（未绑定商店）");
+                player.openMenu(new SimpleMenuProvider((containerId, inventory, p) ->
+                        ChestMenu.threeRows(containerId, inventory, stock.createMenuContainer()), title));
+            }
+        }
+        return InteractionResult.sidedSuccess(level.isClientSide());
+    }
+
+    // 方块被破坏时掉落库存
+    @Override
+    public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean isMoving) {
+        if (!state.is(newState.getBlock()) && level.getBlockEntity(pos) instanceof ShopStockBlockEntity stock) {
+            IItemHandler inventory = stock.getInventory();
+            for (int slot = 0; slot < inventory.getSlots(); slot++) {
+                Containers.dropItemStack(level, pos.getX(), pos.getY(), pos.getZ(), inventory.getStackInSlot(slot));
+            }
+        }
+        super.onRemove(state, level, pos, newState, isMoving);
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.economymod.blocks;
+
+import com.example.economymod.economy.EconomyManager;
+import com.example.economymod.economy.ItemFingerprint;
+import com.example.economymod.economy.PlayerShop;
+import com.example.economymod.economy.ShopStockSource;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.Container;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 商店库存箱方块实体 - 通过物品处理器能力对漏斗等自动化开放，作为绑定商店的实物库存
+// 每个槽位记录上次的物品指纹和数量，内容变化时只按差值更新库存计数并通知商店，购买时不需要重新扫描库存
+// 补货供给只计净放入：玩家或漏斗取出的数量记为待抵扣额度，之后放回（例如在槽位间移动）先抵扣，超出部分才算补货；
+// 商店出售时的取出和回滚放回不影响额度，关闭箱子界面时仍未放回的视为真正取走，清空额度
+public class ShopStockBlockEntity extends EconomyBlockEntity implements ShopStockSource {
+    public static final int SLOTS = 27;
+
+    private final ItemStackHandler inventory = new ItemStackHandler(SLOTS) {
+        @Override
+        protected void onContentsChanged(int slot) {
+            syncSlot(slot);
+            setChanged();
+        }
+    };
+    private final LazyOptional<IItemHandler> itemHandler = LazyOptional.of(() -> inventory);
+
+    // 槽位快照（物品指纹、数量）和按物品指纹汇总的数量
+    private final String[] slotKeys = new String[SLOTS];
+    private final int[] slotCounts = new int[SLOTS];
+    private final Map<String, Integer> stockCounts = new HashMap<>();
+    private final Map<String, Integer> withdrawn = new HashMap<>(); // 非出售取出、尚未放回的数量
+    private boolean shopTransfer; // 正在为商店出售取出或回滚放回物品
+
+    @Nullable
+    private PlayerShop attachedShop;
+
+    public ShopStockBlockEntity(BlockPos pos, BlockState state) {
+        super(ModBlockEntities.SHOP_STOCK.get(), pos, state);
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide()) {
+            attachToShop();
+        }
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        detachFromShop();
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        detachFromShop();
+    }
+
+    @Override
+    public void invalidateCaps() {
+        super.invalidateCaps();
+        itemHandler.invalidate();
+    }
+
+    @Override
+    public void bindShop(@Nullable String shopName) {
+        detachFromShop();
+        super.bindShop(shopName);
+        attachToShop();
+    }
+
+    // 连接到绑定的商店（商店数据重新加载后也需要调用）
+    void attachToShop() {
+        PlayerShop shop = getShop();
+        if (shop == attachedShop) return;
+
+        detachFromShop();
+        if (shop != null) {
+            shop.attachStockSource(this);
+            attachedShop = shop;
+        }
+    }
+
+    private void detachFromShop() {
+        if (attachedShop != null) {
+            attachedShop.detachStockSource(this);
+            attachedShop = null;
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getStockCounts() {
+        return new HashMap<>(stockCounts);
+    }
+
+    // 按槽位快照取出；快照可能落后于槽位的实际内容，取出的物品与指纹不符时原样放回
+    @Override
+    public List<ItemStack> extract(String itemKey, int amount) {
+        List<ItemStack> extracted = new ArrayList<>();
+        int left = amount;
+        shopTransfer = true;
+        try {
+            for (int slot = 0; slot < SLOTS && left > 0; slot++) {
+                if (!itemKey.equals(slotKeys[slot])) continue;
+
+                ItemStack taken = inventory.extractItem(slot, Math.min(left, slotCounts[slot]), false);
+                if (taken.isEmpty()) continue;
+                if (!itemKey.equals(ItemFingerprint.of(taken).toKey())) {
+                    inventory.insertItem(slot, taken, false);
+                    continue;
+                }
+                extracted.add(taken);
+                left -= taken.getCount();
+            }
+        } finally {
+            shopTransfer = false;
+        }
+        return extracted;
+    }
+
+    @Override
+    public ItemStack restore(ItemStack stack) {
+        shopTransfer = true;
+        try {
+            return ItemHandlerHelper.insertItemStacked(inventory, stack, false);
+        } finally {
+            shopTransfer = false;
+        }
+    }
+
+    public int getStock(String itemKey) {
+        return stockCounts.getOrDefault(itemKey, 0);
+    }
+
+    public IItemHandler getInventory() {
+        return inventory;
+    }
+
+    // 供箱子界面使用的容器视图
+    public Container createMenuContainer() {
+        return new MenuContainer();
+    }
+
+    // 按槽位快照的差值更新库存计数
+    private void syncSlot(int slot) {
+        ItemStack stack = inventory.getStackInSlot(slot);
+        String key = stack.isEmpty() ? null : ItemFingerprint.of(stack).toKey();
+        int count = stack.getCount();
+        if (key != null && key.equals(slotKeys[slot])) {
+            // 同一物品只按净变化量更新，避免先减后加被当成补货
+            int delta = count - slotCounts[slot];
+            slotCounts[slot] = count;
+            adjustStock(key, delta);
+            return;
+        }
+        if (key == null && slotKeys[slot] == null) {
+            return;
+        }
+
+        if (slotKeys[slot] != null) {
+            adjustStock(slotKeys[slot], -slotCounts[slot]);
+        }
+        slotKeys[slot] = key;
+        slotCounts[slot] = key != null ? count : 0;
+        if (key != null) {
+            adjustStock(key, count);
+        }
+    }
+
+    // 界面操作可能直接修改槽位中的物品堆，关闭或修改后按快照比对所有槽位
+    private void syncAllSlots() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            syncSlot(slot);
+        }
+    }
+
+    private void adjustStock(String itemKey, int delta) {
+        if (delta == 0) return;
+        stockCounts.merge(itemKey, delta, (a, b) -> a + b == 0 ? null : a + b);
+
+        int restocked = 0;
+        if (shopTransfer) {
+            // 出售和回滚不是玩家的取出或补货
+        } else if (delta < 0) {
+            withdrawn.merge(itemKey, -delta, Integer::sum);
+        } else {
+            int credit = withdrawn.getOrDefault(itemKey, 0);
+            int offset = Math.min(credit, delta);
+            if (offset > 0) {
+                withdrawn.merge(itemKey, -offset, (a, b) -> a + b == 0 ? null : a + b);
+            }
+            restocked = delta - offset;
+        }
+
+        if (attachedShop != null) {
+            attachedShop.onStockChanged(itemKey, delta, restocked);
+        }
+    }
+
+    @Override
+    @Nonnull
+    public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> capability, @Nullable Direction side) {
+        if (capability == ForgeCapabilities.ITEM_HANDLER) {
+            return itemHandler.cast();
+        }
+        return super.getCapability(capability, side);
+    }
+
+    @Override
+    protected void saveAdditional(CompoundTag tag) {
+        super.saveAdditional(tag);
+        tag.put("Inventory", inventory.serializeNBT());
+    }
+
+    @Override
+    public void load(CompoundTag tag) {
+        super.load(tag);
+        inventory.deserializeNBT(tag.getCompound("Inventory"));
+        syncAllSlots();
+    }
+
+    // 箱子界面的容器视图，所有修改都经过物品处理器
+    private class MenuContainer implements Container {
+        @Override
+        public int getContainerSize() {
+            return SLOTS;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if (!inventory.getStackInSlot(slot).isEmpty()) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public ItemStack getItem(int slot) {
+            return inventory.getStackInSlot(slot);
+        }
+
+        @Override
+        public ItemStack removeItem(int slot, int amount) {
+            return inventory.extractItem(slot, amount, false);
+        }
+
+        @Override
+        public ItemStack removeItemNoUpdate(int slot) {
+            ItemStack stack = inventory.getStackInSlot(slot);
+            inventory.setStackInSlot(slot, ItemStack.EMPTY);
+            return stack;
+        }
+
+        @Override
+        public void setItem(int slot, ItemStack stack) {
+            inventory.setStackInSlot(slot, stack);
+        }
+
+        @Override
+        public void setChanged() {
+            syncAllSlots();
+            ShopStockBlockEntity.this.setChanged();
+        }
+
+        @Override
+        public void stopOpen(Player player) {
+            syncAllSlots();
+            withdrawn.clear();
+        }
+
+        @Override
+        public boolean stillValid(Player player) {
+            return Container.stillValidBlockEntity(ShopStockBlockEntity.this, player);
+        }
+
+        @Override
+        public void clearContent() {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                inventory.setStackInSlot(slot, ItemStack.EMPTY);
+            }
+        }
+    }
+}
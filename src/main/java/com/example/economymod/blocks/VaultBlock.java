@@ -7,21 +7,27 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
 // 保险箱方块类 - 高级存储系统
-public class VaultBlock extends Block {
+public class VaultBlock extends EconomyBlock {
     public VaultBlock(Properties properties) {
-        super(properties);
+        super(properties, EconomyService.VAULT);
     }
 
     @Override
     public InteractionResult use(BlockState state, Level level, BlockPos pos, Player player, 
                                 InteractionHand hand, BlockHitResult hit) {
         if (!level.isClientSide()) {
-            showVaultMenu(player);
+            EconomyBlockEntity binding = getBinding(level, pos);
+            if (binding != null && !binding.isOwner(player.getUUID())) {
+                player.displayClientMessage(
+                    Component.literal("这个保险箱属于 " + binding.getOwnerName()).withStyle(ChatFormatting.RED), false
+                );
+            } else {
+                showVaultMenu(player);
+            }
         }
         return InteractionResult.sidedSuccess(level.isClientSide());
     }
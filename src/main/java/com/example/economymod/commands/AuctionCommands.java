@@ -0,0 +1,349 @@
+package com.example.economymod.commands;
+
+import com.example.economymod.economy.Auction;
+import com.example.economymod.economy.AuctionArchive;
+import com.example.economymod.economy.AuctionBidQueue;
+import com.example.economymod.economy.AuctionHouse;
+import com.example.economymod.economy.EconomyManager;
+import com.example.economymod.economy.ItemFingerprint;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.List;
+
+// 拍卖命令系统
+public class AuctionCommands {
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("auction")
+                .then(Commands.literal("list")
+                        .executes(context -> listAuctions(context.getSource(), AuctionHouse.SortOrder.NEWEST, 1))
+                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                .executes(context -> listAuctions(context.getSource(), AuctionHouse.SortOrder.NEWEST,
+                                        IntegerArgumentType.getInteger(context, "page")))))
+
+                .then(Commands.literal("sort")
+                        .then(Commands.argument("order", StringArgumentType.word())
+                                .suggests((context, builder) -> {
+                                    for (AuctionHouse.SortOrder order : AuctionHouse.SortOrder.values()) {
+                                        builder.suggest(order.name().toLowerCase());
+                                    }
+                                    return builder.buildFuture();
+                                })
+                                .executes(context -> sortAuctions(context.getSource(),
+                                        StringArgumentType.getString(context, "order"), 1))
+                                .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                        .executes(context -> sortAuctions(context.getSource(),
+                                                StringArgumentType.getString(context, "order"),
+                                                IntegerArgumentType.getInteger(context, "page"))))))
+
+                .then(Commands.literal("ending")
+                        .executes(context -> listAuctions(context.getSource(), AuctionHouse.SortOrder.ENDING_SOON, 1))
+                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                .executes(context -> listAuctions(context.getSource(), AuctionHouse.SortOrder.ENDING_SOON,
+                                        IntegerArgumentType.getInteger(context, "page")))))
+
+                .then(Commands.literal("search")
+                        .then(Commands.argument("item", StringArgumentType.string())
+                                .executes(context -> searchAuctions(context.getSource(),
+                                        StringArgumentType.getString(context, "item"), 1))
+                                .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                        .executes(context -> searchAuctions(context.getSource(),
+                                                StringArgumentType.getString(context, "item"),
+                                                IntegerArgumentType.getInteger(context, "page"))))))
+
+                .then(Commands.literal("price")
+                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                .executes(context -> showPriceStats(context.getSource(),
+                                        StringArgumentType.getString(context, "item")))))
+
+                .then(Commands.literal("info")
+                        .then(Commands.argument("id", IntegerArgumentType.integer(1))
+                                .executes(context -> showAuctionInfo(context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "id")))))
+
+                .then(Commands.literal("bid")
+                        .then(Commands.argument("id", IntegerArgumentType.integer(1))
+                                .then(Commands.argument("maxAmount", LongArgumentType.longArg(1))
+                                        .executes(context -> placeBid(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "id"),
+                                                LongArgumentType.getLong(context, "maxAmount"))))))
+
+                .then(Commands.literal("create")
+                        .then(Commands.argument("startingBid", LongArgumentType.longArg(1))
+                                .then(Commands.argument("hours", IntegerArgumentType.integer(1, 168))
+                                        .executes(context -> createHeldItemAuction(context.getSource(),
+                                                LongArgumentType.getLong(context, "startingBid"),
+                                                IntegerArgumentType.getInteger(context, "hours")))
+                                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                .executes(context -> createAuction(context.getSource(),
+                                                        LongArgumentType.getLong(context, "startingBid"),
+                                                        IntegerArgumentType.getInteger(context, "hours"),
+                                                        StringArgumentType.getString(context, "item")))))))
+
+                .then(Commands.literal("match")
+                        .executes(context -> matchHeldItem(context.getSource())))
+
+                .then(Commands.literal("mine")
+                        .executes(context -> showMyAuctions(context.getSource())))
+
+                // 管理员命令
+                .then(Commands.literal("admin")
+                        .requires(source -> source.hasPermission(2))
+                        .then(Commands.literal("end")
+                                .then(Commands.argument("id", IntegerArgumentType.integer(1))
+                                        .executes(context -> adminEndAuction(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "id")))))));
+    }
+
+    // 按排序方式列出拍卖
+    private static int listAuctions(CommandSourceStack source, AuctionHouse.SortOrder order, int page) {
+        AuctionHouse.Page result = EconomyManager.getAuctionHouse().list(order, page);
+
+        if (result.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("当前没有进行中的拍卖").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 拍卖行 (" + order.getDescription() + ") ===")
+                .withStyle(ChatFormatting.GOLD), false);
+        showPage(source, result);
+        return 1;
+    }
+
+    // 解析排序方式并列出拍卖
+    private static int sortAuctions(CommandSourceStack source, String orderName, int page) {
+        AuctionHouse.SortOrder order;
+        try {
+            order = AuctionHouse.SortOrder.valueOf(orderName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            source.sendFailure(Component.literal("未知的排序方式: " + orderName));
+            return 0;
+        }
+        return listAuctions(source, order, page);
+    }
+
+    // 按物品名前缀搜索拍卖
+    private static int searchAuctions(CommandSourceStack source, String item, int page) {
+        AuctionHouse.Page result = EconomyManager.getAuctionHouse().search(item, page);
+
+        if (result.isEmpty()) {
+            source.sendFailure(Component.literal("未找到匹配的拍卖: " + item));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 搜索结果: " + item + " ===").withStyle(ChatFormatting.YELLOW), false);
+        showPage(source, result);
+        return 1;
+    }
+
+    // 显示物品的历史成交价统计
+    private static int showPriceStats(CommandSourceStack source, String item) {
+        AuctionArchive archive = EconomyManager.getAuctionArchive();
+        AuctionArchive.PriceSummary summary = archive.getPriceSummary(item);
+        if (summary == null) {
+            source.sendFailure(Component.literal("没有该物品的成交记录: " + item));
+            return 0;
+        }
+
+        String title = summary.getMatchedItems() > 1
+                ? "=== 成交价统计: " + item + "* (" + summary.getMatchedItems() + " 种物品) ==="
+                : "=== 成交价统计: " + item + " ===";
+        source.sendSuccess(() -> Component.literal(title).withStyle(ChatFormatting.GOLD), false);
+        source.sendSuccess(() -> Component.literal("成交次数: " + summary.getSalesCount()).withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("中位数: ")
+                .append(Component.literal(summary.getMedian() + " 金币").withStyle(ChatFormatting.GREEN)), false);
+        source.sendSuccess(() -> Component.literal(String.format("P10 - P90: %d - %d 金币",
+                summary.getP10(), summary.getP90())).withStyle(ChatFormatting.AQUA), false);
+        source.sendSuccess(() -> Component.literal(String.format("最低 / 最高: %d / %d 金币",
+                summary.getMin(), summary.getMax())).withStyle(ChatFormatting.GRAY), false);
+
+        List<AuctionArchive.ArchivedAuction> recent = archive.getRecentSales(item, 3);
+        for (AuctionArchive.ArchivedAuction sale : recent) {
+            source.sendSuccess(() -> Component.literal(String.format("  #%d 成交价 %d 金币 (%d 次出价)",
+                    sale.getAuctionId(), sale.getFinalPrice(), sale.getBidCount())).withStyle(ChatFormatting.GRAY), false);
+        }
+
+        return 1;
+    }
+
+    // 显示拍卖详情
+    private static int showAuctionInfo(CommandSourceStack source, int auctionId) {
+        Auction auction = EconomyManager.getAuctionHouse().getAuction(auctionId);
+        if (auction == null) {
+            source.sendFailure(Component.literal("未找到拍卖: #" + auctionId));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 拍卖 #" + auction.getAuctionId() + " - " + auction.getItemName() + " ===")
+                .withStyle(ChatFormatting.GOLD), false);
+        source.sendSuccess(() -> Component.literal("卖家: " + auction.getSellerName()).withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("起拍价: " + auction.getStartingBid() + " 金币").withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("当前出价: " + auction.getCurrentBid() + " 金币").withStyle(ChatFormatting.GREEN), false);
+        if (auction.getCurrentBidderName() != null) {
+            source.sendSuccess(() -> Component.literal("最高出价者: " + auction.getCurrentBidderName()).withStyle(ChatFormatting.GRAY), false);
+        }
+        source.sendSuccess(() -> Component.literal("最低出价: " + auction.getMinimumBid() + " 金币").withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("出价次数: " + auction.getBidCount()).withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("剩余时间: " + auction.getRemainingMinutes() + " 分钟").withStyle(ChatFormatting.AQUA), false);
+        source.sendSuccess(() -> Component.literal("状态: " + auction.getStatus()).withStyle(ChatFormatting.BLUE), false);
+
+        return 1;
+    }
+
+    // 代理出价
+    private static int placeBid(CommandSourceStack source, int auctionId, long maxAmount) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        AuctionBidQueue.OfferResult result = EconomyManager.submitAuctionBid(auctionId, player.getUUID(),
+                player.getName().getString(), maxAmount);
+
+        switch (result) {
+            case QUEUED -> source.sendSuccess(() -> Component.literal("已提交对拍卖 #" + auctionId + " 的出价，上限 ")
+                    .append(Component.literal(String.valueOf(maxAmount)).withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(" 金币，结果将很快通知您")), false);
+            case TOO_LOW -> {
+                Auction auction = EconomyManager.getAuctionHouse().getAuction(auctionId);
+                long minimum = auction != null ? auction.getMinimumBid() : maxAmount + 1;
+                source.sendFailure(Component.literal("出价过低，最低出价为 " + minimum + " 金币"));
+            }
+            case INSUFFICIENT_FUNDS -> source.sendFailure(Component.literal("余额不足以冻结 " + maxAmount + " 金币"));
+            default -> source.sendFailure(Component.literal("出价失败，拍卖可能已结束或不能对自己的拍卖出价"));
+        }
+
+        return 1;
+    }
+
+    // 创建拍卖
+    private static int createAuction(CommandSourceStack source, long startingBid, int hours, String item) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        Auction auction = EconomyManager.createAuction(player.getUUID(), player.getName().getString(),
+                item, startingBid, hours);
+        if (auction != null) {
+            source.sendSuccess(() -> Component.literal("成功创建拍卖 #" + auction.getAuctionId() + ": " + item)
+                    .withStyle(ChatFormatting.GREEN), false);
+        } else {
+            source.sendFailure(Component.literal("创建拍卖失败"));
+        }
+
+        return 1;
+    }
+
+    // 以手持物品创建拍卖（按物品指纹精确标识物品）
+    private static int createHeldItemAuction(CommandSourceStack source, long startingBid, int hours) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ItemStack stack = player.getMainHandItem();
+        if (stack.isEmpty()) {
+            source.sendFailure(Component.literal("请手持要拍卖的物品，或在命令末尾输入物品名"));
+            return 0;
+        }
+
+        String itemName = stack.hasCustomHoverName()
+                ? stack.getHoverName().getString() : ItemFingerprint.itemId(stack.getItem());
+        Auction auction = EconomyManager.createAuction(player.getUUID(), player.getName().getString(),
+                itemName, ItemFingerprint.compute(stack).toKey(), startingBid, hours);
+        if (auction != null) {
+            source.sendSuccess(() -> Component.literal("成功创建拍卖 #" + auction.getAuctionId() + ": " + itemName)
+                    .withStyle(ChatFormatting.GREEN), false);
+        } else {
+            source.sendFailure(Component.literal("创建拍卖失败"));
+        }
+
+        return 1;
+    }
+
+    // 查找与手持物品相同（物品指纹相同）的拍卖
+    private static int matchHeldItem(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ItemStack stack = player.getMainHandItem();
+        if (stack.isEmpty()) {
+            source.sendFailure(Component.literal("请手持要查找的物品"));
+            return 0;
+        }
+
+        List<Auction> auctions = EconomyManager.getAuctionHouse().getAuctionsByItem(ItemFingerprint.of(stack).toKey());
+        if (auctions.isEmpty()) {
+            source.sendFailure(Component.literal("没有与手持物品相同的拍卖"));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 相同物品的拍卖 ===").withStyle(ChatFormatting.GOLD), false);
+        for (Auction auction : auctions) {
+            showAuctionLine(source, auction);
+        }
+
+        return 1;
+    }
+
+    // 显示自己的拍卖
+    private static int showMyAuctions(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        List<Auction> auctions = EconomyManager.getAuctionHouse().getAuctionsBySeller(player.getUUID());
+        if (auctions.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("您没有进行中的拍卖").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 我的拍卖 ===").withStyle(ChatFormatting.GOLD), false);
+        for (Auction auction : auctions) {
+            showAuctionLine(source, auction);
+        }
+
+        return 1;
+    }
+
+    // 管理员结束拍卖
+    private static int adminEndAuction(CommandSourceStack source, int auctionId) {
+        if (EconomyManager.getAuctionHouse().endAuction(auctionId)) {
+            EconomyManager.saveData();
+            source.sendSuccess(() -> Component.literal("已结束拍卖 #" + auctionId), false);
+        } else {
+            source.sendFailure(Component.literal("未找到进行中的拍卖: #" + auctionId));
+        }
+        return 1;
+    }
+
+    // 显示一页拍卖
+    private static void showPage(CommandSourceStack source, AuctionHouse.Page page) {
+        for (Auction auction : page.getAuctions()) {
+            showAuctionLine(source, auction);
+        }
+        source.sendSuccess(() -> Component.literal(String.format("第 %d/%d 页，共 %d 个拍卖",
+                page.getPage(), page.getTotalPages(), page.getTotalCount())).withStyle(ChatFormatting.GRAY), false);
+    }
+
+    private static void showAuctionLine(CommandSourceStack source, Auction auction) {
+        source.sendSuccess(() -> Component.literal(String.format("#%d %s ", auction.getAuctionId(), auction.getItemName()))
+                .withStyle(ChatFormatting.YELLOW)
+                .append(Component.literal(auction.getCurrentBid() + " 金币").withStyle(ChatFormatting.GREEN))
+                .append(Component.literal(String.format(" (%d 次出价, 剩余 %d 分钟)",
+                        auction.getBidCount(), auction.getRemainingMinutes())).withStyle(ChatFormatting.GRAY)), false);
+    }
+}
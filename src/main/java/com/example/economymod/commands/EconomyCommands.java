@@ -38,6 +38,13 @@ public class EconomyCommands {
                                                         LongArgumentType.getLong(context, "amount"),
                                                         StringArgumentType.getString(context, "memo")))))))
                 
+                .then(Commands.literal("paymode")
+                        .executes(context -> showPayMode(context.getSource()))
+                        .then(Commands.literal("wallet")
+                                .executes(context -> setPayMode(context.getSource(), false)))
+                        .then(Commands.literal("cash")
+                                .executes(context -> setPayMode(context.getSource(), true))))
+                
                 .then(Commands.literal("deposit")
                         .then(Commands.argument("amount", LongArgumentType.longArg(1))
                                 .executes(context -> deposit(
@@ -133,6 +140,22 @@ public class EconomyCommands {
                 .append(Component.literal(String.valueOf(savings)).withStyle(ChatFormatting.YELLOW))
                 .append(Component.literal(" 金币")), false);
 
+        long cash = CoinPurse.getCash(player);
+        source.sendSuccess(() -> Component.literal("背包现金: ")
+                .withStyle(ChatFormatting.GRAY)
+                .append(Component.literal(String.valueOf(cash)).withStyle(ChatFormatting.GREEN))
+                .append(Component.literal(" 金币"))
+                .append(Component.literal(EconomyManager.isPayWithCash(player.getUUID()) ? " (付款方式: 现金)" : "")
+                        .withStyle(ChatFormatting.DARK_GRAY)), false);
+
+        long held = EconomyManager.getHeldMoney(player.getUUID());
+        if (held > 0) {
+            source.sendSuccess(() -> Component.literal("拍卖冻结: ")
+                    .withStyle(ChatFormatting.GRAY)
+                    .append(Component.literal(String.valueOf(held)).withStyle(ChatFormatting.GOLD))
+                    .append(Component.literal(" 金币")), false);
+        }
+
         if (loan != null) {
             source.sendSuccess(() -> Component.literal("贷款状态: ")
                     .withStyle(ChatFormatting.GRAY)
@@ -143,7 +166,7 @@ public class EconomyCommands {
                     .append(Component.literal(" 金币")), false);
         }
 
-        long total = balance + savings;
+        long total = balance + savings + held + cash;
         source.sendSuccess(() -> Component.literal("总资产: ")
                 .withStyle(ChatFormatting.GRAY)
                 .append(Component.literal(String.valueOf(total)).withStyle(ChatFormatting.AQUA))
@@ -168,6 +191,10 @@ public class EconomyCommands {
             return 0;
         }
 
+        if (EconomyManager.isPayWithCash(player.getUUID())) {
+            return payPlayerCash(source, player, target, amount, memo);
+        }
+
         if (EconomyManager.transferMoney(player.getUUID(), target.getUUID(), amount, memo)) {
             source.sendSuccess(() -> Component.literal("成功转账 ")
                     .append(Component.literal(String.valueOf(amount)).withStyle(ChatFormatting.GREEN))
@@ -187,6 +214,53 @@ public class EconomyCommands {
         return 1;
     }
 
+    // 用背包中的硬币转账：扣除硬币并找零，硬币直接放入对方背包
+    private static int payPlayerCash(CommandSourceStack source, ServerPlayer player, ServerPlayer target, long amount, String memo) {
+        if (!CoinPurse.payment(player).pay(amount)) {
+            source.sendFailure(Component.literal("转账失败，背包中的硬币不足"));
+            return 0;
+        }
+
+        CoinPurse.give(target, amount);
+        EconomyManager.recordCashTransfer(player.getUUID(), target.getUUID(), amount, memo);
+        source.sendSuccess(() -> Component.literal("已用现金支付 ")
+                .append(Component.literal(String.valueOf(amount)).withStyle(ChatFormatting.GREEN))
+                .append(Component.literal(" 金币给 "))
+                .append(Component.literal(target.getName().getString()).withStyle(ChatFormatting.YELLOW)), false);
+        target.sendSystemMessage(Component.literal("收到来自 ")
+                .append(Component.literal(player.getName().getString()).withStyle(ChatFormatting.YELLOW))
+                .append(Component.literal(" 的现金: "))
+                .append(Component.literal(String.valueOf(amount)).withStyle(ChatFormatting.GREEN))
+                .append(Component.literal(" 金币"))
+                .append(Component.literal(" (备注: " + memo + ")")));
+        return 1;
+    }
+
+    // 查看付款方式
+    private static int showPayMode(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        boolean cash = EconomyManager.isPayWithCash(player.getUUID());
+        source.sendSuccess(() -> Component.literal("当前付款方式: " + (cash ? "现金（背包中的硬币）" : "钱包余额")), false);
+        return 1;
+    }
+
+    // 设置转账和购物的付款方式
+    private static int setPayMode(CommandSourceStack source, boolean cash) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        EconomyManager.setPayWithCash(player.getUUID(), cash);
+        source.sendSuccess(() -> Component.literal("付款方式已设置为: " + (cash ? "现金（背包中的硬币）" : "钱包余额"))
+                .withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
     // 存款
     private static int deposit(CommandSourceStack source, long amount) {
         if (!(source.getEntity() instanceof ServerPlayer player)) {
@@ -0,0 +1,974 @@
+package com.example.economymod.commands;
+
+import com.example.economymod.Config;
+import com.example.economymod.blocks.EconomyBlockEntity;
+import com.example.economymod.blocks.EconomyBlockIndex;
+import com.example.economymod.blocks.EconomyService;
+import com.example.economymod.economy.CoinPurse;
+import com.example.economymod.economy.EconomyClock;
+import com.example.economymod.economy.EconomyManager;
+import com.example.economymod.economy.ItemFingerprint;
+import com.example.economymod.economy.PaymentMethod;
+import com.example.economymod.economy.PlayerShop;
+import com.example.economymod.economy.ServerShop;
+import com.example.economymod.economy.ServerShopCatalog;
+import com.example.economymod.economy.ShopIndex;
+import com.example.economymod.economy.ShopSalesStats;
+import com.example.economymod.economy.ShoppingCart;
+import com.example.economymod.items.ModItems;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.HitResult;
+
+import java.util.List;
+import java.util.Map;
+
+// 玩家商店命令系统
+public class ShopCommands {
+    private static final int FIND_LIMIT = 8;
+    private static final int SERVER_SHOP_PAGE_SIZE = 10;
+    private static final double BIND_REACH = 5.0D;
+
+    // 商店名补全
+    private static final SuggestionProvider<CommandSourceStack> SHOP_SUGGESTIONS = (context, builder) -> {
+        for (PlayerShop shop : EconomyManager.getShops()) {
+            builder.suggest(StringArgumentType.escapeIfRequired(shop.getShopName()));
+        }
+        return builder.buildFuture();
+    };
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("shop")
+                .then(Commands.literal("create")
+                        .then(Commands.argument("name", StringArgumentType.string())
+                                .executes(context -> createShop(context.getSource(),
+                                        StringArgumentType.getString(context, "name")))))
+
+                .then(Commands.literal("list")
+                        .executes(context -> listShops(context.getSource())))
+
+                .then(Commands.literal("server")
+                        .executes(context -> listServerShop(context.getSource(), 1))
+                        .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                .executes(context -> listServerShop(context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "page"))))
+                        .then(Commands.literal("buy")
+                                .then(Commands.argument("quantity", IntegerArgumentType.integer(1))
+                                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                .executes(context -> buyFromServerShop(context.getSource(),
+                                                        IntegerArgumentType.getInteger(context, "quantity"),
+                                                        StringArgumentType.getString(context, "item"))))))
+                        .then(Commands.literal("sell")
+                                .then(Commands.argument("quantity", IntegerArgumentType.integer(1))
+                                        .executes(context -> sellToServerShop(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "quantity"))))))
+
+                .then(Commands.literal("info")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .executes(context -> showShopInfo(context.getSource(),
+                                        StringArgumentType.getString(context, "shop")))))
+
+                .then(Commands.literal("bind")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .executes(context -> bindShopBlock(context.getSource(),
+                                        StringArgumentType.getString(context, "shop")))))
+
+                .then(Commands.literal("stats")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .executes(context -> showShopStats(context.getSource(),
+                                        StringArgumentType.getString(context, "shop")))))
+
+                .then(Commands.literal("add")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .then(Commands.argument("price", LongArgumentType.longArg(0))
+                                        .executes(context -> addHeldItem(context.getSource(),
+                                                StringArgumentType.getString(context, "shop"),
+                                                LongArgumentType.getLong(context, "price"))))))
+
+                .then(Commands.literal("stock")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .then(Commands.argument("price", LongArgumentType.longArg(0))
+                                        .executes(context -> addStockedItem(context.getSource(),
+                                                StringArgumentType.getString(context, "shop"),
+                                                LongArgumentType.getLong(context, "price"))))))
+
+                .then(Commands.literal("remove")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .then(Commands.argument("item", StringArgumentType.greedyString())
+                                        .executes(context -> removeItem(context.getSource(),
+                                                StringArgumentType.getString(context, "shop"),
+                                                StringArgumentType.getString(context, "item"))))))
+
+                .then(Commands.literal("price")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .then(Commands.argument("price", LongArgumentType.longArg(0))
+                                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                .executes(context -> updatePrice(context.getSource(),
+                                                        StringArgumentType.getString(context, "shop"),
+                                                        LongArgumentType.getLong(context, "price"),
+                                                        StringArgumentType.getString(context, "item")))))))
+
+                .then(Commands.literal("dynamic")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .then(Commands.literal("off")
+                                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                .executes(context -> disableDynamicPricing(context.getSource(),
+                                                        StringArgumentType.getString(context, "shop"),
+                                                        StringArgumentType.getString(context, "item")))))
+                                .then(Commands.argument("min", LongArgumentType.longArg(0))
+                                        .then(Commands.argument("max", LongArgumentType.longArg(0))
+                                                .then(Commands.argument("elasticity", DoubleArgumentType.doubleArg(0.01, 5.0))
+                                                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                                .executes(context -> enableDynamicPricing(context.getSource(),
+                                                                        StringArgumentType.getString(context, "shop"),
+                                                                        LongArgumentType.getLong(context, "min"),
+                                                                        LongArgumentType.getLong(context, "max"),
+                                                                        DoubleArgumentType.getDouble(context, "elasticity"),
+                                                                        StringArgumentType.getString(context, "item")))))))))
+
+                .then(Commands.literal("buy")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .then(Commands.argument("quantity", IntegerArgumentType.integer(1))
+                                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                .executes(context -> buyItem(context.getSource(),
+                                                        StringArgumentType.getString(context, "shop"),
+                                                        IntegerArgumentType.getInteger(context, "quantity"),
+                                                        StringArgumentType.getString(context, "item")))))))
+
+                .then(Commands.literal("find")
+                        .executes(context -> findHeldItem(context.getSource()))
+                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                .executes(context -> findItem(context.getSource(),
+                                        StringArgumentType.getString(context, "item")))))
+
+                .then(Commands.literal("quote")
+                        .then(Commands.argument("quantity", IntegerArgumentType.integer(1))
+                                .then(Commands.argument("item", StringArgumentType.greedyString())
+                                        .executes(context -> quoteItem(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "quantity"),
+                                                StringArgumentType.getString(context, "item"))))))
+
+                .then(Commands.literal("order")
+                        .then(Commands.argument("quantity", IntegerArgumentType.integer(1))
+                                .then(Commands.argument("item", StringArgumentType.greedyString())
+                                        .executes(context -> placeOrder(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "quantity"),
+                                                StringArgumentType.getString(context, "item"))))))
+
+                .then(Commands.literal("cart")
+                        .executes(context -> showCart(context.getSource()))
+                        .then(Commands.literal("add")
+                                .then(Commands.argument("shop", StringArgumentType.string())
+                                        .suggests(SHOP_SUGGESTIONS)
+                                        .then(Commands.argument("quantity", IntegerArgumentType.integer(1))
+                                                .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                        .executes(context -> addToCart(context.getSource(),
+                                                                StringArgumentType.getString(context, "shop"),
+                                                                IntegerArgumentType.getInteger(context, "quantity"),
+                                                                StringArgumentType.getString(context, "item")))))))
+                        .then(Commands.literal("route")
+                                .then(Commands.argument("quantity", IntegerArgumentType.integer(1))
+                                        .then(Commands.argument("item", StringArgumentType.greedyString())
+                                                .executes(context -> routeToCart(context.getSource(),
+                                                        IntegerArgumentType.getInteger(context, "quantity"),
+                                                        StringArgumentType.getString(context, "item"))))))
+                        .then(Commands.literal("remove")
+                                .then(Commands.argument("line", IntegerArgumentType.integer(1))
+                                        .executes(context -> removeFromCart(context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "line")))))
+                        .then(Commands.literal("clear")
+                                .executes(context -> clearCart(context.getSource())))
+                        .then(Commands.literal("checkout")
+                                .executes(context -> checkoutCart(context.getSource()))))
+
+                .then(Commands.literal("open")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .executes(context -> setShopOpen(context.getSource(),
+                                        StringArgumentType.getString(context, "shop"), true))))
+
+                .then(Commands.literal("close")
+                        .then(Commands.argument("shop", StringArgumentType.string())
+                                .suggests(SHOP_SUGGESTIONS)
+                                .executes(context -> setShopOpen(context.getSource(),
+                                        StringArgumentType.getString(context, "shop"), false)))));
+    }
+
+    // 创建商店（消耗手持的商店契约）
+    private static int createShop(CommandSourceStack source, String name) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ItemStack deed = player.getMainHandItem();
+        if (!deed.is(ModItems.SHOP_DEED.get())) {
+            source.sendFailure(Component.literal("需要手持商店契约才能创建商店"));
+            return 0;
+        }
+
+        PlayerShop shop = EconomyManager.createShop(player.getUUID(), player.getName().getString(), name);
+        if (shop != null) {
+            deed.shrink(1);
+            source.sendSuccess(() -> Component.literal("成功创建商店: ")
+                    .append(Component.literal(name).withStyle(ChatFormatting.GREEN)), false);
+        } else {
+            source.sendFailure(Component.literal("创建商店失败，商店名已被占用或已达到商店数量上限"));
+        }
+
+        return 1;
+    }
+
+    // 列出所有商店
+    private static int listShops(CommandSourceStack source) {
+        List<PlayerShop> shops = EconomyManager.getShops();
+        if (shops.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("当前没有玩家商店").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 玩家商店 ===").withStyle(ChatFormatting.GOLD), false);
+        for (PlayerShop shop : shops) {
+            source.sendSuccess(() -> Component.literal(shop.getShopName()).withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal(String.format(" - 店主: %s, %d 种商品%s",
+                            shop.getOwnerName(), shop.getItemCount(), shop.isOpen() ? "" : " (已关闭)"))
+                            .withStyle(ChatFormatting.GRAY)), false);
+        }
+
+        return 1;
+    }
+
+    // 列出系统商店的一页价格
+    private static int listServerShop(CommandSourceStack source, int page) {
+        ServerShopCatalog catalog = ServerShop.getCatalog();
+        if (catalog.size() == 0) {
+            source.sendSuccess(() -> Component.literal("系统商店暂无商品").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+
+        int pageCount = (catalog.size() + SERVER_SHOP_PAGE_SIZE - 1) / SERVER_SHOP_PAGE_SIZE;
+        int current = Math.min(page, pageCount);
+        source.sendSuccess(() -> Component.literal("=== 系统商店 (" + current + "/" + pageCount + ") ===")
+                .withStyle(ChatFormatting.GOLD), false);
+        for (int slot : catalog.page(current - 1, SERVER_SHOP_PAGE_SIZE)) {
+            String buy = catalog.isSold(slot) ? "售价 " + catalog.getBuyPrice(slot) : "不出售";
+            String sell = catalog.isBought(slot) ? "收购价 " + catalog.getSellPrice(slot) : "不收购";
+            source.sendSuccess(() -> Component.literal(catalog.getDisplayName(slot) + " ").withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal(buy).withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(" / " + sell).withStyle(ChatFormatting.GRAY)), false);
+        }
+
+        return 1;
+    }
+
+    // 从系统商店购买
+    private static int buyFromServerShop(CommandSourceStack source, int quantity, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        // 整个购买过程使用同一份价格表快照
+        ServerShopCatalog catalog = ServerShop.getCatalog();
+        int slot = catalog.resolve(itemInput);
+        if (slot < 0 || !catalog.isSold(slot)) {
+            source.sendFailure(Component.literal("系统商店不出售: " + itemInput));
+            return 0;
+        }
+
+        PaymentMethod payment = CoinPurse.paymentFor(player);
+        long totalCost = EconomyManager.buyFromServerShop(player.getUUID(), payment, catalog, slot, quantity);
+        if (totalCost < 0) {
+            source.sendFailure(Component.literal(payment.getName() + "不足，需要 " + catalog.getBuyPrice(slot) * quantity + " 金币"));
+            return 0;
+        }
+
+        giveStacks(player, catalog.createStack(slot, 1), quantity);
+        source.sendSuccess(() -> Component.literal("成功从系统商店购买 " + catalog.getDisplayName(slot) + " x" + quantity + "，花费 ")
+                .append(Component.literal(totalCost + " 金币").withStyle(ChatFormatting.GREEN)), false);
+        return 1;
+    }
+
+    // 向系统商店出售手持物品
+    private static int sellToServerShop(CommandSourceStack source, int quantity) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ItemStack stack = player.getMainHandItem();
+        if (stack.isEmpty()) {
+            source.sendFailure(Component.literal("请手持要出售的物品"));
+            return 0;
+        }
+
+        ServerShopCatalog catalog = ServerShop.getCatalog();
+        int slot = catalog.indexOf(ItemFingerprint.of(stack).toKey());
+        if (slot < 0 || !catalog.isBought(slot)) {
+            source.sendFailure(Component.literal("系统商店不收购该物品"));
+            return 0;
+        }
+        if (stack.getCount() < quantity) {
+            source.sendFailure(Component.literal("手持物品数量不足"));
+            return 0;
+        }
+
+        stack.shrink(quantity);
+        long income = EconomyManager.sellToServerShop(player.getUUID(), catalog, slot, quantity);
+        source.sendSuccess(() -> Component.literal("已向系统商店出售 " + catalog.getDisplayName(slot) + " x" + quantity + "，获得 ")
+                .append(Component.literal(income + " 金币").withStyle(ChatFormatting.GREEN)), false);
+        return 1;
+    }
+
+    // 显示商店信息
+    private static int showShopInfo(CommandSourceStack source, String shopName) {
+        PlayerShop shop = EconomyManager.getShop(shopName);
+        if (shop == null) {
+            source.sendFailure(Component.literal("未找到商店: " + shopName));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== " + shop.getShopName() + " ===").withStyle(ChatFormatting.GOLD), false);
+        source.sendSuccess(() -> Component.literal("店主: " + shop.getOwnerName()).withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal(shop.getDescription()).withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("状态: " + (shop.isOpen() ? "营业中" : "已关闭"))
+                .withStyle(ChatFormatting.BLUE), false);
+
+        for (Map.Entry<String, PlayerShop.ShopItem> entry : shop.getItems().entrySet()) {
+            PlayerShop.ShopItem item = entry.getValue();
+            int available = shop.getAvailableQuantity(entry.getKey());
+            source.sendSuccess(() -> Component.literal(item.getDisplayName() + " ").withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal(item.getPrice() + " 金币").withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(" (库存 " + available + (item.isStocked() ? ", 库存箱" : "")
+                            + (item.getDynamicPrice() != null ? ", 动态" : "") + ")")
+                            .withStyle(ChatFormatting.GRAY)), false);
+        }
+
+        return 1;
+    }
+
+    // 将玩家看着的商店方块绑定到商店
+    private static int bindShopBlock(CommandSourceStack source, String shopName) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        HitResult hit = player.pick(BIND_REACH, 0.0F, false);
+        EconomyBlockEntity blockEntity = hit instanceof BlockHitResult blockHit && hit.getType() == HitResult.Type.BLOCK
+                ? EconomyBlockIndex.get(player.level(), blockHit.getBlockPos()) : null;
+        if (blockEntity == null || (blockEntity.getService() != EconomyService.SHOP
+                && blockEntity.getService() != EconomyService.SHOP_STOCK)) {
+            source.sendFailure(Component.literal("请看着一个商店方块或商店库存箱"));
+            return 0;
+        }
+        if (!blockEntity.isOwner(player.getUUID())) {
+            source.sendFailure(Component.literal("这个商店方块不是您放置的"));
+            return 0;
+        }
+
+        blockEntity.bindShop(shopName);
+        source.sendSuccess(() -> Component.literal(blockEntity.getService().getDescription() + "已绑定到 ")
+                .append(Component.literal(shopName).withStyle(ChatFormatting.GREEN)), false);
+        return 1;
+    }
+
+    // 显示商店的分时段销售统计（店主或管理员可查看）
+    private static int showShopStats(CommandSourceStack source, String shopName) {
+        PlayerShop shop = EconomyManager.getShop(shopName);
+        if (shop == null) {
+            source.sendFailure(Component.literal("未找到商店: " + shopName));
+            return 0;
+        }
+        boolean isOwner = source.getEntity() instanceof ServerPlayer player && shop.getOwnerId().equals(player.getUUID());
+        if (!isOwner && !source.hasPermission(2)) {
+            source.sendFailure(Component.literal("只有店主可以查看商店统计"));
+            return 0;
+        }
+
+        ShopSalesStats stats = shop.getSalesStats();
+        long now = EconomyClock.millis();
+
+        source.sendSuccess(() -> Component.literal("=== " + shop.getShopName() + " 销售统计 ===").withStyle(ChatFormatting.GOLD), false);
+        source.sendSuccess(() -> Component.literal(String.format("最近1小时: %d 金币 / %d 件",
+                stats.getRevenueLastHour(now), stats.getUnitsLastHour(now))).withStyle(ChatFormatting.GREEN), false);
+        source.sendSuccess(() -> Component.literal(String.format("最近24小时: %d 金币 / %d 件",
+                stats.getRevenueLastDay(now), stats.getUnitsLastDay(now))).withStyle(ChatFormatting.GREEN), false);
+        source.sendSuccess(() -> Component.literal(String.format("最近7天: %d 金币 / %d 件",
+                stats.getRevenueLastDays(now, 7), stats.getUnitsLastDays(now, 7))).withStyle(ChatFormatting.AQUA), false);
+        source.sendSuccess(() -> Component.literal(String.format("最近30天: %d 金币 / %d 件",
+                stats.getRevenueLastDays(now, 30), stats.getUnitsLastDays(now, 30))).withStyle(ChatFormatting.AQUA), false);
+        source.sendSuccess(() -> Component.literal(String.format("累计: %d 金币 / %d 笔",
+                shop.getTotalRevenue(), shop.getTotalSales())).withStyle(ChatFormatting.GRAY), false);
+
+        // 最近6小时每小时销售额
+        long[] hourly = stats.getHourlyRevenue(now, 6);
+        StringBuilder trend = new StringBuilder("每小时: ");
+        for (int i = 0; i < hourly.length; i++) {
+            if (i > 0) trend.append(" | ");
+            trend.append(hourly[i]);
+        }
+        source.sendSuccess(() -> Component.literal(trend.toString()).withStyle(ChatFormatting.GRAY), false);
+
+        showTopItems(source, "1小时畅销商品:", stats.getTopItemsLastHour(now, 3));
+        showTopItems(source, "24小时畅销商品:", stats.getTopItemsLastDay(now, 3));
+        showTopItems(source, "7天畅销商品:", stats.getTopItems(now, 7, 5));
+
+        return 1;
+    }
+
+    private static void showTopItems(CommandSourceStack source, String title, List<ShopSalesStats.ItemRanking> topItems) {
+        if (topItems.isEmpty()) return;
+        source.sendSuccess(() -> Component.literal(title).withStyle(ChatFormatting.YELLOW), false);
+        for (int i = 0; i < topItems.size(); i++) {
+            ShopSalesStats.ItemRanking ranking = topItems.get(i);
+            int rank = i + 1;
+            source.sendSuccess(() -> Component.literal(String.format("  %d. %s - %d 金币 (%d 件)",
+                    rank, ranking.getItemName(), ranking.getRevenue(), ranking.getUnits()))
+                    .withStyle(ChatFormatting.GRAY), false);
+        }
+    }
+
+    // 将手持物品添加到商店
+    private static int addHeldItem(CommandSourceStack source, String shopName, long price) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        ItemStack stack = player.getMainHandItem();
+        if (stack.isEmpty()) {
+            source.sendFailure(Component.literal("请手持要出售的物品"));
+            return 0;
+        }
+
+        int quantity = stack.getCount();
+        String itemKey = shop.addItem(stack, price);
+        stack.setCount(0);
+        EconomyManager.saveData();
+
+        String itemName = shop.getItem(itemKey).getDisplayName();
+        source.sendSuccess(() -> Component.literal("已将 " + itemName + " x" + quantity + " 添加到商店 " + shopName)
+                .withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
+    // 以库存箱中的实物出售手持物品对应的商品（手持物品只用于确定商品，不会被消耗）
+    private static int addStockedItem(CommandSourceStack source, String shopName, long price) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        ItemStack stack = player.getMainHandItem();
+        if (stack.isEmpty()) {
+            source.sendFailure(Component.literal("请手持要出售的物品"));
+            return 0;
+        }
+
+        String itemKey = shop.addStockedItem(stack, price);
+        EconomyManager.saveData();
+
+        PlayerShop.ShopItem item = shop.getItem(itemKey);
+        source.sendSuccess(() -> Component.literal("商店 " + shopName + " 将以 " + price + " 金币出售库存箱中的 "
+                + item.getDisplayName() + "，当前库存 " + shop.getContainerStock(itemKey)).withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
+    // 从商店下架商品并退回上架的物品（库存箱中的实物留在库存箱中）
+    private static int removeItem(CommandSourceStack source, String shopName, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        PlayerShop.ShopItem item = resolveShopItem(source, shop, itemInput);
+        if (item == null) return 0;
+
+        if (shop.delistItem(item.getItemKey()) != null) {
+            int quantity = item.getQuantity();
+            giveItems(player, item, quantity);
+            EconomyManager.saveData();
+            source.sendSuccess(() -> Component.literal("已从商店移除 " + item.getDisplayName() + " x" + quantity), false);
+        } else {
+            source.sendFailure(Component.literal("移除商品失败"));
+        }
+
+        return 1;
+    }
+
+    // 修改商品价格
+    private static int updatePrice(CommandSourceStack source, String shopName, long price, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        PlayerShop.ShopItem item = resolveShopItem(source, shop, itemInput);
+        if (item == null) return 0;
+
+        if (shop.updatePrice(item.getItemKey(), price)) {
+            EconomyManager.saveData();
+            source.sendSuccess(() -> Component.literal(item.getDisplayName() + " 的价格已改为 ")
+                    .append(Component.literal(price + " 金币").withStyle(ChatFormatting.GREEN)), false);
+        } else {
+            source.sendFailure(Component.literal("商店中没有该商品: " + itemInput));
+        }
+
+        return 1;
+    }
+
+    // 为商品启用动态定价
+    private static int enableDynamicPricing(CommandSourceStack source, String shopName, long minPrice, long maxPrice,
+                                            double elasticity, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        if (minPrice > maxPrice) {
+            source.sendFailure(Component.literal("最低价不能高于最高价"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        PlayerShop.ShopItem item = resolveShopItem(source, shop, itemInput);
+        if (item == null) return 0;
+
+        if (EconomyManager.enableDynamicPricing(shop, item.getItemKey(), minPrice, maxPrice, elasticity)) {
+            source.sendSuccess(() -> Component.literal(item.getDisplayName() + " 已启用动态定价: ")
+                    .append(Component.literal(minPrice + " - " + maxPrice + " 金币").withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(String.format(" (弹性 %.2f，每 %d 分钟调整一次)",
+                            elasticity, Config.dynamicPricingIntervalMinutes)).withStyle(ChatFormatting.GRAY)), false);
+        } else {
+            source.sendFailure(Component.literal("启用动态定价失败"));
+        }
+
+        return 1;
+    }
+
+    // 关闭商品的动态定价
+    private static int disableDynamicPricing(CommandSourceStack source, String shopName, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        PlayerShop.ShopItem item = resolveShopItem(source, shop, itemInput);
+        if (item == null) return 0;
+
+        if (EconomyManager.disableDynamicPricing(shop, item.getItemKey())) {
+            source.sendSuccess(() -> Component.literal(item.getDisplayName() + " 已关闭动态定价，价格保持 " + item.getPrice() + " 金币"), false);
+        } else {
+            source.sendFailure(Component.literal(item.getDisplayName() + " 没有启用动态定价"));
+        }
+
+        return 1;
+    }
+
+    // 购买商品
+    private static int buyItem(CommandSourceStack source, String shopName, int quantity, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = EconomyManager.getShop(shopName);
+        if (shop == null) {
+            source.sendFailure(Component.literal("未找到商店: " + shopName));
+            return 0;
+        }
+
+        PlayerShop.ShopItem item = resolveShopItem(source, shop, itemInput);
+        if (item == null) return 0;
+
+        long totalCost = item.getPrice() * quantity;
+        if (EconomyManager.purchaseFromShop(player.getUUID(), CoinPurse.paymentFor(player), shopName, item.getItemKey(), quantity)) {
+            giveItems(player, item, quantity);
+            source.sendSuccess(() -> Component.literal("成功购买 " + item.getDisplayName() + " x" + quantity + "，花费 ")
+                    .append(Component.literal(totalCost + " 金币").withStyle(ChatFormatting.GREEN)), false);
+        } else {
+            source.sendFailure(Component.literal("购买失败，可能是库存不足、余额不足或商店已关闭"));
+        }
+
+        return 1;
+    }
+
+    // 模糊搜索全服在售商品
+    private static int findItem(CommandSourceStack source, String query) {
+        List<ShopIndex.Match> matches = EconomyManager.getShopIndex().find(query, FIND_LIMIT);
+        if (matches.isEmpty()) {
+            source.sendFailure(Component.literal("没有商店出售匹配的商品: " + query));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 搜索结果: " + query + " ===").withStyle(ChatFormatting.GOLD), false);
+        for (ShopIndex.Match match : matches) {
+            ShopIndex.Listing best = match.getBestListing();
+            source.sendSuccess(() -> Component.literal(best.getDisplayName() + " ").withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal("最低 " + best.getPrice() + " 金币").withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(String.format(" @ %s (库存 %d, 共 %d 家在售)",
+                            best.getShopName(), best.getQuantity(), match.getSellerCount()))
+                            .withStyle(ChatFormatting.GRAY)), false);
+        }
+
+        return 1;
+    }
+
+    // 按物品指纹精确查找手持物品的所有在售商品
+    private static int findHeldItem(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ItemStack stack = player.getMainHandItem();
+        if (stack.isEmpty()) {
+            source.sendFailure(Component.literal("请手持要查找的物品"));
+            return 0;
+        }
+
+        List<ShopIndex.Listing> listings = EconomyManager.getShopIndex().getListings(ItemFingerprint.of(stack).toKey());
+        if (listings.isEmpty()) {
+            source.sendFailure(Component.literal("没有商店出售与手持物品相同的商品"));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 在售: " + listings.get(0).getDisplayName() + " ===")
+                .withStyle(ChatFormatting.GOLD), false);
+        for (int i = 0; i < Math.min(listings.size(), FIND_LIMIT); i++) {
+            ShopIndex.Listing listing = listings.get(i);
+            source.sendSuccess(() -> Component.literal(listing.getShopName() + " ").withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal(listing.getPrice() + " 金币").withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(" (库存 " + listing.getQuantity() + ")").withStyle(ChatFormatting.GRAY)), false);
+        }
+
+        return 1;
+    }
+
+    // 按最低价购买指定数量的报价
+    private static int quoteItem(CommandSourceStack source, int quantity, String itemInput) {
+        ShopIndex index = EconomyManager.getShopIndex();
+        String itemKey = resolveListedItem(source, index, itemInput);
+        if (itemKey == null) return 0;
+
+        List<ShopIndex.Listing> listings = index.getListings(itemKey);
+        ShopIndex.Quote quote = index.quote(itemKey, quantity);
+        source.sendSuccess(() -> Component.literal("=== 报价: " + quote.getItemName() + " x" + quantity + " ===")
+                .withStyle(ChatFormatting.GOLD), false);
+        source.sendSuccess(() -> Component.literal("总价: ")
+                .append(Component.literal(quote.getTotalCost() + " 金币").withStyle(ChatFormatting.GREEN))
+                .append(Component.literal(" (均价 " + quote.getAveragePrice() + ")").withStyle(ChatFormatting.GRAY)), false);
+        if (!quote.isFilled()) {
+            source.sendSuccess(() -> Component.literal("全服库存只有 " + quote.getAvailable() + " 个")
+                    .withStyle(ChatFormatting.RED), false);
+        }
+        source.sendSuccess(() -> Component.literal("最低价: " + listings.get(0).getPrice() + " 金币 @ "
+                + listings.get(0).getShopName()).withStyle(ChatFormatting.GRAY), false);
+
+        return 1;
+    }
+
+    // 显示购物车
+    private static int showCart(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ShoppingCart cart = EconomyManager.getCart(player.getUUID());
+        if (cart.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("购物车为空").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+
+        source.sendSuccess(() -> Component.literal("=== 购物车 ===").withStyle(ChatFormatting.GOLD), false);
+        List<ShoppingCart.CartLine> lines = cart.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            ShoppingCart.CartLine line = lines.get(i);
+            int number = i + 1;
+            source.sendSuccess(() -> Component.literal(number + ". " + line.getItemName() + " x" + line.getQuantity())
+                    .withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal(" " + line.getTotalPrice() + " 金币").withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(" @ " + line.getShopName() + " (单价 " + line.getUnitPrice() + ")")
+                            .withStyle(ChatFormatting.GRAY)), false);
+        }
+        source.sendSuccess(() -> Component.literal("合计: ")
+                .append(Component.literal(cart.getQuotedTotal() + " 金币").withStyle(ChatFormatting.GREEN)), false);
+
+        return 1;
+    }
+
+    // 将商店中的商品加入购物车
+    private static int addToCart(CommandSourceStack source, String shopName, int quantity, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = EconomyManager.getShop(shopName);
+        if (shop == null) {
+            source.sendFailure(Component.literal("未找到商店: " + shopName));
+            return 0;
+        }
+
+        PlayerShop.ShopItem item = resolveShopItem(source, shop, itemInput);
+        if (item == null) return 0;
+
+        if (EconomyManager.getCart(player.getUUID()).add(shopName, item.getItemKey(), item.getDisplayName(),
+                quantity, item.getPrice())) {
+            source.sendSuccess(() -> Component.literal("已将 " + item.getDisplayName() + " x" + quantity + " 加入购物车"), false);
+        } else {
+            source.sendFailure(Component.literal("购物车已满，最多 " + ShoppingCart.MAX_LINES + " 种商品"));
+        }
+
+        return 1;
+    }
+
+    // 自动将订单拆分到最便宜的多个商店并加入购物车
+    private static int routeToCart(CommandSourceStack source, int quantity, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        String itemKey = resolveListedItem(source, EconomyManager.getShopIndex(), itemInput);
+        if (itemKey == null) return 0;
+
+        String itemName = EconomyManager.getShopIndex().getBestListing(itemKey).getDisplayName();
+        int routed = EconomyManager.routeBuyOrder(player.getUUID(), itemKey, quantity,
+                EconomyManager.getCart(player.getUUID()));
+        if (routed == 0) {
+            source.sendFailure(Component.literal("没有商店出售该商品: " + itemInput));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.literal("已按最低价将 " + itemName + " x" + routed + " 加入购物车"), false);
+        if (routed < quantity) {
+            source.sendSuccess(() -> Component.literal("全服库存不足，只加入了 " + routed + " 个")
+                    .withStyle(ChatFormatting.RED), false);
+        }
+
+        return 1;
+    }
+
+    // 从购物车移除一行
+    private static int removeFromCart(CommandSourceStack source, int lineNumber) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ShoppingCart.CartLine line = EconomyManager.getCart(player.getUUID()).remove(lineNumber - 1);
+        if (line != null) {
+            source.sendSuccess(() -> Component.literal("已从购物车移除 " + line.getItemName() + " x" + line.getQuantity()), false);
+        } else {
+            source.sendFailure(Component.literal("购物车中没有第 " + lineNumber + " 行"));
+        }
+
+        return 1;
+    }
+
+    // 清空购物车
+    private static int clearCart(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        EconomyManager.getCart(player.getUUID()).clear();
+        source.sendSuccess(() -> Component.literal("购物车已清空"), false);
+        return 1;
+    }
+
+    // 购物车结账
+    private static int checkoutCart(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        ShoppingCart cart = EconomyManager.getCart(player.getUUID());
+        if (checkout(source, player, cart)) {
+            cart.clear();
+        }
+        return 1;
+    }
+
+    // 一键下单：拆分到最便宜的多个商店后立即结账
+    private static int placeOrder(CommandSourceStack source, int quantity, String itemInput) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        String itemKey = resolveListedItem(source, EconomyManager.getShopIndex(), itemInput);
+        if (itemKey == null) return 0;
+
+        ShoppingCart order = new ShoppingCart();
+        int routed = EconomyManager.routeBuyOrder(player.getUUID(), itemKey, quantity, order);
+        if (routed < quantity) {
+            source.sendFailure(Component.literal("全服库存不足，只能买到 " + routed + " 个 " + itemInput));
+            return 0;
+        }
+
+        checkout(source, player, order);
+        return 1;
+    }
+
+    // 结账并发放物品
+    private static boolean checkout(CommandSourceStack source, ServerPlayer player, ShoppingCart cart) {
+        ShoppingCart.CheckoutResult result = EconomyManager.checkout(player.getUUID(), CoinPurse.paymentFor(player), cart);
+        if (!result.isSuccess()) {
+            ShoppingCart.CartLine failed = result.getFailedLine();
+            source.sendFailure(Component.literal("结账失败: " + result.getStatus().getDescription()
+                    + (failed != null ? " (" + failed.getItemName() + " @ " + failed.getShopName() + ")" : "")));
+            return false;
+        }
+
+        for (ShoppingCart.CartLine line : result.getPurchased()) {
+            giveItems(player, result.getPurchasedItem(line), line.getQuantity());
+        }
+        source.sendSuccess(() -> Component.literal("结账成功，共 " + result.getPurchased().size() + " 种商品，花费 ")
+                .append(Component.literal(result.getTotalCost() + " 金币").withStyle(ChatFormatting.GREEN)), false);
+        return true;
+    }
+
+    // 开店或关店
+    private static int setShopOpen(CommandSourceStack source, String shopName, boolean open) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+
+        PlayerShop shop = getOwnedShop(source, player, shopName);
+        if (shop == null) return 0;
+
+        shop.setOpen(open);
+        EconomyManager.saveData();
+        source.sendSuccess(() -> Component.literal("商店 " + shopName + (open ? " 已开始营业" : " 已关闭")), false);
+        return 1;
+    }
+
+    // 获取玩家拥有的商店
+    private static PlayerShop getOwnedShop(CommandSourceStack source, ServerPlayer player, String shopName) {
+        PlayerShop shop = EconomyManager.getShop(shopName);
+        if (shop == null) {
+            source.sendFailure(Component.literal("未找到商店: " + shopName));
+            return null;
+        }
+        if (!shop.getOwnerId().equals(player.getUUID())) {
+            source.sendFailure(Component.literal("您不是该商店的店主"));
+            return null;
+        }
+        return shop;
+    }
+
+    // 解析商店中的商品：商品键（前缀）、物品名或物品ID，同名的多个商品优先选择没有NBT的那个
+    private static PlayerShop.ShopItem resolveShopItem(CommandSourceStack source, PlayerShop shop, String input) {
+        List<PlayerShop.ShopItem> matches = shop.findItems(input);
+        if (matches.size() > 1) {
+            String plainKey = ItemFingerprint.ofName(input).toKey();
+            for (PlayerShop.ShopItem item : matches) {
+                if (item.getItemKey().equals(plainKey)) return item;
+            }
+        }
+
+        if (matches.isEmpty() || matches.get(0).createStack(1).isEmpty()) {
+            source.sendFailure(Component.literal("商店中没有该商品: " + input));
+            return null;
+        }
+        if (matches.size() > 1) {
+            StringBuilder candidates = new StringBuilder();
+            for (PlayerShop.ShopItem item : matches) {
+                if (candidates.length() > 0) candidates.append(", ");
+                candidates.append(item.getDisplayName());
+            }
+            source.sendFailure(Component.literal("有多个同名商品，请使用方括号中的商品编号: " + candidates));
+            return null;
+        }
+        return matches.get(0);
+    }
+
+    // 解析全服在售商品的物品指纹，规则同resolveShopItem
+    private static String resolveListedItem(CommandSourceStack source, ShopIndex index, String input) {
+        List<String> keys = index.resolve(input);
+        if (keys.size() > 1) {
+            String plainKey = ItemFingerprint.ofName(input).toKey();
+            if (keys.contains(plainKey)) return plainKey;
+        }
+
+        if (keys.isEmpty()) {
+            source.sendFailure(Component.literal("没有商店出售该商品: " + input));
+            return null;
+        }
+        if (keys.size() > 1) {
+            StringBuilder candidates = new StringBuilder();
+            for (String key : keys) {
+                if (candidates.length() > 0) candidates.append(", ");
+                candidates.append(index.getBestListing(key).getDisplayName());
+            }
+            source.sendFailure(Component.literal("有多个同名商品，请使用方括号中的商品编号: " + candidates));
+            return null;
+        }
+        return keys.get(0);
+    }
+
+    // 将物品放入玩家背包，背包满时掉落在脚下
+    private static void giveItems(ServerPlayer player, PlayerShop.ShopItem item, int quantity) {
+        giveStacks(player, item.createStack(1), quantity);
+    }
+
+    private static void giveStacks(ServerPlayer player, ItemStack template, int quantity) {
+        if (template.isEmpty()) return;
+
+        int remaining = quantity;
+        while (remaining > 0) {
+            ItemStack stack = template.copyWithCount(Math.min(remaining, template.getMaxStackSize()));
+            remaining -= stack.getCount();
+            if (!player.getInventory().add(stack)) {
+                player.drop(stack, false);
+            }
+        }
+    }
+}
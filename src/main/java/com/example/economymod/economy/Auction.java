@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 // 拍卖数据模型
 public class Auction {
@@ -11,55 +13,165 @@ public class Auction {
     private UUID sellerId;
     private String sellerName;
     private String itemName;
+    private String itemKey;         // 物品指纹，用于精确匹配同一物品
     private String itemDescription;
     private long startingBid;
+    
+    // 出价状态的持久化副本，运行时以bidState为准，保存前通过syncPersistentFields同步
     private long currentBid;
     private UUID currentBidderId;
     private String currentBidderName;
+    private long maxBid;            // 当前最高出价者的代理出价上限（不公开）
+    private long bidSequence;
+    
     private LocalDateTime startTime;
     private LocalDateTime endTime;
-    private boolean isActive;
-    private boolean isCompleted;
+    private long endMillis;
+    private volatile boolean isActive;
+    private volatile boolean isCompleted;
     private Map<UUID, Long> bidHistory;
     
-    public Auction(int auctionId, UUID sellerId, String sellerName, String itemName, 
+    // 运行时出价状态（当前出价、出价者、序号打包为一个不可变对象，通过CAS更新）
+    private transient volatile AtomicReference<BidState> bidState;
+    
+    public Auction(int auctionId, UUID sellerId, String sellerName, String itemName, String itemKey,
                    long startingBid, int durationHours) {
         this.auctionId = auctionId;
         this.sellerId = sellerId;
         this.sellerName = sellerName;
         this.itemName = itemName;
+        this.itemKey = itemKey;
         this.startingBid = startingBid;
         this.currentBid = startingBid;
-        this.startTime = LocalDateTime.now();
+        this.startTime = EconomyClock.now();
         this.endTime = startTime.plusHours(durationHours);
+        this.endMillis = EconomyClock.millis() + durationHours * EconomyClock.HOUR_MILLIS;
         this.isActive = true;
         this.isCompleted = false;
-        this.bidHistory = new HashMap<>();
+        this.bidHistory = new ConcurrentHashMap<>();
+        this.bidState = new AtomicReference<>(new BidState(startingBid, 0, null, null, 0));
+    }
+    
+    // 出价状态快照
+    static final class BidState {
+        final long currentBid;
+        final long maxBid;
+        final UUID bidderId;
+        final String bidderName;
+        final long sequence;
+        
+        BidState(long currentBid, long maxBid, UUID bidderId, String bidderName, long sequence) {
+            this.currentBid = currentBid;
+            this.maxBid = maxBid;
+            this.bidderId = bidderId;
+            this.bidderName = bidderName;
+            this.sequence = sequence;
+        }
+        
+        long minimumBid(long startingBid) {
+            return bidderId == null ? startingBid : currentBid + getBidIncrement(currentBid);
+        }
+    }
+    
+    // 获取出价状态单元，从存档加载的拍卖在第一次访问时根据持久化字段重建
+    private AtomicReference<BidState> bidCell() {
+        AtomicReference<BidState> cell = bidState;
+        if (cell == null) {
+            synchronized (this) {
+                cell = bidState;
+                if (cell == null) {
+                    long max = currentBidderId != null ? Math.max(maxBid, currentBid) : 0;
+                    cell = new AtomicReference<>(new BidState(currentBid, max, currentBidderId,
+                            currentBidderName, bidSequence));
+                    bidHistory = bidHistory != null ? new ConcurrentHashMap<>(bidHistory) : new ConcurrentHashMap<>();
+                    bidState = cell;
+                }
+            }
+        }
+        return cell;
+    }
+    
+    // 当前出价状态
+    BidState getBidState() {
+        return bidCell().get();
+    }
+    
+    // 将运行时出价状态写回持久化字段
+    void syncPersistentFields() {
+        BidState state = getBidState();
+        currentBid = state.currentBid;
+        currentBidderId = state.bidderId;
+        currentBidderName = state.bidderName;
+        maxBid = state.maxBid;
+        bidSequence = state.sequence;
     }
     
-    // 出价
-    public boolean placeBid(UUID bidderId, String bidderName, long bidAmount) {
-        if (!isActive || isCompleted || bidAmount <= currentBid) {
-            return false;
+    // 出价结果
+    public enum BidResult {
+        REJECTED,   // 出价无效
+        LEADING,    // 成为最高出价者
+        RAISED,     // 最高出价者提高了代理出价上限
+        OUTBID      // 出价被现有最高出价者的代理出价超过
+    }
+    
+    // 代理出价：出价者给出愿意支付的最高价，当前价格只上涨到击败第二高出价所需的金额
+    // 出价状态通过CAS整体替换，多个线程同时出价不需要加锁
+    public BidResult placeBid(UUID bidderId, String bidderName, long maxAmount) {
+        if (!isActive || isCompleted) {
+            return BidResult.REJECTED;
         }
         
         // 检查是否超时
-        if (LocalDateTime.now().isAfter(endTime)) {
+        if (isExpired()) {
             endAuction();
-            return false;
+            return BidResult.REJECTED;
         }
         
         // 如果是卖家自己出价，拒绝
         if (bidderId.equals(sellerId)) {
-            return false;
+            return BidResult.REJECTED;
         }
         
-        currentBid = bidAmount;
-        currentBidderId = bidderId;
-        currentBidderName = bidderName;
-        bidHistory.put(bidderId, bidAmount);
-        
-        return true;
+        AtomicReference<BidState> cell = bidCell();
+        while (true) {
+            BidState state = cell.get();
+            BidState next;
+            BidResult result;
+            
+            if (bidderId.equals(state.bidderId)) {
+                // 最高出价者只能提高自己的上限，当前价格不变
+                if (maxAmount <= state.maxBid) {
+                    return BidResult.REJECTED;
+                }
+                next = new BidState(state.currentBid, maxAmount, bidderId, bidderName, state.sequence + 1);
+                result = BidResult.RAISED;
+            } else if (maxAmount < state.minimumBid(startingBid)) {
+                return BidResult.REJECTED;
+            } else if (state.bidderId == null) {
+                // 第一个出价者以起拍价领先
+                next = new BidState(startingBid, maxAmount, bidderId, bidderName, state.sequence + 1);
+                result = BidResult.LEADING;
+            } else if (maxAmount > state.maxBid) {
+                long price = Math.min(maxAmount, state.maxBid + getBidIncrement(state.maxBid));
+                next = new BidState(price, maxAmount, bidderId, bidderName, state.sequence + 1);
+                result = BidResult.LEADING;
+            } else {
+                // 现有最高出价者的代理出价自动跟进（同价时先出价者优先）
+                long price = Math.min(state.maxBid, maxAmount + getBidIncrement(maxAmount));
+                next = new BidState(price, state.maxBid, state.bidderId, state.bidderName, state.sequence + 1);
+                result = BidResult.OUTBID;
+            }
+            
+            if (cell.compareAndSet(state, next)) {
+                bidHistory.put(bidderId, maxAmount);
+                return result;
+            }
+        }
+    }
+    
+    // 加价幅度：价格的5%，最少1金币
+    public static long getBidIncrement(long price) {
+        return Math.max(1, price / 20);
     }
     
     // 结束拍卖
@@ -70,21 +182,21 @@ public class Auction {
     
     // 检查拍卖是否过期
     public boolean isExpired() {
-        return LocalDateTime.now().isAfter(endTime);
+        return EconomyClock.millis() > getEndMillis();
     }
     
     // 获取剩余时间（分钟）
     public long getRemainingMinutes() {
         if (isCompleted || isExpired()) return 0;
         
-        long minutes = java.time.Duration.between(LocalDateTime.now(), endTime).toMinutes();
+        long minutes = (getEndMillis() - EconomyClock.millis()) / EconomyClock.MINUTE_MILLIS;
         return Math.max(0, minutes);
     }
     
     // 获取拍卖状态
     public String getStatus() {
         if (isCompleted) {
-            return currentBidderId != null ? "已成交" : "流拍";
+            return getBidState().bidderId != null ? "已成交" : "流拍";
         } else if (isExpired()) {
             return "已过期";
         } else if (isActive) {
@@ -96,7 +208,7 @@ public class Auction {
     
     // 是否有获胜者
     public boolean hasWinner() {
-        return isCompleted && currentBidderId != null;
+        return isCompleted && getBidState().bidderId != null;
     }
     
     // Getter方法
@@ -116,6 +228,14 @@ public class Auction {
         return itemName;
     }
     
+    // 物品指纹，旧数据按物品名补全
+    public String getItemKey() {
+        if (itemKey == null) {
+            itemKey = ItemFingerprint.ofName(itemName).toKey();
+        }
+        return itemKey;
+    }
+    
     public String getItemDescription() {
         return itemDescription;
     }
@@ -129,15 +249,20 @@ public class Auction {
     }
     
     public long getCurrentBid() {
-        return currentBid;
+        return getBidState().currentBid;
     }
     
     public UUID getCurrentBidderId() {
-        return currentBidderId;
+        return getBidState().bidderId;
     }
     
     public String getCurrentBidderName() {
-        return currentBidderName;
+        return getBidState().bidderName;
+    }
+    
+    // 出价序号，每次出价状态变化递增
+    public long getBidSequence() {
+        return getBidState().sequence;
     }
     
     public LocalDateTime getStartTime() {
@@ -148,6 +273,14 @@ public class Auction {
         return endTime;
     }
     
+    // 结束时间（毫秒），兼容没有保存该字段的旧数据
+    public long getEndMillis() {
+        if (endMillis == 0 && endTime != null) {
+            endMillis = EconomyClock.toMillis(endTime);
+        }
+        return endMillis;
+    }
+    
     public boolean isActive() {
         return isActive && !isExpired();
     }
@@ -157,15 +290,22 @@ public class Auction {
     }
     
     public Map<UUID, Long> getBidHistory() {
+        bidCell();
         return new HashMap<>(bidHistory);
     }
     
     public int getBidCount() {
+        bidCell();
         return bidHistory.size();
     }
     
-    // 获取最低出价（当前出价 + 1）
+    // 当前最高出价者的代理出价上限（即托管金额）
+    long getMaxBid() {
+        return getBidState().maxBid;
+    }
+    
+    // 获取最低出价（无人出价时为起拍价，否则为当前出价加上加价幅度）
     public long getMinimumBid() {
-        return currentBid + 1;
+        return getBidState().minimumBid(startingBid);
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.example.economymod.economy;
+
+import java.util.*;
+
+// 拍卖历史归档 - 保存已结束拍卖的精简记录，并按物品维护成交价分布摘要
+public class AuctionArchive {
+    // 最多保留的精简记录数量（超出后批量丢弃最旧的记录）
+    private static final int MAX_RECORDS = 2000;
+
+    private List<ArchivedAuction> records;            // 最近结束的拍卖
+    private TreeMap<String, PriceSketch> priceSketches; // 小写物品名 -> 成交价分布
+    private long totalArchived;                        // 累计归档数量
+
+    public AuctionArchive() {
+        this.records = new ArrayList<>();
+        this.priceSketches = new TreeMap<>();
+    }
+
+    // 归档已结束的拍卖，成交的拍卖计入物品成交价分布
+    public synchronized void archive(Auction auction) {
+        ArchivedAuction record = new ArchivedAuction(auction);
+        records.add(record);
+        totalArchived++;
+
+        // 批量裁剪，避免每次都移动整个列表
+        if (records.size() > MAX_RECORDS + MAX_RECORDS / 4) {
+            records.subList(0, records.size() - MAX_RECORDS).clear();
+        }
+
+        if (record.isSold()) {
+            priceSketches.computeIfAbsent(itemKey(auction.getItemName()), k -> new PriceSketch())
+                    .add(record.getFinalPrice());
+        }
+    }
+
+    // 获取物品成交价统计：优先精确匹配物品名，否则合并所有前缀匹配物品的分布
+    public synchronized PriceSummary getPriceSummary(String itemName) {
+        String key = itemKey(itemName);
+        PriceSketch exact = priceSketches.get(key);
+        if (exact != null) {
+            return new PriceSummary(itemName, 1, exact);
+        }
+
+        SortedMap<String, PriceSketch> matches = priceSketches.subMap(key, key + Character.MAX_VALUE);
+        if (matches.isEmpty()) return null;
+
+        PriceSketch merged = new PriceSketch();
+        for (PriceSketch sketch : matches.values()) {
+            merged.merge(sketch);
+        }
+        return new PriceSummary(itemName, matches.size(), merged);
+    }
+
+    // 获取物品最近的成交记录（最新的在前）
+    public synchronized List<ArchivedAuction> getRecentSales(String itemName, int limit) {
+        String key = itemKey(itemName);
+        List<ArchivedAuction> results = new ArrayList<>();
+        for (int i = records.size() - 1; i >= 0 && results.size() < limit; i--) {
+            ArchivedAuction record = records.get(i);
+            if (record.isSold() && itemKey(record.getItemName()).equals(key)) {
+                results.add(record);
+            }
+        }
+        return results;
+    }
+
+    // 保存前合并所有摘要的缓冲区
+    public synchronized void compact() {
+        for (PriceSketch sketch : priceSketches.values()) {
+            sketch.flush();
+        }
+    }
+
+    public synchronized int getTrackedItemCount() {
+        return priceSketches.size();
+    }
+
+    public synchronized long getTotalArchived() {
+        return totalArchived;
+    }
+
+    private static String itemKey(String itemName) {
+        return itemName.toLowerCase(Locale.ROOT);
+    }
+
+    // 已结束拍卖的精简记录
+    public static class ArchivedAuction {
+        private int auctionId;
+        private String itemName;
+        private UUID sellerId;
+        private UUID winnerId;       // 流拍时为空
+        private long finalPrice;
+        private int bidCount;
+        private long endMillis;
+
+        public ArchivedAuction(Auction auction) {
+            this.auctionId = auction.getAuctionId();
+            this.itemName = auction.getItemName();
+            this.sellerId = auction.getSellerId();
+            this.winnerId = auction.hasWinner() ? auction.getCurrentBidderId() : null;
+            this.finalPrice = auction.hasWinner() ? auction.getCurrentBid() : 0;
+            this.bidCount = auction.getBidCount();
+            this.endMillis = Math.min(auction.getEndMillis(), EconomyClock.millis());
+        }
+
+        public boolean isSold() { return winnerId != null; }
+
+        public int getAuctionId() { return auctionId; }
+        public String getItemName() { return itemName; }
+        public UUID getSellerId() { return sellerId; }
+        public UUID getWinnerId() { return winnerId; }
+        public long getFinalPrice() { return finalPrice; }
+        public int getBidCount() { return bidCount; }
+        public long getEndMillis() { return endMillis; }
+    }
+
+    // 成交价统计结果
+    public static class PriceSummary {
+        private final String itemName;
+        private final int matchedItems;
+        private final long salesCount;
+        private final long min;
+        private final long p10;
+        private final long median;
+        private final long p90;
+        private final long max;
+
+        PriceSummary(String itemName, int matchedItems, PriceSketch sketch) {
+            this.itemName = itemName;
+            this.matchedItems = matchedItems;
+            this.salesCount = sketch.getCount();
+            this.min = Math.round(sketch.getMin());
+            this.p10 = Math.round(sketch.quantile(0.1));
+            this.median = Math.round(sketch.quantile(0.5));
+            this.p90 = Math.round(sketch.quantile(0.9));
+            this.max = Math.round(sketch.getMax());
+        }
+
+        public String getItemName() { return itemName; }
+        public int getMatchedItems() { return matchedItems; }
+        public long getSalesCount() { return salesCount; }
+        public long getMin() { return min; }
+        public long getP10() { return p10; }
+        public long getMedian() { return median; }
+        public long getP90() { return p90; }
+        public long getMax() { return max; }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.economymod.economy;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 拍卖出价队列 - 出价先入队（在ConcurrentHashMap的桶锁内追加，只锁同一个拍卖，临界区只有一次追加），每个tick按拍卖合并后再统一结算
+// 结算时整个队列从表中摘下，之后的出价进入新队列，没有出价的拍卖不占用队列
+// 代理出价的结果只取决于最高的两个有效上限：合并后按优先级排序，结算时冻结资金失败的出价由后面的出价递补，
+// 直到两个出价结算完成，之后的出价才视为被超过
+public class AuctionBidQueue {
+    private final ConcurrentHashMap<Integer, Queue<PendingBid>> pendingBids = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 入队结果
+    public enum OfferResult {
+        QUEUED,             // 已进入队列
+        TOO_LOW,            // 低于当前最低出价
+        INSUFFICIENT_FUNDS, // 余额不足以冻结出价上限
+        REJECTED            // 拍卖不存在、已结束或卖家自己出价
+    }
+
+    // 提交出价（可在任意线程调用，只读取拍卖的原子出价状态）
+    public OfferResult offer(Auction auction, UUID bidderId, String bidderName, long maxAmount) {
+        if (auction == null || !auction.isActive() || bidderId.equals(auction.getSellerId())) {
+            return OfferResult.REJECTED;
+        }
+
+        Auction.BidState state = auction.getBidState();
+        if (bidderId.equals(state.bidderId)) {
+            if (maxAmount <= state.maxBid) return OfferResult.TOO_LOW;
+        } else if (maxAmount < state.minimumBid(auction.getStartingBid())) {
+            return OfferResult.TOO_LOW;
+        }
+
+        // 追加与drain摘下队列互斥，出价不会落入已摘下的队列
+        pendingBids.compute(auction.getAuctionId(), (id, queue) -> {
+            Queue<PendingBid> target = queue != null ? queue : new ArrayDeque<>();
+            target.add(new PendingBid(bidderId, bidderName, maxAmount, sequence.incrementAndGet()));
+            return target;
+        });
+        return OfferResult.QUEUED;
+    }
+
+    // 取出某个拍卖的待处理出价，每个出价者只保留最高的上限（同价保留先到的），按优先级从高到低返回
+    public List<PendingBid> drain(int auctionId) {
+        Queue<PendingBid> queue = pendingBids.remove(auctionId);
+        if (queue == null || queue.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<UUID, PendingBid> best = new HashMap<>();
+        PendingBid bid;
+        while ((bid = queue.poll()) != null) {
+            PendingBid previous = best.get(bid.bidderId);
+            if (previous == null || bid.maxAmount > previous.maxAmount) {
+                best.put(bid.bidderId, bid);
+            }
+        }
+
+        List<PendingBid> ranked = new ArrayList<>(best.values());
+        ranked.sort(AuctionBidQueue::compare);
+        return ranked;
+    }
+
+    // 获取有待处理出价的拍卖
+    public Set<Integer> getPendingAuctionIds() {
+        return pendingBids.keySet();
+    }
+
+    // 丢弃某个拍卖的所有待处理出价（拍卖结束时调用）
+    public List<PendingBid> discard(int auctionId) {
+        Queue<PendingBid> queue = pendingBids.remove(auctionId);
+        return queue != null ? new ArrayList<>(queue) : Collections.emptyList();
+    }
+
+    // 上限更高的优先，同价时先到者优先
+    private static int compare(PendingBid a, PendingBid b) {
+        int byAmount = Long.compare(b.maxAmount, a.maxAmount);
+        return byAmount != 0 ? byAmount : Long.compare(a.sequence, b.sequence);
+    }
+
+    // 待处理出价
+    public static class PendingBid {
+        private final UUID bidderId;
+        private final String bidderName;
+        private final long maxAmount;
+        private final long sequence;
+
+        public PendingBid(UUID bidderId, String bidderName, long maxAmount, long sequence) {
+            this.bidderId = bidderId;
+            this.bidderName = bidderName;
+            this.maxAmount = maxAmount;
+            this.sequence = sequence;
+        }
+
+        public UUID getBidderId() { return bidderId; }
+        public String getBidderName() { return bidderName; }
+        public long getMaxAmount() { return maxAmount; }
+        public long getSequence() { return sequence; }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.economymod.economy;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// 拍卖行引擎 - 维护活跃拍卖及其二级索引（物品指纹、物品名前缀、结束时间、当前出价）
+public class AuctionHouse {
+    public static final int PAGE_SIZE = 8;
+
+    // 已完成拍卖在冷数据区最多保留的数量
+    private static final int MAX_COMPLETED = 500;
+
+    private final AtomicInteger nextAuctionId = new AtomicInteger(1);
+
+    // 拍卖完成回调（结算、统计等）
+    private final Consumer<Auction> onCompleted;
+
+    // 活跃拍卖（按ID排序，ID越大越新）
+    private final NavigableMap<Integer, Auction> activeAuctions = new TreeMap<>();
+
+    // 物品名索引（小写物品名 -> 拍卖ID集合），用于前缀搜索
+    private final NavigableMap<String, Set<Integer>> itemIndex = new TreeMap<>();
+
+    // 物品指纹索引（物品指纹 -> 拍卖ID集合），用于精确匹配同一物品
+    private final Map<String, Set<Integer>> fingerprintIndex = new HashMap<>();
+
+    // 结束时间索引
+    private final NavigableSet<Auction> endTimeIndex = new TreeSet<>(
+            Comparator.comparingLong(Auction::getEndMillis).thenComparingInt(Auction::getAuctionId));
+
+    // 当前出价索引
+    private final NavigableSet<Auction> bidIndex = new TreeSet<>(
+            Comparator.comparingLong(Auction::getCurrentBid).thenComparingInt(Auction::getAuctionId));
+
+    // 已完成拍卖（冷数据，按完成顺序保留最近的记录）
+    private final LinkedHashMap<Integer, Auction> completedAuctions = new LinkedHashMap<>();
+
+    // 拍卖排序方式
+    public enum SortOrder {
+        ENDING_SOON("即将结束"),
+        PRICE_LOW("价格从低到高"),
+        PRICE_HIGH("价格从高到低"),
+        NEWEST("最新上架");
+
+        private final String description;
+
+        SortOrder(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    public AuctionHouse(Consumer<Auction> onCompleted) {
+        this.onCompleted = onCompleted;
+    }
+
+    // 创建拍卖
+    public synchronized Auction createAuction(UUID sellerId, String sellerName, String itemName, String itemKey,
+                                              long startingBid, int durationHours) {
+        int auctionId = nextAuctionId.getAndIncrement();
+        Auction auction = new Auction(auctionId, sellerId, sellerName, itemName, itemKey, startingBid, durationHours);
+        index(auction);
+        return auction;
+    }
+
+    // 出价（出价会改变当前出价索引，必须经由拍卖行进行；高并发出价应先进入AuctionBidQueue）
+    public synchronized Auction.BidResult placeBid(int auctionId, UUID bidderId, String bidderName, long maxAmount) {
+        Auction auction = activeAuctions.get(auctionId);
+        if (auction == null) return Auction.BidResult.REJECTED;
+
+        // 已过期但尚未被清理的拍卖直接结束
+        if (auction.isExpired()) {
+            complete(auction);
+            return Auction.BidResult.REJECTED;
+        }
+
+        bidIndex.remove(auction);
+        Auction.BidResult result = auction.placeBid(bidderId, bidderName, maxAmount);
+        bidIndex.add(auction);
+
+        return result;
+    }
+
+    // 获取活跃拍卖
+    public synchronized Auction getActiveAuction(int auctionId) {
+        return activeAuctions.get(auctionId);
+    }
+
+    // 获取拍卖（包括已完成的拍卖）
+    public synchronized Auction getAuction(int auctionId) {
+        Auction auction = activeAuctions.get(auctionId);
+        return auction != null ? auction : completedAuctions.get(auctionId);
+    }
+
+    // 将已到期的拍卖移出活跃集合，每次调用只检查结束时间最早的拍卖
+    public synchronized int expireAuctions(long nowMillis) {
+        int count = 0;
+        while (!endTimeIndex.isEmpty() && endTimeIndex.first().getEndMillis() < nowMillis) {
+            Auction auction = endTimeIndex.first();
+            complete(auction);
+            count++;
+        }
+        return count;
+    }
+
+    // 提前结束拍卖
+    public synchronized boolean endAuction(int auctionId) {
+        Auction auction = activeAuctions.get(auctionId);
+        if (auction == null) return false;
+
+        complete(auction);
+        return true;
+    }
+
+    // 按排序方式分页列出活跃拍卖
+    public synchronized Page list(SortOrder order, int page) {
+        Collection<Auction> source = switch (order) {
+            case ENDING_SOON -> endTimeIndex;
+            case PRICE_LOW -> bidIndex;
+            case PRICE_HIGH -> bidIndex.descendingSet();
+            case NEWEST -> activeAuctions.descendingMap().values();
+        };
+        return paginate(source, activeAuctions.size(), page);
+    }
+
+    // 按物品名前缀搜索（不区分大小写），结果按即将结束排序
+    public synchronized Page search(String prefix, int page) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        SortedMap<String, Set<Integer>> matches = itemIndex.subMap(key, key + Character.MAX_VALUE);
+
+        List<Auction> results = new ArrayList<>();
+        for (Set<Integer> ids : matches.values()) {
+            for (Integer id : ids) {
+                results.add(activeAuctions.get(id));
+            }
+        }
+        results.sort(endTimeIndex.comparator());
+
+        return paginate(results, results.size(), page);
+    }
+
+    // 获取同一物品（指纹相同）的活跃拍卖，按即将结束排序
+    public synchronized List<Auction> getAuctionsByItem(String itemKey) {
+        Set<Integer> ids = fingerprintIndex.get(itemKey);
+        if (ids == null) return Collections.emptyList();
+
+        List<Auction> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            results.add(activeAuctions.get(id));
+        }
+        results.sort(endTimeIndex.comparator());
+        return results;
+    }
+
+    // 获取卖家的活跃拍卖
+    public synchronized List<Auction> getAuctionsBySeller(UUID sellerId) {
+        List<Auction> results = new ArrayList<>();
+        for (Auction auction : activeAuctions.values()) {
+            if (auction.getSellerId().equals(sellerId)) {
+                results.add(auction);
+            }
+        }
+        return results;
+    }
+
+    public synchronized int getActiveCount() {
+        return activeAuctions.size();
+    }
+
+    // 获取活跃拍卖快照（用于保存）
+    public synchronized Map<Integer, Auction> getActiveAuctions() {
+        for (Auction auction : activeAuctions.values()) {
+            auction.syncPersistentFields();
+        }
+        return new HashMap<>(activeAuctions);
+    }
+
+    // 从保存的数据重建索引
+    public synchronized void load(Map<Integer, Auction> auctions) {
+        activeAuctions.clear();
+        itemIndex.clear();
+        fingerprintIndex.clear();
+        endTimeIndex.clear();
+        bidIndex.clear();
+
+        int maxId = 0;
+        for (Auction auction : auctions.values()) {
+            maxId = Math.max(maxId, auction.getAuctionId());
+            if (auction.isCompleted()) {
+                addCompleted(auction);
+            } else {
+                index(auction);
+            }
+        }
+        nextAuctionId.set(Math.max(nextAuctionId.get(), maxId + 1));
+    }
+
+    private void index(Auction auction) {
+        activeAuctions.put(auction.getAuctionId(), auction);
+        itemIndex.computeIfAbsent(itemKey(auction), k -> new HashSet<>()).add(auction.getAuctionId());
+        fingerprintIndex.computeIfAbsent(auction.getItemKey(), k -> new HashSet<>()).add(auction.getAuctionId());
+        endTimeIndex.add(auction);
+        bidIndex.add(auction);
+    }
+
+    private void complete(Auction auction) {
+        activeAuctions.remove(auction.getAuctionId());
+        endTimeIndex.remove(auction);
+        bidIndex.remove(auction);
+
+        removeFromIndex(itemIndex, itemKey(auction), auction.getAuctionId());
+        removeFromIndex(fingerprintIndex, auction.getItemKey(), auction.getAuctionId());
+
+        auction.endAuction();
+        addCompleted(auction);
+        onCompleted.accept(auction);
+    }
+
+    private void addCompleted(Auction auction) {
+        completedAuctions.put(auction.getAuctionId(), auction);
+        if (completedAuctions.size() > MAX_COMPLETED) {
+            Iterator<Integer> oldest = completedAuctions.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private static void removeFromIndex(Map<String, Set<Integer>> index, String key, int auctionId) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(auctionId);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static String itemKey(Auction auction) {
+        return auction.getItemName().toLowerCase(Locale.ROOT);
+    }
+
+    private static Page paginate(Collection<Auction> source, int total, int page) {
+        int totalPages = Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        int currentPage = Math.max(1, Math.min(page, totalPages));
+        int skip = (currentPage - 1) * PAGE_SIZE;
+
+        List<Auction> items = new ArrayList<>(PAGE_SIZE);
+        Iterator<Auction> iterator = source.iterator();
+        for (int i = 0; i < skip && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (iterator.hasNext() && items.size() < PAGE_SIZE) {
+            items.add(iterator.next());
+        }
+
+        return new Page(items, currentPage, totalPages, total);
+    }
+
+    // 分页结果
+    public static class Page {
+        private final List<Auction> auctions;
+        private final int page;
+        private final int totalPages;
+        private final int totalCount;
+
+        public Page(List<Auction> auctions, int page, int totalPages, int totalCount) {
+            this.auctions = auctions;
+            this.page = page;
+            this.totalPages = totalPages;
+            this.totalCount = totalCount;
+        }
+
+        public List<Auction> getAuctions() { return auctions; }
+        public int getPage() { return page; }
+        public int getTotalPages() { return totalPages; }
+        public int getTotalCount() { return totalCount; }
+        public boolean isEmpty() { return auctions.isEmpty(); }
+    }
+}
@@ -12,7 +12,7 @@ public class BankAccount {
     
     public BankAccount() {
         this.savings = 0;
-        this.lastInterestCalculation = LocalDateTime.now();
+        this.lastInterestCalculation = EconomyClock.now();
         this.totalInterestEarned = 0;
         this.totalDeposits = 0;
         this.totalWithdrawals = 0;
@@ -48,7 +48,7 @@ public class BankAccount {
         if (interest > 0) {
             savings += interest;
             totalInterestEarned += interest;
-            lastInterestCalculation = LocalDateTime.now();
+            lastInterestCalculation = EconomyClock.now();
         }
     }
     
@@ -0,0 +1,229 @@
+package com.example.economymod.economy;
+
+import com.example.economymod.items.CoinItem;
+import com.example.economymod.items.ModItems;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerListener;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 现金钱包 - 按玩家缓存背包中硬币的总价值，由容器的槽位变化监听器逐槽更新，
+// 查询是否付得起时不需要重新扫描背包；付款时扣除金/银/铜币并找零
+public class CoinPurse {
+    private static final Map<UUID, CoinCache> caches = new ConcurrentHashMap<>();
+    private static CoinItem[] denominations; // 按面值从大到小
+
+    // 玩家登录或重生后开始监听背包
+    public static void attach(ServerPlayer player) {
+        CoinCache cache = new CoinCache(player.getInventory());
+        caches.put(player.getUUID(), cache);
+        player.inventoryMenu.addSlotListener(cache);
+    }
+
+    // 玩家打开其他容器时也监听，在箱子界面中移动的硬币同样能及时计入
+    public static void watch(ServerPlayer player, AbstractContainerMenu menu) {
+        CoinCache cache = caches.get(player.getUUID());
+        if (cache != null && menu != player.inventoryMenu) {
+            menu.addSlotListener(cache);
+        }
+    }
+
+    public static void detach(UUID playerId) {
+        caches.remove(playerId);
+    }
+
+    // 背包中硬币的总价值
+    public static long getCash(ServerPlayer player) {
+        return cacheFor(player).total;
+    }
+
+    // 玩家的现金付款方式
+    public static PaymentMethod payment(ServerPlayer player) {
+        return new CashPayment(player);
+    }
+
+    // 玩家当前设置的付款方式（现金或钱包余额）
+    public static PaymentMethod paymentFor(ServerPlayer player) {
+        return EconomyManager.isPayWithCash(player.getUUID())
+                ? payment(player) : EconomyManager.walletPayment(player.getUUID());
+    }
+
+    // 按面值从大到小把金额换成硬币放入背包，背包满时掉落在脚下
+    public static void give(ServerPlayer player, long amount) {
+        long remaining = amount;
+        for (CoinItem coin : denominations()) {
+            long count = remaining / coin.getValue();
+            remaining -= count * coin.getValue();
+            while (count > 0) {
+                ItemStack stack = new ItemStack(coin, (int) Math.min(count, coin.getMaxStackSize()));
+                count -= stack.getCount();
+                if (!player.getInventory().add(stack)) {
+                    player.drop(stack, false);
+                }
+            }
+        }
+        cacheFor(player).rescan();
+    }
+
+    // 从背包中扣除硬币并找零，硬币不足时返回false且不修改背包
+    static boolean take(ServerPlayer player, long amount) {
+        if (amount <= 0) return false;
+
+        CoinCache cache = cacheFor(player);
+        if (cache.total < amount) {
+            // 缓存可能落后于本tick内的变化，付款失败前核对一次
+            cache.rescan();
+            if (cache.total < amount) return false;
+        }
+
+        CoinItem[] coins = denominations();
+        long[] available = new long[coins.length];
+        Inventory inventory = player.getInventory();
+        for (int slot = 0; slot < CoinCache.SLOTS; slot++) {
+            int index = indexOf(coins, inventory.getItem(slot));
+            if (index >= 0) {
+                available[index] += inventory.getItem(slot).getCount();
+            }
+        }
+
+        // 先按面值从大到小凑整，不足的部分用剩余硬币中面值最小的一枚补足，再找零
+        long[] taken = new long[coins.length];
+        long remaining = amount;
+        for (int i = 0; i < coins.length; i++) {
+            taken[i] = Math.min(available[i], remaining / coins[i].getValue());
+            remaining -= taken[i] * coins[i].getValue();
+        }
+        if (remaining > 0) {
+            int extra = -1;
+            for (int i = coins.length - 1; i >= 0 && extra < 0; i--) {
+                if (available[i] > taken[i] && coins[i].getValue() >= remaining) {
+                    extra = i;
+                }
+            }
+            if (extra < 0) return false;
+            taken[extra]++;
+            remaining -= coins[extra].getValue();
+        }
+
+        for (int slot = 0; slot < CoinCache.SLOTS; slot++) {
+            ItemStack stack = inventory.getItem(slot);
+            int index = indexOf(coins, stack);
+            if (index >= 0 && taken[index] > 0) {
+                int count = (int) Math.min(taken[index], stack.getCount());
+                stack.shrink(count);
+                taken[index] -= count;
+            }
+        }
+        inventory.setChanged();
+
+        if (remaining < 0) {
+            give(player, -remaining);
+        } else {
+            cache.rescan();
+        }
+        return true;
+    }
+
+    private static CoinCache cacheFor(ServerPlayer player) {
+        CoinCache cache = caches.get(player.getUUID());
+        if (cache == null || cache.inventory != player.getInventory()) {
+            attach(player);
+            cache = caches.get(player.getUUID());
+        }
+        return cache;
+    }
+
+    private static int indexOf(CoinItem[] coins, ItemStack stack) {
+        for (int i = 0; i < coins.length; i++) {
+            if (stack.getItem() == coins[i]) return i;
+        }
+        return -1;
+    }
+
+    private static CoinItem[] denominations() {
+        if (denominations == null) {
+            CoinItem[] coins = {
+                    (CoinItem) ModItems.GOLD_COIN.get(),
+                    (CoinItem) ModItems.SILVER_COIN.get(),
+                    (CoinItem) ModItems.COPPER_COIN.get()
+            };
+            Arrays.sort(coins, Comparator.comparingInt(CoinItem::getValue).reversed());
+            denominations = coins;
+        }
+        return denominations;
+    }
+
+    private static long coinValue(ItemStack stack) {
+        return stack.getItem() instanceof CoinItem coin ? (long) coin.getValue() * stack.getCount() : 0;
+    }
+
+    // 单个玩家的硬币缓存：每个背包槽位的硬币价值和总价值
+    private static class CoinCache implements ContainerListener {
+        static final int SLOTS = Inventory.INVENTORY_SIZE; // 主背包和快捷栏
+
+        final Inventory inventory;
+        final long[] slotValues = new long[SLOTS];
+        long total;
+
+        CoinCache(Inventory inventory) {
+            this.inventory = inventory;
+            rescan();
+        }
+
+        void rescan() {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                set(slot, inventory.getItem(slot));
+            }
+        }
+
+        void set(int slot, ItemStack stack) {
+            long value = coinValue(stack);
+            total += value - slotValues[slot];
+            slotValues[slot] = value;
+        }
+
+        @Override
+        public void slotChanged(AbstractContainerMenu menu, int menuSlot, ItemStack stack) {
+            Slot slot = menu.getSlot(menuSlot);
+            if (slot.container == inventory && slot.getContainerSlot() < SLOTS) {
+                set(slot.getContainerSlot(), stack);
+            }
+        }
+
+        @Override
+        public void dataChanged(AbstractContainerMenu menu, int dataSlot, int value) {
+        }
+    }
+
+    // 现金付款方式
+    private static class CashPayment implements PaymentMethod {
+        private final ServerPlayer player;
+
+        CashPayment(ServerPlayer player) {
+            this.player = player;
+        }
+
+        @Override
+        public String getName() {
+            return "现金";
+        }
+
+        @Override
+        public long getAvailable() {
+            return getCash(player);
+        }
+
+        @Override
+        public boolean pay(long amount) {
+            return take(player, amount);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.economymod.economy;
+
+import com.example.economymod.Config;
+
+import java.util.*;
+
+// 大宗商品指数 - 消费已成交的商店销售和拍卖结算，按物品指纹维护指数衰减的成交量加权均价（VWAP）
+// 每笔成交O(1)更新；只统计配置过的物品（由数据包中关联了商品的股票决定）
+public class CommodityIndex {
+    private final Map<String, Commodity> commodities = new HashMap<>();
+
+    // 设置要统计的商品（物品指纹 -> 名称），保留仍在配置中的商品的已有数据
+    public synchronized void configure(Map<String, String> itemNames) {
+        commodities.keySet().retainAll(itemNames.keySet());
+        for (Map.Entry<String, String> entry : itemNames.entrySet()) {
+            commodities.computeIfAbsent(entry.getKey(), k -> new Commodity(entry.getValue()));
+        }
+    }
+
+    // 记录一笔成交（未配置的物品直接忽略）
+    public synchronized void recordTrade(String itemKey, long unitPrice, int quantity, long nowMillis) {
+        if (itemKey == null || unitPrice <= 0 || quantity <= 0) return;
+        Commodity commodity = commodities.get(itemKey);
+        if (commodity != null) {
+            commodity.record(unitPrice, quantity, nowMillis);
+        }
+    }
+
+    // 成交量加权均价，没有成交时返回0
+    public synchronized double getPrice(String itemKey) {
+        Commodity commodity = commodities.get(itemKey);
+        return commodity != null ? commodity.price() : 0;
+    }
+
+    public synchronized boolean isTracked(String itemKey) {
+        return commodities.containsKey(itemKey);
+    }
+
+    // 所有商品的当前报价（按名称排序）
+    public synchronized List<Quote> getQuotes(long nowMillis) {
+        List<Quote> quotes = new ArrayList<>();
+        for (Map.Entry<String, Commodity> entry : commodities.entrySet()) {
+            Commodity commodity = entry.getValue();
+            commodity.decay(nowMillis);
+            quotes.add(new Quote(entry.getKey(), commodity.name, commodity.price(), commodity.volume));
+        }
+        quotes.sort(Comparator.comparing(Quote::getName));
+        return quotes;
+    }
+
+    // 单个商品：价格×数量之和与数量之和同步衰减，比值即加权均价
+    private static class Commodity {
+        private final String name;
+        private double weightedValue;
+        private double volume;
+        private long lastDecayMillis;
+
+        Commodity(String name) {
+            this.name = name;
+        }
+
+        void record(long unitPrice, int quantity, long nowMillis) {
+            decay(nowMillis);
+            weightedValue += (double) unitPrice * quantity;
+            volume += quantity;
+        }
+
+        void decay(long nowMillis) {
+            long elapsed = nowMillis - lastDecayMillis;
+            if (elapsed <= 0) return;
+            if (volume > 0) {
+                double factor = Math.pow(0.5, elapsed / (Config.commodityHalfLifeHours * EconomyClock.HOUR_MILLIS));
+                weightedValue *= factor;
+                volume *= factor;
+            }
+            lastDecayMillis = nowMillis;
+        }
+
+        // 衰减不改变比值，读取价格时不需要先衰减
+        double price() {
+            return volume > 1e-9 ? weightedValue / volume : 0;
+        }
+    }
+
+    // 商品报价
+    public static class Quote {
+        private final String itemKey;
+        private final String name;
+        private final double price;
+        private final double volume;
+
+        public Quote(String itemKey, String name, double price, double volume) {
+            this.itemKey = itemKey;
+            this.name = name;
+            this.price = price;
+            this.volume = volume;
+        }
+
+        public String getItemKey() { return itemKey; }
+        public String getName() { return name; }
+        public double getPrice() { return price; }
+        public double getVolume() { return volume; }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.economymod.economy;
+
+import com.example.economymod.Config;
+
+// 商品动态定价状态 - 需求（成交量）和供给（补货量）计数按指数衰减，每次成交或补货O(1)更新
+// 价格 = 基准价 × ((需求 + 先验量) / (供给 + 先验量)) ^ 弹性，限制在店主设定的上下限之间
+public class DynamicPrice {
+    // 先验成交量，避免少量成交就让价格大幅波动
+    private static final double PRIOR_VOLUME = 8.0;
+
+    private long basePrice;
+    private long minPrice;
+    private long maxPrice;
+    private double elasticity;
+    private double demand;
+    private double supply;
+    private long lastDecayMillis;
+
+    public DynamicPrice(long basePrice, long minPrice, long maxPrice, double elasticity) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.elasticity = elasticity;
+        this.basePrice = clamp(basePrice);
+        this.lastDecayMillis = EconomyClock.millis();
+    }
+
+    // 记录成交
+    public void recordDemand(int quantity, long nowMillis) {
+        decay(nowMillis);
+        demand += quantity;
+    }
+
+    // 记录补货
+    public void recordSupply(int quantity, long nowMillis) {
+        decay(nowMillis);
+        supply += quantity;
+    }
+
+    // 按当前需求和供给计算价格
+    public long computePrice(long nowMillis) {
+        decay(nowMillis);
+        double ratio = (demand + PRIOR_VOLUME) / (supply + PRIOR_VOLUME);
+        return clamp(Math.round(basePrice * Math.pow(ratio, elasticity)));
+    }
+
+    // 将两个计数衰减到当前时间
+    private void decay(long nowMillis) {
+        long elapsed = nowMillis - lastDecayMillis;
+        if (elapsed <= 0) return;
+
+        double halfLifeMillis = Config.demandHalfLifeHours * EconomyClock.HOUR_MILLIS;
+        double factor = Math.pow(0.5, elapsed / halfLifeMillis);
+        demand *= factor;
+        supply *= factor;
+        lastDecayMillis = nowMillis;
+    }
+
+    private long clamp(long price) {
+        return Math.max(minPrice, Math.min(maxPrice, price));
+    }
+
+    // 店主修改价格时作为新的基准价
+    public void setBasePrice(long basePrice) {
+        this.basePrice = clamp(basePrice);
+    }
+
+    public long getBasePrice() { return basePrice; }
+    public long getMinPrice() { return minPrice; }
+    public long getMaxPrice() { return maxPrice; }
+    public double getElasticity() { return elasticity; }
+    public double getDemand() { return demand; }
+    public double getSupply() { return supply; }
+}
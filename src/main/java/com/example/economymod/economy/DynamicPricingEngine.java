@@ -0,0 +1,83 @@
+package com.example.economymod.economy;
+
+import com.example.economymod.Config;
+
+import java.util.*;
+import java.util.function.Function;
+
+// 动态定价引擎 - 登记启用了动态定价的商品，每个调度间隔统一重新计算一次价格，成交时不重新定价
+public class DynamicPricingEngine {
+    // 商店名 -> 启用了动态定价的物品指纹
+    private final Map<String, Set<String>> entries = new LinkedHashMap<>();
+    private long nextRunMillis;
+
+    public synchronized void register(String shopName, String itemKey) {
+        entries.computeIfAbsent(shopName, k -> new LinkedHashSet<>()).add(itemKey);
+    }
+
+    public synchronized void unregister(String shopName, String itemKey) {
+        Set<String> keys = entries.get(shopName);
+        if (keys != null && keys.remove(itemKey) && keys.isEmpty()) {
+            entries.remove(shopName);
+        }
+    }
+
+    // 从所有商店重建登记（加载数据后调用）
+    public synchronized void rebuild(Collection<PlayerShop> shops) {
+        entries.clear();
+        for (PlayerShop shop : shops) {
+            for (Map.Entry<String, PlayerShop.ShopItem> item : shop.getItems().entrySet()) {
+                if (item.getValue().getDynamicPrice() != null) {
+                    register(shop.getShopName(), item.getKey());
+                }
+            }
+        }
+    }
+
+    // 到达调度时间时批量重新计算价格，返回价格发生变化的商品数量
+    public synchronized int tick(long nowMillis, Function<String, PlayerShop> shopLookup) {
+        if (nowMillis < nextRunMillis) return 0;
+        nextRunMillis = nowMillis + Config.dynamicPricingIntervalMinutes * EconomyClock.MINUTE_MILLIS;
+
+        int changed = 0;
+        Iterator<Map.Entry<String, Set<String>>> shopIterator = entries.entrySet().iterator();
+        while (shopIterator.hasNext()) {
+            Map.Entry<String, Set<String>> entry = shopIterator.next();
+            PlayerShop shop = shopLookup.apply(entry.getKey());
+            if (shop == null) {
+                shopIterator.remove();
+                continue;
+            }
+
+            Iterator<String> keyIterator = entry.getValue().iterator();
+            while (keyIterator.hasNext()) {
+                String itemKey = keyIterator.next();
+                PlayerShop.ShopItem item = shop.getItem(itemKey);
+                DynamicPrice dynamicPrice = item != null ? item.getDynamicPrice() : null;
+                if (dynamicPrice == null) {
+                    // 商品已下架或关闭了动态定价
+                    keyIterator.remove();
+                    continue;
+                }
+
+                long price = dynamicPrice.computePrice(nowMillis);
+                if (price != item.getPrice()) {
+                    shop.applyDynamicPrice(itemKey, price);
+                    changed++;
+                }
+            }
+            if (entry.getValue().isEmpty()) {
+                shopIterator.remove();
+            }
+        }
+        return changed;
+    }
+
+    public synchronized int getEntryCount() {
+        int count = 0;
+        for (Set<String> keys : entries.values()) {
+            count += keys.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.economymod.economy;
+
+import com.example.economymod.Config;
+import net.minecraft.server.MinecraftServer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.LongSupplier;
+
+// 经济系统时钟 - 每个服务器tick只读取一次系统时间，其余调用都读取缓存值
+public class EconomyClock {
+    public static final long SECOND_MILLIS = 1000L;
+    public static final long MINUTE_MILLIS = 60 * SECOND_MILLIS;
+    public static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    public static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    // Minecraft中一天的tick数
+    private static final long TICKS_PER_MINECRAFT_DAY = 24000L;
+
+    // 时间来源（测试时可替换为假时钟）
+    private static LongSupplier timeSource = System::currentTimeMillis;
+    private static ZoneId zone = ZoneId.systemDefault();
+
+    // 缓存值
+    private static volatile long currentMillis;
+    private static volatile long tradingDay;
+    private static volatile LocalDateTime currentDateTime;
+    private static volatile LocalDate currentDate;
+
+    static {
+        refresh(null);
+    }
+
+    // 每个服务器tick调用一次，刷新缓存
+    public static void tick(MinecraftServer server) {
+        refresh(server);
+    }
+
+    // 在没有服务器的环境下刷新（例如初始化或测试）
+    public static void tick() {
+        refresh(null);
+    }
+
+    private static void refresh(MinecraftServer server) {
+        long millis = timeSource.getAsLong();
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+
+        currentMillis = millis;
+        currentDateTime = dateTime;
+        currentDate = dateTime.toLocalDate();
+
+        // 交易日可跟随Minecraft昼夜循环，否则使用现实日期
+        if (Config.minecraftTradingDays && server != null) {
+            tradingDay = server.overworld().getDayTime() / TICKS_PER_MINECRAFT_DAY;
+        } else {
+            tradingDay = currentDate.toEpochDay();
+        }
+    }
+
+    // 当前时间（毫秒）
+    public static long millis() {
+        return currentMillis;
+    }
+
+    // 当前交易日编号
+    public static long tradingDay() {
+        return tradingDay;
+    }
+
+    // 当前时间（缓存的LocalDateTime，不会重新分配对象）
+    public static LocalDateTime now() {
+        return currentDateTime;
+    }
+
+    // 当前日期
+    public static LocalDate today() {
+        return currentDate;
+    }
+
+    // 将LocalDateTime转换为毫秒时间戳
+    public static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    // 将毫秒时间戳转换为LocalDateTime
+    public static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    // 替换时间来源（用于测试），替换后立即刷新缓存
+    public static void setTimeSource(LongSupplier source, ZoneId sourceZone) {
+        timeSource = source;
+        zone = sourceZone;
+        refresh(null);
+    }
+
+    // 恢复系统时钟
+    public static void resetTimeSource() {
+        setTimeSource(System::currentTimeMillis, ZoneId.systemDefault());
+    }
+}
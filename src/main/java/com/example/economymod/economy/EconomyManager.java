@@ -4,6 +4,8 @@ import com.example.economymod.Config;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.server.ServerLifecycleHooks;
 import org.slf4j.Logger;
@@ -11,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -32,10 +35,17 @@ public class EconomyManager {
     
     // 商店数据
     private static final Map<String, PlayerShop> playerShops = new ConcurrentHashMap<>();
+    private static final ShopIndex shopIndex = new ShopIndex();
+    private static final DynamicPricingEngine pricingEngine = new DynamicPricingEngine();
+    private static final CommodityIndex commodityIndex = new CommodityIndex();
+    private static final Map<UUID, ShoppingCart> shoppingCarts = new ConcurrentHashMap<>();
     
-    // 拍卖数据
-    private static final Map<Integer, Auction> activeAuctions = new ConcurrentHashMap<>();
-    private static int nextAuctionId = 1;
+    // 拍卖行
+    private static final AuctionHouse auctionHouse = new AuctionHouse(EconomyManager::onAuctionCompleted);
+    private static final AuctionBidQueue auctionBidQueue = new AuctionBidQueue();
+
+    // 拍卖历史归档
+    private static AuctionArchive auctionArchive = new AuctionArchive();
     
     // 贷款数据
     private static final Map<UUID, Loan> playerLoans = new ConcurrentHashMap<>();
@@ -58,6 +68,12 @@ public class EconomyManager {
         return playerAccounts.computeIfAbsent(playerId, k -> new PlayerAccount()).getBalance();
     }
 
+    // 获取玩家在拍卖托管中冻结的金额
+    public static long getHeldMoney(UUID playerId) {
+        PlayerAccount account = playerAccounts.get(playerId);
+        return account != null ? account.getHeldBalance() : 0;
+    }
+
     // 获取玩家储蓄余额
     public static long getSavings(UUID playerId) {
         return bankAccounts.computeIfAbsent(playerId, k -> new BankAccount()).getSavings();
@@ -100,6 +116,78 @@ public class EconomyManager {
         return true;
     }
 
+    // 玩家的钱包付款方式
+    public static PaymentMethod walletPayment(UUID playerId) {
+        return new PaymentMethod() {
+            @Override
+            public String getName() {
+                return "余额";
+            }
+
+            @Override
+            public long getAvailable() {
+                PlayerAccount account = playerAccounts.get(playerId);
+                return account != null ? account.getBalance() : 0;
+            }
+
+            @Override
+            public boolean pay(long amount) {
+                PlayerAccount account = playerAccounts.get(playerId);
+                return account != null && account.subtractBalance(amount);
+            }
+        };
+    }
+
+    // 是否使用现金付款
+    public static boolean isPayWithCash(UUID playerId) {
+        PlayerAccount account = playerAccounts.get(playerId);
+        return account != null && account.isPayWithCash();
+    }
+
+    public static void setPayWithCash(UUID playerId, boolean payWithCash) {
+        playerAccounts.computeIfAbsent(playerId, k -> new PlayerAccount()).setPayWithCash(payWithCash);
+        saveData();
+    }
+
+    // 记录现金转账（硬币已由调用方转交，不经过钱包也不收税）
+    public static void recordCashTransfer(UUID fromPlayer, UUID toPlayer, long amount, String memo) {
+        recordTransaction(fromPlayer, TransactionType.TRANSFER_OUT, amount, "现金转账给玩家 (备注: " + memo + ")");
+        recordTransaction(toPlayer, TransactionType.TRANSFER_IN, amount, "来自玩家的现金 (备注: " + memo + ")");
+        economyStats.addTransaction(amount);
+        saveData();
+    }
+
+    // 冻结资金（股票买单托管），余额不足时返回false；调用方负责保存
+    public static boolean holdFunds(UUID playerId, long amount) {
+        PlayerAccount account = playerAccounts.get(playerId);
+        return account != null && account.holdFunds(amount);
+    }
+
+    // 解冻资金
+    public static void releaseHeldFunds(UUID playerId, long amount) {
+        PlayerAccount account = playerAccounts.get(playerId);
+        if (account != null && amount > 0) {
+            account.releaseFunds(amount);
+        }
+    }
+
+    // 从冻结资金中支付成交金额
+    public static boolean payFromHeldFunds(UUID playerId, long amount, TransactionType type, String description) {
+        PlayerAccount account = playerAccounts.get(playerId);
+        if (account == null || !account.spendHeldFunds(amount)) return false;
+        recordTransaction(playerId, type, amount, description);
+        economyStats.addTransaction(amount);
+        return true;
+    }
+
+    // 成交收入入账（股票卖出）
+    public static void creditFunds(UUID playerId, long amount, long tax, TransactionType type, String description) {
+        if (amount <= 0) return;
+        playerAccounts.computeIfAbsent(playerId, k -> new PlayerAccount()).addBalance(amount);
+        recordTransaction(playerId, type, amount, description);
+        economyStats.addTax(tax);
+    }
+
     // 转账功能
     public static boolean transferMoney(UUID fromPlayer, UUID toPlayer, long amount, String memo) {
         if (amount <= 0) return false;
@@ -228,7 +316,7 @@ public class EconomyManager {
 
     // 记录交易
     private static void recordTransaction(UUID playerId, TransactionType type, long amount, String description) {
-        Transaction transaction = new Transaction(type, amount, description, LocalDateTime.now());
+        Transaction transaction = new Transaction(type, amount, description, EconomyClock.now());
         transactionHistory.computeIfAbsent(playerId, k -> new ArrayList<>()).add(transaction);
         
         // 限制历史记录数量
@@ -289,6 +377,443 @@ public class EconomyManager {
         saveData();
     }
 
+    // 创建玩家商店
+    public static PlayerShop createShop(UUID ownerId, String ownerName, String shopName) {
+        if (shopName == null || shopName.isBlank()) return null;
+        if (getShopsByOwner(ownerId).size() >= Config.maxShopsPerPlayer) return null;
+
+        PlayerShop shop = new PlayerShop(shopName, ownerId, ownerName);
+        if (playerShops.putIfAbsent(shopName, shop) != null) {
+            return null; // 商店名已被占用
+        }
+        shop.attachIndex(shopIndex);
+
+        economyStats.addShop();
+        saveData();
+        return shop;
+    }
+
+    // 获取商店
+    public static PlayerShop getShop(String shopName) {
+        return playerShops.get(shopName);
+    }
+
+    // 获取所有商店
+    public static List<PlayerShop> getShops() {
+        return new ArrayList<>(playerShops.values());
+    }
+
+    // 获取玩家拥有的商店
+    public static List<PlayerShop> getShopsByOwner(UUID ownerId) {
+        List<PlayerShop> shops = new ArrayList<>();
+        for (PlayerShop shop : playerShops.values()) {
+            if (shop.getOwnerId().equals(ownerId)) {
+                shops.add(shop);
+            }
+        }
+        return shops;
+    }
+
+    // 获取大宗商品指数
+    public static CommodityIndex getCommodityIndex() {
+        return commodityIndex;
+    }
+
+    // 获取全服商品索引
+    public static ShopIndex getShopIndex() {
+        return shopIndex;
+    }
+
+    // 为商品启用动态定价，当前价格作为基准价
+    public static boolean enableDynamicPricing(PlayerShop shop, String itemKey, long minPrice, long maxPrice, double elasticity) {
+        PlayerShop.ShopItem item = shop.getItem(itemKey);
+        if (item == null || minPrice > maxPrice || elasticity <= 0) return false;
+
+        item.setDynamicPrice(new DynamicPrice(item.getPrice(), minPrice, maxPrice, elasticity));
+        shop.updatePrice(itemKey, item.getPrice());
+        pricingEngine.register(shop.getShopName(), itemKey);
+        saveData();
+        return true;
+    }
+
+    // 关闭商品的动态定价，价格停留在当前值
+    public static boolean disableDynamicPricing(PlayerShop shop, String itemKey) {
+        PlayerShop.ShopItem item = shop.getItem(itemKey);
+        if (item == null || item.getDynamicPrice() == null) return false;
+
+        item.setDynamicPrice(null);
+        pricingEngine.unregister(shop.getShopName(), itemKey);
+        saveData();
+        return true;
+    }
+
+    // 每个服务器tick调用，到达调度间隔时批量重新计算所有动态定价商品的价格
+    public static void tickPricing() {
+        if (pricingEngine.tick(EconomyClock.millis(), playerShops::get) > 0) {
+            saveData();
+        }
+    }
+
+    // 从商店购买单个商品（按当前价格作为只有一行的购物车结账）
+    public static boolean purchaseFromShop(UUID buyerId, String shopName, String itemKey, int quantity) {
+        return purchaseFromShop(buyerId, walletPayment(buyerId), shopName, itemKey, quantity);
+    }
+
+    public static boolean purchaseFromShop(UUID buyerId, PaymentMethod payment, String shopName, String itemKey, int quantity) {
+        PlayerShop shop = playerShops.get(shopName);
+        PlayerShop.ShopItem item = shop != null ? shop.getItem(itemKey) : null;
+        if (item == null) return false;
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.add(shopName, itemKey, item.getDisplayName(), quantity, item.getPrice());
+        return checkout(buyerId, payment, cart).isSuccess();
+    }
+
+    // 从系统商店购买：按调用方持有的价格表快照扣款，返回总价，不出售或余额不足时返回-1
+    public static long buyFromServerShop(UUID buyerId, PaymentMethod payment, ServerShopCatalog catalog, int slot, int quantity) {
+        if (quantity <= 0 || !catalog.isSold(slot)) return -1;
+
+        long totalCost = catalog.getBuyPrice(slot) * quantity;
+        if (!payment.pay(totalCost)) return -1;
+
+        recordTransaction(buyerId, TransactionType.SHOP_PURCHASE, totalCost,
+                "系统商店购买: " + catalog.getDisplayName(slot) + " x" + quantity);
+        economyStats.addTransaction(totalCost);
+        saveData();
+        return totalCost;
+    }
+
+    // 向系统商店出售（调用方已扣除物品），返回收入，不收购时返回-1
+    public static long sellToServerShop(UUID sellerId, ServerShopCatalog catalog, int slot, int quantity) {
+        if (quantity <= 0 || !catalog.isBought(slot)) return -1;
+
+        long income = catalog.getSellPrice(slot) * quantity;
+        PlayerAccount account = playerAccounts.computeIfAbsent(sellerId, k -> new PlayerAccount());
+        account.addBalance(income);
+        recordTransaction(sellerId, TransactionType.SHOP_SALE, income,
+                "系统商店收购: " + catalog.getDisplayName(slot) + " x" + quantity);
+        economyStats.addTransaction(income);
+        saveData();
+        return income;
+    }
+
+    // 获取玩家的购物车（不保存，服务器重启后清空）
+    public static ShoppingCart getCart(UUID playerId) {
+        return shoppingCarts.computeIfAbsent(playerId, k -> new ShoppingCart());
+    }
+
+    // 买单路由：按价格从低到高把订单拆分到多个商店并加入购物车，返回实际加入的数量
+    public static int routeBuyOrder(UUID buyerId, String itemKey, int quantity, ShoppingCart cart) {
+        int remaining = quantity;
+        for (ShopIndex.Listing listing : shopIndex.getListings(itemKey)) {
+            if (remaining <= 0) break;
+            if (listing.getOwnerId().equals(buyerId)) continue;
+
+            // 扣除购物车中已从该商店加入的数量
+            int available = listing.getQuantity() - cart.getQuantity(listing.getShopName(), itemKey);
+            int take = Math.min(remaining, available);
+            if (take <= 0) continue;
+
+            if (!cart.add(listing.getShopName(), itemKey, listing.getDisplayName(), take, listing.getPrice())) break;
+            remaining -= take;
+        }
+        return quantity - remaining;
+    }
+
+    // 购物车结账：先校验所有商品的库存和价格，全部通过后一次扣款、给各店主入账并只保存一次
+    public static ShoppingCart.CheckoutResult checkout(UUID buyerId, ShoppingCart cart) {
+        return checkout(buyerId, walletPayment(buyerId), cart);
+    }
+
+    public static synchronized ShoppingCart.CheckoutResult checkout(UUID buyerId, PaymentMethod payment, ShoppingCart cart) {
+        List<ShoppingCart.CartLine> lines = cart.getLines();
+        if (lines.isEmpty()) {
+            return ShoppingCart.CheckoutResult.failure(ShoppingCart.CheckoutResult.Status.EMPTY, null);
+        }
+
+        // 校验阶段：任何一行失败都不修改任何数据
+        long totalCost = 0;
+        for (ShoppingCart.CartLine line : lines) {
+            PlayerShop shop = playerShops.get(line.getShopName());
+            if (shop == null || !shop.isOpen() || shop.getOwnerId().equals(buyerId)) {
+                return ShoppingCart.CheckoutResult.failure(ShoppingCart.CheckoutResult.Status.SHOP_UNAVAILABLE, line);
+            }
+            PlayerShop.ShopItem item = shop.getItem(line.getItemKey());
+            if (item == null || shop.getAvailableQuantity(line.getItemKey()) < line.getQuantity()) {
+                return ShoppingCart.CheckoutResult.failure(ShoppingCart.CheckoutResult.Status.OUT_OF_STOCK, line);
+            }
+            if (item.getPrice() != line.getUnitPrice()) {
+                return ShoppingCart.CheckoutResult.failure(ShoppingCart.CheckoutResult.Status.PRICE_CHANGED, line);
+            }
+            totalCost += line.getTotalPrice();
+        }
+
+        if (payment.getAvailable() < totalCost) {
+            return ShoppingCart.CheckoutResult.failure(ShoppingCart.CheckoutResult.Status.INSUFFICIENT_FUNDS, null);
+        }
+
+        // 取货阶段：库存箱的缓存数量可能多于实物，先实际取出所有商品，任何一行不足都放回已取出的商品
+        List<PlayerShop.StockWithdrawal> withdrawals = new ArrayList<>(lines.size());
+        for (ShoppingCart.CartLine line : lines) {
+            PlayerShop.StockWithdrawal withdrawal = playerShops.get(line.getShopName())
+                    .withdrawStock(line.getItemKey(), line.getQuantity());
+            if (withdrawal == null) {
+                rollbackWithdrawals(lines, withdrawals);
+                return ShoppingCart.CheckoutResult.failure(ShoppingCart.CheckoutResult.Status.OUT_OF_STOCK, line);
+            }
+            withdrawals.add(withdrawal);
+        }
+
+        if (!payment.pay(totalCost)) {
+            rollbackWithdrawals(lines, withdrawals);
+            return ShoppingCart.CheckoutResult.failure(ShoppingCart.CheckoutResult.Status.INSUFFICIENT_FUNDS, null);
+        }
+
+        // 结算阶段
+        Map<UUID, Long> ownerProceeds = new LinkedHashMap<>();
+        Set<String> shops = new HashSet<>();
+        Map<String, PlayerShop.ShopItem> purchasedItems = new HashMap<>();
+        long totalTax = 0;
+
+        for (int i = 0; i < lines.size(); i++) {
+            ShoppingCart.CartLine line = lines.get(i);
+            PlayerShop shop = playerShops.get(line.getShopName());
+            purchasedItems.putIfAbsent(line.getItemKey(), shop.getItem(line.getItemKey()));
+            shop.completePurchase(withdrawals.get(i));
+            commodityIndex.recordTrade(line.getItemKey(), line.getUnitPrice(), line.getQuantity(), EconomyClock.millis());
+            shops.add(shop.getShopName());
+
+            long tax = (long) (line.getTotalPrice() * Config.transactionTax);
+            totalTax += tax;
+            ownerProceeds.merge(shop.getOwnerId(), line.getTotalPrice() - tax, Long::sum);
+            recordTransaction(shop.getOwnerId(), TransactionType.SHOP_SALE, line.getTotalPrice() - tax,
+                    "商店 " + shop.getShopName() + " 售出 " + line.getItemName() + " x" + line.getQuantity() + " (税费: " + tax + ")");
+            economyStats.addTransaction(line.getTotalPrice());
+        }
+
+        for (Map.Entry<UUID, Long> entry : ownerProceeds.entrySet()) {
+            playerAccounts.computeIfAbsent(entry.getKey(), k -> new PlayerAccount()).addBalance(entry.getValue());
+        }
+
+        recordTransaction(buyerId, TransactionType.SHOP_PURCHASE, totalCost,
+                (lines.size() == 1
+                        ? "从商店 " + lines.get(0).getShopName() + " 购买 " + lines.get(0).getItemName() + " x" + lines.get(0).getQuantity()
+                        : "购物车结账: " + lines.size() + " 种商品，来自 " + shops.size() + " 家商店")
+                        + " (" + payment.getName() + "付款)");
+        economyStats.addTax(totalTax);
+
+        saveData();
+        return ShoppingCart.CheckoutResult.success(lines, purchasedItems, totalCost);
+    }
+
+    // 放回结账时已取出的商品（按取出的逆序）
+    private static void rollbackWithdrawals(List<ShoppingCart.CartLine> lines, List<PlayerShop.StockWithdrawal> withdrawals) {
+        for (int i = withdrawals.size() - 1; i >= 0; i--) {
+            playerShops.get(lines.get(i).getShopName()).rollback(withdrawals.get(i));
+        }
+    }
+
+    // 获取拍卖行
+    public static AuctionHouse getAuctionHouse() {
+        return auctionHouse;
+    }
+
+    // 获取拍卖历史归档
+    public static AuctionArchive getAuctionArchive() {
+        return auctionArchive;
+    }
+
+    // 按物品名创建拍卖（物品名是物品ID时与该物品无NBT时的指纹相同）
+    public static Auction createAuction(UUID sellerId, String sellerName, String itemName,
+                                        long startingBid, int durationHours) {
+        return createAuction(sellerId, sellerName, itemName, ItemFingerprint.ofName(itemName).toKey(),
+                startingBid, durationHours);
+    }
+
+    // 创建拍卖
+    public static Auction createAuction(UUID sellerId, String sellerName, String itemName, String itemKey,
+                                        long startingBid, int durationHours) {
+        if (startingBid <= 0 || durationHours <= 0) return null;
+
+        Auction auction = auctionHouse.createAuction(sellerId, sellerName, itemName, itemKey, startingBid, durationHours);
+
+        saveData();
+        return auction;
+    }
+
+    // 提交拍卖出价，出价进入队列并在下一个tick统一结算（可在任意线程调用）
+    public static AuctionBidQueue.OfferResult submitAuctionBid(int auctionId, UUID bidderId, String bidderName, long maxAmount) {
+        Auction auction = auctionHouse.getActiveAuction(auctionId);
+        if (auction == null) return AuctionBidQueue.OfferResult.REJECTED;
+
+        // 提前检查余额，结算时仍会再次检查
+        PlayerAccount account = playerAccounts.get(bidderId);
+        long required = bidderId.equals(auction.getCurrentBidderId()) ? maxAmount - auction.getMaxBid() : maxAmount;
+        if (account == null || account.getBalance() < required) {
+            return AuctionBidQueue.OfferResult.INSUFFICIENT_FUNDS;
+        }
+
+        return auctionBidQueue.offer(auction, bidderId, bidderName, maxAmount);
+    }
+
+    // 结算队列中的出价：每个拍卖按优先级结算，直到两个出价成功（冻结资金失败的由下一个出价递补），
+    // 其余出价被这两个出价支配，直接通知被超过
+    private static boolean processAuctionBids() {
+        boolean changed = false;
+        for (Integer auctionId : auctionBidQueue.getPendingAuctionIds()) {
+            int settled = 0;
+            for (AuctionBidQueue.PendingBid bid : auctionBidQueue.drain(auctionId)) {
+                if (settled >= 2) {
+                    notifyBidResult(auctionId, bid, Auction.BidResult.OUTBID);
+                    continue;
+                }
+                Auction.BidResult result = placeAuctionBid(auctionId, bid.getBidderId(), bid.getBidderName(), bid.getMaxAmount());
+                notifyBidResult(auctionId, bid, result);
+                if (result != Auction.BidResult.REJECTED) {
+                    settled++;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    // 通知出价者出价结果
+    private static void notifyBidResult(int auctionId, AuctionBidQueue.PendingBid bid, Auction.BidResult result) {
+        Auction auction = auctionHouse.getAuction(auctionId);
+        long price = auction != null ? auction.getCurrentBid() : 0;
+
+        String message = switch (result) {
+            case LEADING -> "您目前是拍卖 #" + auctionId + " 的最高出价者，当前价格 " + price
+                    + " 金币（已冻结 " + bid.getMaxAmount() + " 金币）";
+            case RAISED -> "已将拍卖 #" + auctionId + " 的出价上限提高到 " + bid.getMaxAmount() + " 金币";
+            case OUTBID -> "您对拍卖 #" + auctionId + " 的出价已被超过，当前价格 " + price + " 金币";
+            case REJECTED -> "您对拍卖 #" + auctionId + " 的出价失败，拍卖可能已结束或余额不足";
+        };
+        notifyPlayer(bid.getBidderId(), message);
+    }
+
+    // 向在线玩家发送消息
+    private static void notifyPlayer(UUID playerId, String message) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) return;
+
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        if (player != null) {
+            player.sendSystemMessage(Component.literal(message));
+        }
+    }
+
+    // 拍卖代理出价：出价者的最高出价冻结在托管中，被超过时解冻
+    public static Auction.BidResult placeAuctionBid(int auctionId, UUID bidderId, String bidderName, long maxAmount) {
+        synchronized (auctionHouse) {
+            Auction auction = auctionHouse.getActiveAuction(auctionId);
+            if (auction == null) return Auction.BidResult.REJECTED;
+
+            PlayerAccount account = playerAccounts.computeIfAbsent(bidderId, k -> new PlayerAccount());
+            UUID previousLeader = auction.getCurrentBidderId();
+            long previousMax = auction.getMaxBid();
+            boolean raising = bidderId.equals(previousLeader);
+
+            // 只有可能成为（或保持）最高出价者时才需要冻结资金
+            long hold = 0;
+            if (raising) {
+                hold = maxAmount - previousMax;
+            } else if (previousLeader == null || maxAmount > previousMax) {
+                hold = maxAmount;
+            }
+            if (hold > 0 && !account.holdFunds(hold)) {
+                return Auction.BidResult.REJECTED;
+            }
+
+            Auction.BidResult result = auctionHouse.placeBid(auctionId, bidderId, bidderName, maxAmount);
+            switch (result) {
+                case REJECTED, OUTBID -> account.releaseFunds(hold);
+                case LEADING -> {
+                    recordTransaction(bidderId, TransactionType.AUCTION_BID, hold,
+                            "拍卖 #" + auctionId + " 出价冻结");
+                    if (previousLeader != null) {
+                        refundAuctionHold(previousLeader, previousMax, "拍卖 #" + auctionId + " 出价被超过，解冻资金");
+                    }
+                }
+                case RAISED -> recordTransaction(bidderId, TransactionType.AUCTION_BID, hold,
+                        "拍卖 #" + auctionId + " 提高出价上限");
+            }
+
+            return result;
+        }
+    }
+
+    // 解冻拍卖托管资金
+    private static void refundAuctionHold(UUID playerId, long amount, String description) {
+        PlayerAccount account = playerAccounts.get(playerId);
+        if (account == null) return;
+
+        long released = account.releaseFunds(amount);
+        if (released > 0) {
+            recordTransaction(playerId, TransactionType.AUCTION_REFUND, released, description);
+        }
+    }
+
+    // 每个服务器tick调用，结算队列中的出价并清理已到期的拍卖
+    public static void tickAuctions() {
+        boolean changed = processAuctionBids();
+        changed |= auctionHouse.expireAuctions(EconomyClock.millis()) > 0;
+        if (changed) {
+            saveData();
+        }
+    }
+
+    // 拍卖完成回调：从获胜者的托管资金中扣除成交价，多余部分解冻，卖家收款（扣除税费）
+    // 结算成功后才归档，未能结算的拍卖不计入成交价统计
+    private static void onAuctionCompleted(Auction auction) {
+        economyStats.addAuction();
+        for (AuctionBidQueue.PendingBid bid : auctionBidQueue.discard(auction.getAuctionId())) {
+            notifyBidResult(auction.getAuctionId(), bid, Auction.BidResult.REJECTED);
+        }
+        if (!auction.hasWinner()) {
+            auctionArchive.archive(auction);
+            return;
+        }
+
+        UUID winnerId = auction.getCurrentBidderId();
+        long price = auction.getCurrentBid();
+        long held = auction.getMaxBid();
+
+        PlayerAccount winner = playerAccounts.computeIfAbsent(winnerId, k -> new PlayerAccount());
+        if (!winner.spendHeldFunds(price)) {
+            LOGGER.warn("拍卖 #{} 获胜者托管资金不足，无法结算，已退回托管并重新上架", auction.getAuctionId());
+            refundAuctionHold(winnerId, held, "拍卖 #" + auction.getAuctionId() + " 结算失败，解冻资金");
+            relistAuction(auction);
+            return;
+        }
+        if (held > price) {
+            refundAuctionHold(winnerId, held - price, "拍卖 #" + auction.getAuctionId() + " 成交，解冻剩余资金");
+        }
+
+        long tax = (long) (price * Config.transactionTax);
+        PlayerAccount seller = playerAccounts.computeIfAbsent(auction.getSellerId(), k -> new PlayerAccount());
+        seller.addBalance(price - tax);
+        recordTransaction(auction.getSellerId(), TransactionType.AUCTION_SELL, price - tax,
+                "拍卖 #" + auction.getAuctionId() + " 成交: " + auction.getItemName() + " (税费: " + tax + ")");
+
+        economyStats.addTransaction(price);
+        economyStats.addTax(tax);
+        commodityIndex.recordTrade(auction.getItemKey(), price, 1, EconomyClock.millis());
+        auctionArchive.archive(auction);
+    }
+
+    // 结算失败的拍卖按原起拍价和时长重新上架，并通知卖家和获胜者
+    private static void relistAuction(Auction auction) {
+        int durationHours = (int) Math.max(1, Duration.between(auction.getStartTime(), auction.getEndTime()).toHours());
+        Auction relisted = auctionHouse.createAuction(auction.getSellerId(), auction.getSellerName(), auction.getItemName(),
+                auction.getItemKey(), auction.getStartingBid(), durationHours);
+
+        notifyPlayer(auction.getSellerId(), "拍卖 #" + auction.getAuctionId() + " 的获胜者未能付款，已重新上架为拍卖 #"
+                + relisted.getAuctionId());
+        notifyPlayer(auction.getCurrentBidderId(), "拍卖 #" + auction.getAuctionId() + " 结算失败，冻结的资金已退回");
+    }
+
     // 获取经济统计
     public static EconomyStats getEconomyStats() {
         return economyStats;
@@ -315,7 +840,9 @@ public class EconomyManager {
             saveToFile(playerShops, new File(dataDir, "player_shops.json"));
             
             // 保存拍卖数据
-            saveToFile(activeAuctions, new File(dataDir, "auctions.json"));
+            saveToFile(auctionHouse.getActiveAuctions(), new File(dataDir, "auctions.json"));
+            auctionArchive.compact();
+            saveToFile(auctionArchive, new File(dataDir, "auction_archive.json"));
             
             // 保存贷款数据
             saveToFile(playerLoans, new File(dataDir, "loans.json"));
@@ -340,6 +867,9 @@ public class EconomyManager {
             // 加载玩家账户
             loadFromFile(new File(dataDir, "player_accounts.json"), 
                     new TypeToken<Map<UUID, PlayerAccount>>(){}.getType(), playerAccounts);
+            for (PlayerAccount account : playerAccounts.values()) {
+                account.migrateRewardTradingDay();
+            }
             
             // 加载银行账户
             loadFromFile(new File(dataDir, "bank_accounts.json"), 
@@ -352,10 +882,23 @@ public class EconomyManager {
             // 加载商店数据
             loadFromFile(new File(dataDir, "player_shops.json"), 
                     new TypeToken<Map<String, PlayerShop>>(){}.getType(), playerShops);
+            for (PlayerShop shop : playerShops.values()) {
+                shop.migrateSalesStats();
+            }
+            shopIndex.rebuild(playerShops.values());
+            pricingEngine.rebuild(playerShops.values());
             
             // 加载拍卖数据
+            Map<Integer, Auction> loadedAuctions = new HashMap<>();
             loadFromFile(new File(dataDir, "auctions.json"), 
-                    new TypeToken<Map<Integer, Auction>>(){}.getType(), activeAuctions);
+                    new TypeToken<Map<Integer, Auction>>(){}.getType(), loadedAuctions);
+            auctionHouse.load(loadedAuctions);
+            reconcileHeldFunds();
+
+            AuctionArchive loadedArchive = loadSingleFromFile(new File(dataDir, "auction_archive.json"), AuctionArchive.class);
+            if (loadedArchive != null) {
+                auctionArchive = loadedArchive;
+            }
             
             // 加载贷款数据
             loadFromFile(new File(dataDir, "loans.json"), 
@@ -374,6 +917,24 @@ public class EconomyManager {
         }
     }
 
+    // 冻结资金只应包含仍在进行的拍卖中领先出价者的上限；股票挂单不持久化，
+    // 上次未正常关服（崩溃、强制结束）时留下的挂单托管在这里退回余额
+    private static void reconcileHeldFunds() {
+        Map<UUID, Long> activeHolds = new HashMap<>();
+        for (Auction auction : auctionHouse.getActiveAuctions().values()) {
+            if (auction.getCurrentBidderId() != null) {
+                activeHolds.merge(auction.getCurrentBidderId(), auction.getMaxBid(), Long::sum);
+            }
+        }
+        
+        for (Map.Entry<UUID, PlayerAccount> entry : playerAccounts.entrySet()) {
+            long released = entry.getValue().reconcileHeldFunds(activeHolds.getOrDefault(entry.getKey(), 0L));
+            if (released > 0) {
+                LOGGER.info("玩家 {} 有 {} 金币冻结资金没有对应的拍卖或挂单，已退回余额", entry.getKey(), released);
+            }
+        }
+    }
+
     // 保存单个对象到文件
     private static void saveToFile(Object data, File file) throws IOException {
         try (FileWriter writer = new FileWriter(file)) {
@@ -23,7 +23,7 @@ public class EconomyStats {
         this.totalInterestPaid = 0;
         this.totalShopsCreated = 0;
         this.totalAuctionsCompleted = 0;
-        this.lastReset = LocalDateTime.now();
+        this.lastReset = EconomyClock.now();
     }
     
     // 添加交易统计
@@ -68,7 +68,7 @@ public class EconomyStats {
         totalInterestPaid = 0;
         totalShopsCreated = 0;
         totalAuctionsCompleted = 0;
-        lastReset = LocalDateTime.now();
+        lastReset = EconomyClock.now();
     }
     
     // 计算平均交易价值
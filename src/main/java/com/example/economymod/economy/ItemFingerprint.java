@@ -0,0 +1,238 @@
+package com.example.economymod.economy;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CollectionTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NumericTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 物品指纹 - 物品ID + 规范化NBT的128位哈希，作为商品和拍卖的精确匹配键
+// 规范化：复合标签按键名排序，空标签和耐久为0视为没有NBT，保证同样的物品不论NBT写入顺序都得到相同指纹
+public final class ItemFingerprint {
+    private static final long SEED_HIGH = 0xcbf29ce484222325L;
+    private static final long SEED_LOW = 0x9e3779b97f4a7c15L;
+    private static final long PRIME_HIGH = 0x100000001b3L;
+    private static final long PRIME_LOW = 0xff51afd7ed558ccdL;
+
+    // 显示和输入时使用的商品键前缀长度
+    public static final int SHORT_KEY_LENGTH = 6;
+
+    // 带NBT物品的指纹缓存（直接映射，按NBT标签对象的身份寻址），避免每次查找都重新遍历NBT
+    private static final int CACHE_SIZE = 1024;
+    private static final CacheEntry[] STACK_CACHE = new CacheEntry[CACHE_SIZE];
+
+    // 没有NBT的物品指纹只与物品本身有关
+    private static final Map<Item, ItemFingerprint> PLAIN_CACHE = new ConcurrentHashMap<>();
+
+    private final long high;
+    private final long low;
+    private String key; // 十六进制键（首次使用时生成）
+
+    private ItemFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    // 物品堆的指纹（优先使用缓存），用于查找匹配的商品
+    public static ItemFingerprint of(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        if (isPlain(tag)) {
+            return PLAIN_CACHE.computeIfAbsent(stack.getItem(), item -> compute(itemId(item), null));
+        }
+
+        // NBT可能被原地修改（耐久、附魔、显示名称、方块实体数据等），缓存项同时校验整个标签的内容哈希
+        int slot = System.identityHashCode(tag) & (CACHE_SIZE - 1);
+        CacheEntry entry = STACK_CACHE[slot];
+        if (entry != null && entry.matches(stack.getItem(), tag)) {
+            return entry.fingerprint;
+        }
+
+        ItemFingerprint fingerprint = compute(itemId(stack.getItem()), tag);
+        STACK_CACHE[slot] = new CacheEntry(stack.getItem(), tag, fingerprint);
+        return fingerprint;
+    }
+
+    // 不经缓存重新计算物品堆的指纹，用于上架等会把指纹持久化的场景
+    public static ItemFingerprint compute(ItemStack stack) {
+        return compute(itemId(stack.getItem()), stack.getTag());
+    }
+
+    // 按物品ID和NBT计算指纹
+    public static ItemFingerprint compute(String itemId, CompoundTag tag) {
+        Hasher hasher = new Hasher();
+        hasher.putString(itemId);
+        if (!isPlain(tag)) {
+            hasher.putCompound(tag, true);
+        }
+        return new ItemFingerprint(fmix(hasher.high), fmix(hasher.low ^ hasher.length));
+    }
+
+    // 只有名称的物品（旧数据、文本拍卖）：名称是物品ID时与该物品无NBT时的指纹相同
+    public static ItemFingerprint ofName(String itemName) {
+        return compute(normalizeId(itemName), null);
+    }
+
+    // 解析十六进制指纹，格式不正确时返回null
+    public static ItemFingerprint parse(String hex) {
+        if (hex == null || hex.length() != 32) return null;
+        try {
+            return new ItemFingerprint(Long.parseUnsignedLong(hex.substring(0, 16), 16),
+                    Long.parseUnsignedLong(hex.substring(16), 16));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // 十六进制键（32个字符），用作持久化和索引的键
+    public String toKey() {
+        String result = key;
+        if (result == null) {
+            result = String.format("%016x%016x", high, low);
+            key = result;
+        }
+        return result;
+    }
+
+    // 商品键前缀（用于区分同名物品）
+    public static String shortKey(String key) {
+        return key.length() > SHORT_KEY_LENGTH ? key.substring(0, SHORT_KEY_LENGTH) : key;
+    }
+
+    // 输入是否可能是商品键前缀
+    public static boolean isKeyPrefix(String input) {
+        if (input.length() < SHORT_KEY_LENGTH || input.length() > 32) return false;
+        for (int i = 0; i < input.length(); i++) {
+            if (Character.digit(input.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    // 补全省略的minecraft:命名空间并转为小写
+    public static String normalizeId(String itemName) {
+        String id = itemName.trim().toLowerCase(Locale.ROOT);
+        return id.contains(":") ? id : "minecraft:" + id;
+    }
+
+    public static String itemId(Item item) {
+        return BuiltInRegistries.ITEM.getKey(item).toString();
+    }
+
+    private static boolean isPlain(CompoundTag tag) {
+        if (tag == null || tag.isEmpty()) return true;
+        return tag.size() == 1 && tag.contains("Damage", Tag.TAG_INT) && tag.getInt("Damage") == 0;
+    }
+
+    // MurmurHash3的64位终结混合
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemFingerprint other)) return false;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high * 31 + low);
+    }
+
+    @Override
+    public String toString() {
+        return toKey();
+    }
+
+    // 两条独立的64位哈希通道，按规范顺序遍历NBT树
+    private static final class Hasher {
+        long high = SEED_HIGH;
+        long low = SEED_LOW;
+        long length;
+
+        void putLong(long value) {
+            high = (high ^ value) * PRIME_HIGH;
+            low = Long.rotateLeft(low ^ value, 31) * PRIME_LOW;
+            length++;
+        }
+
+        void putString(String value) {
+            putLong(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                putLong(value.charAt(i));
+            }
+        }
+
+        void putCompound(CompoundTag tag, boolean root) {
+            List<String> keys = new ArrayList<>(tag.getAllKeys());
+            Collections.sort(keys);
+            putLong(Tag.TAG_COMPOUND);
+            for (String key : keys) {
+                Tag value = tag.get(key);
+                // 根标签的耐久为0与没有耐久等价
+                if (root && key.equals("Damage") && value instanceof NumericTag numeric && numeric.getAsLong() == 0) {
+                    continue;
+                }
+                putString(key);
+                putTag(value);
+            }
+            putLong(-1);
+        }
+
+        void putTag(Tag tag) {
+            if (tag instanceof CompoundTag compound) {
+                putCompound(compound, false);
+                return;
+            }
+
+            putLong(tag.getId());
+            if (tag instanceof CollectionTag<?> collection) {
+                putLong(collection.size());
+                for (Tag element : collection) {
+                    putTag(element);
+                }
+            } else if (tag instanceof NumericTag numeric) {
+                byte type = tag.getId();
+                putLong(type == Tag.TAG_FLOAT || type == Tag.TAG_DOUBLE
+                        ? Double.doubleToLongBits(numeric.getAsDouble()) : numeric.getAsLong());
+            } else {
+                putString(tag.getAsString());
+            }
+        }
+    }
+
+    // 缓存项：NBT标签以弱引用保存，物品堆被丢弃后不会阻止回收
+    // 标签的hashCode递归覆盖所有嵌套内容，比规范化遍历和两路哈希便宜得多，用于发现原地修改
+    private static final class CacheEntry {
+        final Item item;
+        final WeakReference<CompoundTag> tag;
+        final int contentHash;
+        final ItemFingerprint fingerprint;
+
+        CacheEntry(Item item, CompoundTag tag, ItemFingerprint fingerprint) {
+            this.item = item;
+            this.tag = new WeakReference<>(tag);
+            this.contentHash = tag.hashCode();
+            this.fingerprint = fingerprint;
+        }
+
+        boolean matches(Item item, CompoundTag tag) {
+            return this.item == item && this.tag.get() == tag && contentHash == tag.hashCode();
+        }
+    }
+}
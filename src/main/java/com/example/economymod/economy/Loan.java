@@ -1,7 +1,6 @@
 package com.example.economymod.economy;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 // 贷款数据模型
@@ -12,6 +11,7 @@ public class Loan {
     private double interestRate;
     private LocalDateTime issueDate;
     private LocalDateTime dueDate;
+    private long dueMillis;
     private boolean isOverdue;
     private long totalRepaid;
     
@@ -20,8 +20,9 @@ public class Loan {
         this.originalAmount = amount;
         this.remainingAmount = calculateTotalWithInterest(amount, interestRate);
         this.interestRate = interestRate;
-        this.issueDate = LocalDateTime.now();
+        this.issueDate = EconomyClock.now();
         this.dueDate = issueDate.plusDays(termDays);
+        this.dueMillis = EconomyClock.millis() + termDays * EconomyClock.DAY_MILLIS;
         this.isOverdue = false;
         this.totalRepaid = 0;
     }
@@ -46,7 +47,7 @@ public class Loan {
     
     // 检查是否逾期
     public boolean checkOverdue() {
-        if (LocalDateTime.now().isAfter(dueDate) && !isFullyRepaid()) {
+        if (EconomyClock.millis() > getDueMillis() && !isFullyRepaid()) {
             isOverdue = true;
         }
         return isOverdue;
@@ -55,7 +56,7 @@ public class Loan {
     // 计算逾期天数
     public long getOverdueDays() {
         if (!checkOverdue()) return 0;
-        return ChronoUnit.DAYS.between(dueDate, LocalDateTime.now());
+        return (EconomyClock.millis() - getDueMillis()) / EconomyClock.DAY_MILLIS;
     }
     
     // 计算逾期罚金
@@ -71,7 +72,7 @@ public class Loan {
     // 计算剩余天数
     public long getRemainingDays() {
         if (isFullyRepaid()) return 0;
-        long days = ChronoUnit.DAYS.between(LocalDateTime.now(), dueDate);
+        long days = (getDueMillis() - EconomyClock.millis()) / EconomyClock.DAY_MILLIS;
         return Math.max(0, days);
     }
     
@@ -100,6 +101,14 @@ public class Loan {
         return dueDate;
     }
     
+    // 到期时间（毫秒），兼容没有保存该字段的旧数据
+    public long getDueMillis() {
+        if (dueMillis == 0 && dueDate != null) {
+            dueMillis = EconomyClock.toMillis(dueDate);
+        }
+        return dueMillis;
+    }
+    
     public boolean isOverdue() {
         return checkOverdue();
     }
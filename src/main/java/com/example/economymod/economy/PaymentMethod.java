@@ -0,0 +1,13 @@
+package com.example.economymod.economy;
+
+// 付款方式 - 钱包余额或背包中的实物硬币
+public interface PaymentMethod {
+    // 显示名称
+    String getName();
+
+    // 可用金额
+    long getAvailable();
+
+    // 扣款，金额不足时返回false且不修改任何数据
+    boolean pay(long amount);
+}
@@ -1,18 +1,23 @@
 package com.example.economymod.economy;
 
+import com.example.economymod.Config;
+
 import java.time.LocalDate;
 
 // 玩家账户数据模型
 public class PlayerAccount {
     private long balance;
+    private long heldBalance;       // 拍卖托管冻结的资金
     private LocalDate lastLogin;
     private boolean dailyRewardClaimed;
+    private long rewardTradingDay = Long.MIN_VALUE;
     private long totalEarned;
     private long totalSpent;
+    private boolean payWithCash;    // 转账和购物时使用背包中的硬币付款
     
     public PlayerAccount() {
         this.balance = 0;
-        this.lastLogin = LocalDate.now();
+        this.lastLogin = EconomyClock.today();
         this.dailyRewardClaimed = false;
         this.totalEarned = 0;
         this.totalSpent = 0;
@@ -43,15 +48,69 @@ public class PlayerAccount {
         this.balance = Math.max(0, balance);
     }
     
+    // 托管相关（冻结的资金不计入可用余额）
+    public long getHeldBalance() {
+        return heldBalance;
+    }
+    
+    // 冻结资金
+    public boolean holdFunds(long amount) {
+        if (amount > 0 && balance >= amount) {
+            balance -= amount;
+            heldBalance += amount;
+            return true;
+        }
+        return false;
+    }
+    
+    // 解冻资金，返回实际解冻的金额
+    public long releaseFunds(long amount) {
+        long released = Math.min(Math.max(0, amount), heldBalance);
+        heldBalance -= released;
+        balance += released;
+        return released;
+    }
+    
+    // 从冻结资金中支付
+    public boolean spendHeldFunds(long amount) {
+        if (amount > 0 && heldBalance >= amount) {
+            heldBalance -= amount;
+            totalSpent += amount;
+            return true;
+        }
+        return false;
+    }
+    
+    // 把冻结资金校正为仍然有效的托管总额，多出的部分退回可用余额，返回退回的金额
+    public long reconcileHeldFunds(long activeHolds) {
+        if (heldBalance <= activeHolds) return 0;
+        long released = heldBalance - activeHolds;
+        heldBalance = activeHolds;
+        balance += released;
+        return released;
+    }
+    
     // 每日奖励相关
+    // 旧数据没有交易日字段，按旧规则（领取后lastLogin为领取日期）把上次领取日期迁移为交易日：
+    // 使用现实日期时交易日就是日期编号；跟随Minecraft昼夜时只能确定今天领过的属于当前交易日
+    void migrateRewardTradingDay() {
+        if (rewardTradingDay != Long.MIN_VALUE || !dailyRewardClaimed || lastLogin == null) return;
+        if (lastLogin.equals(EconomyClock.today())) {
+            rewardTradingDay = EconomyClock.tradingDay();
+        } else if (!Config.minecraftTradingDays) {
+            rewardTradingDay = lastLogin.toEpochDay();
+        }
+    }
+    
     public boolean hasClaimedDailyReward() {
-        return dailyRewardClaimed && lastLogin.equals(LocalDate.now());
+        return dailyRewardClaimed && rewardTradingDay == EconomyClock.tradingDay();
     }
     
     public void setDailyRewardClaimed(boolean claimed) {
         this.dailyRewardClaimed = claimed;
         if (claimed) {
-            this.lastLogin = LocalDate.now();
+            this.lastLogin = EconomyClock.today();
+            this.rewardTradingDay = EconomyClock.tradingDay();
         }
     }
     
@@ -68,15 +127,24 @@ public class PlayerAccount {
         return totalEarned - totalSpent;
     }
     
+    // 付款方式
+    public boolean isPayWithCash() {
+        return payWithCash;
+    }
+    
+    public void setPayWithCash(boolean payWithCash) {
+        this.payWithCash = payWithCash;
+    }
+    
     // 登录相关
     public LocalDate getLastLogin() {
         return lastLogin;
     }
     
     public void updateLastLogin() {
-        this.lastLogin = LocalDate.now();
+        this.lastLogin = EconomyClock.today();
         // 如果是新的一天，重置每日奖励状态
-        if (!dailyRewardClaimed || !lastLogin.equals(LocalDate.now())) {
+        if (!dailyRewardClaimed || rewardTradingDay != EconomyClock.tradingDay()) {
             this.dailyRewardClaimed = false;
         }
     }
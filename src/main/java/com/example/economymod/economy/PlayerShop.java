@@ -1,21 +1,44 @@
 package com.example.economymod.economy;
 
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.TagParser;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 // 玩家商店数据模型
 public class PlayerShop {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlayerShop.class);
+    
     private String shopName;
     private UUID ownerId;
     private String ownerName;
-    private Map<String, ShopItem> items;
+    private Map<String, ShopItem> items; // 物品指纹 -> 商品
     private long totalRevenue;
     private long totalSales;
     private boolean isOpen;
     private String description;
+    private ShopSalesStats salesStats; // 分时段销售统计
+    private transient ShopIndex index; // 全服商品索引（商品变化时同步更新）
+    
+    // 已加载的实物库存来源（商店库存箱）及其按物品指纹汇总的库存数量
+    private transient Set<ShopStockSource> stockSources;
+    private transient Map<String, Integer> containerStock;
     
     public PlayerShop(String shopName, UUID ownerId, String ownerName) {
         this.shopName = shopName;
@@ -26,62 +49,197 @@ public class PlayerShop {
         this.totalSales = 0;
         this.isOpen = true;
         this.description = "欢迎来到我的商店！";
+        this.salesStats = new ShopSalesStats();
     }
     
-    // 添加商品
-    public void addItem(String itemName, long price, int quantity) {
-        ShopItem shopItem = items.get(itemName);
+    // 上架物品堆，相同指纹（物品ID和NBT都相同）的物品合并为一个商品，返回商品键
+    public String addItem(ItemStack stack, long price) {
+        ShopItem template = ShopItem.fromStack(stack, price, stack.getCount());
+        ShopItem shopItem = items.get(template.getItemKey());
+        if (shopItem != null) {
+            shopItem.addQuantity(template.getQuantity());
+            shopItem.recordSupply(template.getQuantity());
+        } else {
+            items.put(template.getItemKey(), template);
+        }
+        notifyIndex(template.getItemKey());
+        return template.getItemKey();
+    }
+    
+    // 以库存箱中的实物出售手持物品对应的商品（不消耗手持物品），返回商品键
+    public String addStockedItem(ItemStack stack, long price) {
+        ShopItem template = ShopItem.fromStack(stack, price, 0);
+        ShopItem shopItem = items.get(template.getItemKey());
+        if (shopItem != null) {
+            shopItem.setPrice(price);
+            shopItem.setStocked(true);
+        } else {
+            template.setStocked(true);
+            items.put(template.getItemKey(), template);
+        }
+        notifyIndex(template.getItemKey());
+        return template.getItemKey();
+    }
+    
+    // 上架没有NBT的物品
+    public String addItem(String itemId, long price, int quantity) {
+        String normalizedId = ItemFingerprint.normalizeId(itemId);
+        String itemKey = ItemFingerprint.ofName(normalizedId).toKey();
+        ShopItem shopItem = items.get(itemKey);
         if (shopItem != null) {
             shopItem.addQuantity(quantity);
+            shopItem.recordSupply(quantity);
         } else {
-            items.put(itemName, new ShopItem(itemName, price, quantity));
+            items.put(itemKey, new ShopItem(itemKey, normalizedId, normalizedId, null, price, quantity));
         }
+        notifyIndex(itemKey);
+        return itemKey;
     }
     
     // 移除商品
-    public boolean removeItem(String itemName, int quantity) {
-        ShopItem shopItem = items.get(itemName);
+    public boolean removeItem(String itemKey, int quantity) {
+        ShopItem shopItem = items.get(itemKey);
         if (shopItem != null) {
             boolean removed = shopItem.removeQuantity(quantity);
-            if (shopItem.getQuantity() <= 0) {
-                items.remove(itemName);
+            if (shopItem.getQuantity() <= 0 && !shopItem.isStocked()) {
+                items.remove(itemKey);
             }
+            notifyIndex(itemKey);
             return removed;
         }
         return false;
     }
     
-    // 购买商品
-    public boolean purchaseItem(String itemName, int quantity, UUID buyerId) {
-        ShopItem shopItem = items.get(itemName);
-        if (shopItem != null && shopItem.getQuantity() >= quantity) {
-            long totalCost = shopItem.getPrice() * quantity;
-            
-            // 扣除商品数量
-            shopItem.removeQuantity(quantity);
-            if (shopItem.getQuantity() <= 0) {
-                items.remove(itemName);
+    // 下架商品（库存箱中的实物保留在库存箱中），返回被下架的商品
+    public ShopItem delistItem(String itemKey) {
+        ShopItem shopItem = items.remove(itemKey);
+        if (shopItem != null) {
+            notifyIndex(itemKey);
+        }
+        return shopItem;
+    }
+    
+    // 购买商品（先扣除上架数量，不足部分从库存箱中取出），库存不足时不修改任何数据
+    public boolean purchaseItem(String itemKey, int quantity, UUID buyerId) {
+        StockWithdrawal withdrawal = withdrawStock(itemKey, quantity);
+        if (withdrawal == null) return false;
+        
+        completePurchase(withdrawal);
+        return true;
+    }
+    
+    // 取出要出售的商品：先扣除上架数量，不足部分从库存箱中取出；
+    // 库存箱的缓存数量可能多于实际数量，实际取出不足时放回已取出的部分并返回null
+    public StockWithdrawal withdrawStock(String itemKey, int quantity) {
+        ShopItem shopItem = items.get(itemKey);
+        if (shopItem == null || quantity <= 0 || getAvailableQuantity(itemKey) < quantity) return null;
+        
+        StockWithdrawal withdrawal = new StockWithdrawal(itemKey, quantity);
+        withdrawal.fromListing = Math.min(quantity, shopItem.getQuantity());
+        shopItem.removeQuantity(withdrawal.fromListing);
+        int remaining = quantity - withdrawal.fromListing;
+        for (ShopStockSource source : new ArrayList<>(getStockSources())) {
+            if (remaining <= 0) break;
+            for (ItemStack stack : source.extract(itemKey, remaining)) {
+                withdrawal.extracted.add(new ExtractedStack(source, stack));
+                remaining -= stack.getCount();
             }
-            
-            // 增加收入统计
-            totalRevenue += totalCost;
-            totalSales++;
-            
-            return true;
         }
-        return false;
+        
+        if (remaining > 0) {
+            rollback(withdrawal);
+            return null;
+        }
+        return withdrawal;
     }
     
-    // 更新商品价格
-    public boolean updatePrice(String itemName, long newPrice) {
-        ShopItem shopItem = items.get(itemName);
+    // 撤销取出：恢复上架数量，把取出的实物放回原库存箱
+    public void rollback(StockWithdrawal withdrawal) {
+        ShopItem shopItem = items.get(withdrawal.itemKey);
         if (shopItem != null) {
+            shopItem.addQuantity(withdrawal.fromListing);
+        }
+        int lost = 0;
+        for (ExtractedStack extracted : withdrawal.extracted) {
+            lost += extracted.source.restore(extracted.stack).getCount();
+        }
+        if (lost > 0) {
+            LOGGER.warn("商店 {} 回滚出售时有 {} 个物品无法放回库存箱", shopName, lost);
+        }
+        withdrawal.extracted.clear();
+        notifyIndex(withdrawal.itemKey);
+    }
+    
+    // 完成出售：商品已由withdrawStock取出，记录需求和销售统计
+    public void completePurchase(StockWithdrawal withdrawal) {
+        String itemKey = withdrawal.itemKey;
+        int quantity = withdrawal.quantity;
+        ShopItem shopItem = items.get(itemKey);
+        if (shopItem == null) return;
+        
+        long totalCost = shopItem.getPrice() * quantity;
+        if (shopItem.getQuantity() <= 0 && !shopItem.isStocked()) {
+            items.remove(itemKey);
+        }
+        
+        if (shopItem.getDynamicPrice() != null) {
+            shopItem.getDynamicPrice().recordDemand(quantity, EconomyClock.millis());
+        }
+        
+        // 增加收入统计
+        totalRevenue += totalCost;
+        totalSales++;
+        getSalesStats().record(itemKey, shopItem.getItemName(), totalCost, quantity, EconomyClock.millis());
+        
+        notifyIndex(itemKey);
+    }
+    
+    // 更新商品价格（启用动态定价的商品同时作为新的基准价）
+    public boolean updatePrice(String itemKey, long newPrice) {
+        ShopItem shopItem = items.get(itemKey);
+        if (shopItem != null) {
+            DynamicPrice dynamicPrice = shopItem.getDynamicPrice();
+            if (dynamicPrice != null) {
+                dynamicPrice.setBasePrice(newPrice);
+                newPrice = dynamicPrice.computePrice(EconomyClock.millis());
+            }
             shopItem.setPrice(newPrice);
+            notifyIndex(itemKey);
             return true;
         }
         return false;
     }
     
+    // 应用定价引擎计算出的价格
+    void applyDynamicPrice(String itemKey, long newPrice) {
+        ShopItem shopItem = items.get(itemKey);
+        if (shopItem != null) {
+            shopItem.setPrice(newPrice);
+            notifyIndex(itemKey);
+        }
+    }
+    
+    // 按输入查找商品：完整商品键、商品键前缀、物品名或物品ID（可省略minecraft:）
+    public List<ShopItem> findItems(String input) {
+        String query = input.trim().toLowerCase(Locale.ROOT);
+        ShopItem exact = items.get(query);
+        if (exact != null) {
+            return List.of(exact);
+        }
+        
+        String itemId = ItemFingerprint.normalizeId(query);
+        boolean keyPrefix = ItemFingerprint.isKeyPrefix(query);
+        List<ShopItem> matches = new ArrayList<>();
+        for (Map.Entry<String, ShopItem> entry : items.entrySet()) {
+            ShopItem item = entry.getValue();
+            if ((keyPrefix && entry.getKey().startsWith(query))
+                    || item.getItemName().equalsIgnoreCase(query) || item.getItemId().equals(itemId)) {
+                matches.add(item);
+            }
+        }
+        return matches;
+    }
+    
     // Getter和Setter方法
     public String getShopName() {
         return shopName;
@@ -111,12 +269,33 @@ public class PlayerShop {
         return totalSales;
     }
     
+    public ShopSalesStats getSalesStats() {
+        // 旧数据中没有销售统计
+        if (salesStats == null) {
+            salesStats = new ShopSalesStats();
+        }
+        return salesStats;
+    }
+    
+    // 加载后把旧数据中按物品名记录的商品统计迁移到物品指纹
+    void migrateSalesStats() {
+        if (salesStats == null) return;
+        Map<String, String> nameToKey = new HashMap<>();
+        for (Map.Entry<String, ShopItem> entry : items.entrySet()) {
+            nameToKey.putIfAbsent(entry.getValue().getItemName(), entry.getKey());
+        }
+        salesStats.migrateLegacyItems(nameToKey);
+    }
+    
     public boolean isOpen() {
         return isOpen;
     }
     
     public void setOpen(boolean open) {
         isOpen = open;
+        if (index != null) {
+            index.updateShop(this);
+        }
     }
     
     public String getDescription() {
@@ -133,31 +312,225 @@ public class PlayerShop {
     }
     
     // 检查是否有特定商品
-    public boolean hasItem(String itemName) {
-        return items.containsKey(itemName) && items.get(itemName).getQuantity() > 0;
+    public boolean hasItem(String itemKey) {
+        return items.containsKey(itemKey) && getAvailableQuantity(itemKey) > 0;
+    }
+    
+    // 可售数量：上架数量加上已加载库存箱中的数量
+    public int getAvailableQuantity(String itemKey) {
+        ShopItem shopItem = items.get(itemKey);
+        if (shopItem == null) return 0;
+        return shopItem.getQuantity() + (shopItem.isStocked() ? getContainerStock(itemKey) : 0);
+    }
+    
+    // 已加载库存箱中某物品的数量（缓存值，不扫描库存箱）
+    public int getContainerStock(String itemKey) {
+        return containerStock != null ? containerStock.getOrDefault(itemKey, 0) : 0;
+    }
+    
+    // 连接库存来源（库存箱加载或绑定到商店时调用）：箱中已有的物品不是新补的货，不计入供给
+    public void attachStockSource(ShopStockSource source) {
+        if (!getStockSources().add(source)) return;
+        for (Map.Entry<String, Integer> entry : source.getStockCounts().entrySet()) {
+            adjustContainerStock(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    // 断开库存来源（库存箱卸载、被破坏或解除绑定时调用）
+    public void detachStockSource(ShopStockSource source) {
+        if (stockSources == null || !stockSources.remove(source)) return;
+        for (Map.Entry<String, Integer> entry : source.getStockCounts().entrySet()) {
+            adjustContainerStock(entry.getKey(), -entry.getValue());
+        }
+    }
+    
+    // 库存来源中某物品的数量变化（由库存箱的内容变化监听调用，O(1)），restocked为其中真正补货的数量
+    public void onStockChanged(String itemKey, int delta, int restocked) {
+        ShopItem shopItem = adjustContainerStock(itemKey, delta);
+        if (shopItem != null && restocked > 0) {
+            shopItem.recordSupply(restocked);
+        }
+    }
+    
+    // 更新库存箱数量缓存，返回受影响的库存箱商品（没有时返回null）
+    private ShopItem adjustContainerStock(String itemKey, int delta) {
+        if (delta == 0) return null;
+        if (containerStock == null) {
+            containerStock = new HashMap<>();
+        }
+        containerStock.merge(itemKey, delta, (a, b) -> a + b == 0 ? null : a + b);
+        
+        ShopItem shopItem = items.get(itemKey);
+        if (shopItem == null || !shopItem.isStocked()) return null;
+        notifyIndex(itemKey);
+        return shopItem;
+    }
+    
+    private Set<ShopStockSource> getStockSources() {
+        if (stockSources == null) {
+            stockSources = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+        return stockSources;
     }
     
     // 获取商品信息
-    public ShopItem getItem(String itemName) {
-        return items.get(itemName);
+    public ShopItem getItem(String itemKey) {
+        return items.get(itemKey);
+    }
+    
+    // 将旧数据中以物品名为键的商品改为以物品指纹为键（加载后调用）
+    void normalizeItemKeys() {
+        Map<String, ShopItem> normalized = new HashMap<>();
+        for (ShopItem item : items.values()) {
+            item.normalizeKey();
+            ShopItem existing = normalized.putIfAbsent(item.getItemKey(), item);
+            if (existing != null) {
+                existing.addQuantity(item.getQuantity());
+            }
+        }
+        items = normalized;
+    }
+    
+    // 关联全服商品索引（创建或加载商店后调用）
+    void attachIndex(ShopIndex index) {
+        this.index = index;
+    }
+    
+    private void notifyIndex(String itemKey) {
+        if (index != null) {
+            index.update(this, itemKey);
+        }
     }
     
     // 商品内部类
+    // 一次出售取出的商品（结算失败时可回滚）
+    public static class StockWithdrawal {
+        private final String itemKey;
+        private final int quantity;
+        private int fromListing;    // 从上架数量中扣除的部分
+        private final List<ExtractedStack> extracted = new ArrayList<>();
+        
+        StockWithdrawal(String itemKey, int quantity) {
+            this.itemKey = itemKey;
+            this.quantity = quantity;
+        }
+        
+        public String getItemKey() { return itemKey; }
+        public int getQuantity() { return quantity; }
+    }
+    
+    // 从某个库存箱取出的物品堆
+    private static class ExtractedStack {
+        final ShopStockSource source;
+        final ItemStack stack;
+        
+        ExtractedStack(ShopStockSource source, ItemStack stack) {
+            this.source = source;
+            this.stack = stack;
+        }
+    }
+    
     public static class ShopItem {
-        private String itemName;
+        private String itemKey;     // 物品指纹
+        private String itemName;    // 显示名称（自定义名称或物品ID）
+        private String itemId;      // 物品注册ID
+        private String nbt;         // 规范化前的原始NBT（SNBT格式），没有NBT时为空
         private long price;
-        private int quantity;
+        private int quantity;       // 上架数量（不含库存箱中的实物）
+        private boolean stocked;    // 是否出售库存箱中的实物
+        private DynamicPrice dynamicPrice; // 动态定价状态，未启用时为空
         
-        public ShopItem(String itemName, long price, int quantity) {
+        public ShopItem(String itemKey, String itemName, String itemId, String nbt, long price, int quantity) {
+            this.itemKey = itemKey;
             this.itemName = itemName;
+            this.itemId = itemId;
+            this.nbt = nbt;
             this.price = price;
             this.quantity = quantity;
         }
         
+        // 根据物品堆创建商品
+        public static ShopItem fromStack(ItemStack stack, long price, int quantity) {
+            String itemId = ItemFingerprint.itemId(stack.getItem());
+            String itemName = stack.hasCustomHoverName() ? stack.getHoverName().getString() : itemId;
+            CompoundTag tag = stack.getTag();
+            return new ShopItem(ItemFingerprint.compute(stack).toKey(), itemName, itemId,
+                    tag != null && !tag.isEmpty() ? tag.toString() : null, price, quantity);
+        }
+        
+        // 按商品的物品ID和NBT创建物品堆，物品不存在时返回空物品堆
+        public ItemStack createStack(int count) {
+            ResourceLocation id = ResourceLocation.tryParse(getItemId());
+            Item item = id != null ? BuiltInRegistries.ITEM.get(id) : Items.AIR;
+            if (item == Items.AIR || count <= 0) {
+                return ItemStack.EMPTY;
+            }
+            
+            ItemStack stack = new ItemStack(item, count);
+            if (nbt != null) {
+                try {
+                    stack.setTag(TagParser.parseTag(nbt));
+                } catch (CommandSyntaxException e) {
+                    // NBT损坏时退回没有NBT的物品
+                }
+            }
+            return stack;
+        }
+        
+        // 旧数据没有物品指纹，按物品名作为物品ID补全
+        void normalizeKey() {
+            if (itemId == null) {
+                itemId = ItemFingerprint.normalizeId(itemName);
+            }
+            if (ItemFingerprint.parse(itemKey) == null) {
+                itemKey = ItemFingerprint.ofName(itemId).toKey();
+            }
+        }
+        
+        public String getItemKey() {
+            return itemKey;
+        }
+        
         public String getItemName() {
             return itemName;
         }
         
+        // 带NBT的物品在名称后附上商品键前缀，用于区分同名物品
+        public String getDisplayName() {
+            return nbt != null ? itemName + " [" + ItemFingerprint.shortKey(itemKey) + "]" : itemName;
+        }
+        
+        public String getItemId() {
+            return itemId != null ? itemId : ItemFingerprint.normalizeId(itemName);
+        }
+        
+        public boolean hasNbt() {
+            return nbt != null;
+        }
+        
+        public DynamicPrice getDynamicPrice() {
+            return dynamicPrice;
+        }
+        
+        public void setDynamicPrice(DynamicPrice dynamicPrice) {
+            this.dynamicPrice = dynamicPrice;
+        }
+        
+        // 记录补货（只在启用动态定价时计数）
+        void recordSupply(int quantity) {
+            if (dynamicPrice != null && quantity > 0) {
+                dynamicPrice.recordSupply(quantity, EconomyClock.millis());
+            }
+        }
+        
+        public boolean isStocked() {
+            return stocked;
+        }
+        
+        public void setStocked(boolean stocked) {
+            this.stocked = stocked;
+        }
+        
         public long getPrice() {
             return price;
         }
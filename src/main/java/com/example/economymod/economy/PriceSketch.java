@@ -0,0 +1,178 @@
+package com.example.economymod.economy;
+
+import java.util.Arrays;
+
+// 价格分布摘要 - 合并式t-digest，用固定数量的质心近似价格分布
+// 内存占用只与压缩参数有关，与记录的价格数量无关，多个摘要可以合并
+public class PriceSketch {
+    private static final int DEFAULT_COMPRESSION = 100;
+
+    private int compression;    // 压缩参数，越大越精确
+    private double[] means;     // 质心均值（按升序排列）
+    private long[] weights;     // 质心权重
+    private int centroidCount;  // 已合并的质心数量
+    private long count;         // 记录的价格总数
+    private double min;         // 最低价格
+    private double max;         // 最高价格
+
+    // 未合并的新价格，攒满后统一合并（不保存，保存前需先调用flush）
+    private transient double[] bufferMeans;
+    private transient long[] bufferWeights;
+    private transient int bufferCount;
+
+    public PriceSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public PriceSketch(int compression) {
+        this.compression = Math.max(20, compression);
+        this.means = new double[0];
+        this.weights = new long[0];
+    }
+
+    // 记录一个价格
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double value, long weight) {
+        ensureBuffer();
+        if (bufferCount == bufferMeans.length) {
+            flush();
+        }
+        bufferMeans[bufferCount] = value;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+
+        min = count == 0 ? value : Math.min(min, value);
+        max = count == 0 ? value : Math.max(max, value);
+        count += weight;
+    }
+
+    // 合并另一个摘要
+    public void merge(PriceSketch other) {
+        other.flush();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        // 质心均值不一定等于原始的最低/最高价格
+        if (other.count > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    // 估算分位数（q在0到1之间）
+    public double quantile(double q) {
+        flush();
+        if (centroidCount == 0) return Double.NaN;
+        if (centroidCount == 1) return means[0];
+
+        q = Math.max(0, Math.min(1, q));
+        double target = q * count;
+
+        // 目标落在第一个质心中心之前，在最低价格和第一个质心之间插值
+        double firstCenter = weights[0] / 2.0;
+        if (target < firstCenter) {
+            return min + (means[0] - min) * (target / firstCenter);
+        }
+
+        double cumulative = 0;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double center = cumulative + weights[i] / 2.0;
+            double nextCenter = cumulative + weights[i] + weights[i + 1] / 2.0;
+            if (target < nextCenter) {
+                double fraction = (target - center) / (nextCenter - center);
+                return means[i] + (means[i + 1] - means[i]) * fraction;
+            }
+            cumulative += weights[i];
+        }
+
+        // 目标落在最后一个质心中心之后，在最后一个质心和最高价格之间插值
+        int last = centroidCount - 1;
+        double lastCenter = count - weights[last] / 2.0;
+        double fraction = (target - lastCenter) / (weights[last] / 2.0);
+        return means[last] + (max - means[last]) * Math.min(1, fraction);
+    }
+
+    // 将缓冲区合并进质心（保存前也需要调用）
+    public void flush() {
+        if (bufferCount == 0) return;
+
+        int total = centroidCount + bufferCount;
+        double[] allMeans = new double[total];
+        long[] allWeights = new long[total];
+        System.arraycopy(means, 0, allMeans, 0, centroidCount);
+        System.arraycopy(weights, 0, allWeights, 0, centroidCount);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+        bufferCount = 0;
+
+        // 按均值排序
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double[] mergedMeans = new double[total];
+        long[] mergedWeights = new long[total];
+        int merged = 0;
+
+        double totalWeight = count;
+        double weightSoFar = 0;
+        double currentMean = allMeans[order[0]];
+        long currentWeight = allWeights[order[0]];
+        double weightLimit = totalWeight * limitQuantile(0);
+
+        for (int i = 1; i < total; i++) {
+            double mean = allMeans[order[i]];
+            long weight = allWeights[order[i]];
+
+            if (weightSoFar + currentWeight + weight <= weightLimit) {
+                // 合并到当前质心
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                mergedMeans[merged] = currentMean;
+                mergedWeights[merged] = currentWeight;
+                merged++;
+
+                weightSoFar += currentWeight;
+                weightLimit = totalWeight * limitQuantile(weightSoFar / totalWeight);
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        mergedMeans[merged] = currentMean;
+        mergedWeights[merged] = currentWeight;
+        merged++;
+
+        means = Arrays.copyOf(mergedMeans, merged);
+        weights = Arrays.copyOf(mergedWeights, merged);
+        centroidCount = merged;
+    }
+
+    // 刻度函数 k(q) = δ/(2π)·asin(2q-1)，每个质心最多跨越一个刻度单位，两端的质心更小更精确
+    private double limitQuantile(double q) {
+        double normalizer = compression / (2 * Math.PI);
+        double k = normalizer * Math.asin(2 * q - 1) + 1;
+        if (k >= normalizer * Math.PI / 2) return 1;
+        return (Math.sin(k / normalizer) + 1) / 2;
+    }
+
+    private void ensureBuffer() {
+        if (bufferMeans == null) {
+            bufferMeans = new double[compression * 4];
+            bufferWeights = new long[compression * 4];
+        }
+        // 从旧数据加载时数组可能为空
+        if (means == null) {
+            means = new double[0];
+            weights = new long[0];
+        }
+    }
+
+    public long getCount() { return count; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public int getCentroidCount() { flush(); return centroidCount; }
+}
@@ -0,0 +1,15 @@
+package com.example.economymod.economy;
+
+// 系统商店 - 价格表由数据包定义，重新加载时原子替换，读取不加锁
+public class ServerShop {
+    private static volatile ServerShopCatalog catalog = ServerShopCatalog.EMPTY;
+
+    // 当前价格表；一次操作应只读取一次并一直使用同一个快照
+    public static ServerShopCatalog getCatalog() {
+        return catalog;
+    }
+
+    static void setCatalog(ServerShopCatalog newCatalog) {
+        catalog = newCatalog;
+    }
+}
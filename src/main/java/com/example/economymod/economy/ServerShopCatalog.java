@@ -0,0 +1,186 @@
+package com.example.economymod.economy;
+
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.TagParser;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// 系统商店价格表 - 从数据包加载后不可变，按下标存放在并列数组中，读取时不需要加锁
+// 重新加载时构建新的价格表整体替换，正在使用旧表的命令仍然读到一致的价格
+public final class ServerShopCatalog {
+    public static final long NOT_TRADED = -1; // 不买入或不出售
+
+    public static final ServerShopCatalog EMPTY = new Builder().build();
+
+    private final String[] itemKeys;    // 物品指纹
+    private final String[] itemIds;
+    private final String[] nbts;        // SNBT，没有NBT时为空
+    private final String[] names;       // 显示名称
+    private final long[] buyPrices;     // 玩家向系统购买的单价
+    private final long[] sellPrices;    // 系统向玩家收购的单价
+    private final Map<String, Integer> slotsByKey;
+    private final Map<String, Integer> slotsByName; // 小写名称/物品ID -> 下标（同名时取先加载的）
+    private final int[] nameOrder;      // 按名称排序的下标
+
+    private ServerShopCatalog(Builder builder) {
+        int size = builder.entries.size();
+        this.itemKeys = new String[size];
+        this.itemIds = new String[size];
+        this.nbts = new String[size];
+        this.names = new String[size];
+        this.buyPrices = new long[size];
+        this.sellPrices = new long[size];
+
+        Map<String, Integer> byKey = new HashMap<>();
+        Map<String, Integer> byName = new HashMap<>();
+        int slot = 0;
+        for (Entry entry : builder.entries.values()) {
+            itemKeys[slot] = entry.itemKey;
+            itemIds[slot] = entry.itemId;
+            nbts[slot] = entry.nbt;
+            names[slot] = entry.name;
+            buyPrices[slot] = entry.buyPrice;
+            sellPrices[slot] = entry.sellPrice;
+            byKey.put(entry.itemKey, slot);
+            byName.putIfAbsent(entry.name.toLowerCase(Locale.ROOT), slot);
+            if (entry.nbt == null) {
+                byName.putIfAbsent(entry.itemId, slot);
+            }
+            slot++;
+        }
+        this.slotsByKey = Map.copyOf(byKey);
+        this.slotsByName = Map.copyOf(byName);
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> names[a].compareToIgnoreCase(names[b]));
+        this.nameOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            nameOrder[i] = order[i];
+        }
+    }
+
+    public int size() {
+        return itemKeys.length;
+    }
+
+    // 按物品指纹查找下标，不存在时返回-1
+    public int indexOf(String itemKey) {
+        Integer slot = slotsByKey.get(itemKey);
+        return slot != null ? slot : -1;
+    }
+
+    // 按玩家输入查找：完整指纹、名称、物品ID、唯一的指纹前缀
+    public int resolve(String input) {
+        String query = input.trim().toLowerCase(Locale.ROOT);
+        int slot = indexOf(query);
+        if (slot >= 0) return slot;
+
+        Integer named = slotsByName.get(query);
+        if (named != null) return named;
+        named = slotsByName.get(ItemFingerprint.normalizeId(query));
+        if (named != null) return named;
+
+        if (!ItemFingerprint.isKeyPrefix(query)) return -1;
+        int found = -1;
+        for (int i = 0; i < itemKeys.length; i++) {
+            if (itemKeys[i].startsWith(query)) {
+                if (found >= 0) return -1; // 前缀不唯一
+                found = i;
+            }
+        }
+        return found;
+    }
+
+    public String getItemKey(int slot) { return itemKeys[slot]; }
+    public String getItemId(int slot) { return itemIds[slot]; }
+    public long getBuyPrice(int slot) { return buyPrices[slot]; }
+    public long getSellPrice(int slot) { return sellPrices[slot]; }
+    public boolean isSold(int slot) { return buyPrices[slot] != NOT_TRADED; }
+    public boolean isBought(int slot) { return sellPrices[slot] != NOT_TRADED; }
+
+    // 显示名称（带NBT的商品附加商品编号）
+    public String getDisplayName(int slot) {
+        return nbts[slot] != null ? names[slot] + " [" + ItemFingerprint.shortKey(itemKeys[slot]) + "]" : names[slot];
+    }
+
+    public ItemStack createStack(int slot, int count) {
+        ResourceLocation id = ResourceLocation.tryParse(itemIds[slot]);
+        Item item = id != null ? BuiltInRegistries.ITEM.get(id) : Items.AIR;
+        if (item == Items.AIR || count <= 0) {
+            return ItemStack.EMPTY;
+        }
+
+        ItemStack stack = new ItemStack(item, count);
+        if (nbts[slot] != null) {
+            try {
+                stack.setTag(TagParser.parseTag(nbts[slot]));
+            } catch (CommandSyntaxException e) {
+                // 加载时已校验过NBT
+            }
+        }
+        return stack;
+    }
+
+    // 按名称排序的一页下标
+    public int[] page(int page, int pageSize) {
+        int from = Math.max(0, page * pageSize);
+        int to = Math.min(nameOrder.length, from + pageSize);
+        return from < to ? Arrays.copyOfRange(nameOrder, from, to) : new int[0];
+    }
+
+    // 价格表构建器（在重新加载线程中使用）
+    public static class Builder {
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        // 添加商品，同一物品（指纹相同）以后添加的为准；NBT无法解析时抛出异常
+        public Builder add(String itemId, String nbt, String name, long buyPrice, long sellPrice) throws CommandSyntaxException {
+            String normalizedId = ItemFingerprint.normalizeId(itemId);
+            CompoundTag tag = nbt != null && !nbt.isBlank() ? TagParser.parseTag(nbt) : null;
+            String itemKey = ItemFingerprint.compute(normalizedId, tag).toKey();
+            String snbt = tag != null && !tag.isEmpty() ? tag.toString() : null;
+            String displayName = name != null && !name.isBlank() ? name : normalizedId;
+            entries.put(itemKey, new Entry(itemKey, normalizedId, snbt, displayName,
+                    Math.max(NOT_TRADED, buyPrice), Math.max(NOT_TRADED, sellPrice)));
+            return this;
+        }
+
+        public int size() {
+            return entries.size();
+        }
+
+        public ServerShopCatalog build() {
+            return new ServerShopCatalog(this);
+        }
+    }
+
+    private static class Entry {
+        final String itemKey;
+        final String itemId;
+        final String nbt;
+        final String name;
+        final long buyPrice;
+        final long sellPrice;
+
+        Entry(String itemKey, String itemId, String nbt, String name, long buyPrice, long sellPrice) {
+            this.itemKey = itemKey;
+            this.itemId = itemId;
+            this.nbt = nbt;
+            this.name = name;
+            this.buyPrice = buyPrice;
+            this.sellPrice = sellPrice;
+        }
+    }
+}
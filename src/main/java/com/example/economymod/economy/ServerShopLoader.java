@@ -0,0 +1,67 @@
+package com.example.economymod.economy;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.FileToIdConverter;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.GsonHelper;
+import net.minecraft.util.profiling.ProfilerFiller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Reader;
+import java.util.Map;
+
+// 系统商店数据包加载器 - 读取 data/<命名空间>/server_shop/*.json
+// 在重新加载线程中解析并构建价格表，应用阶段只替换引用
+public class ServerShopLoader extends SimplePreparableReloadListener<ServerShopCatalog> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerShopLoader.class);
+    private static final FileToIdConverter LISTER = FileToIdConverter.json("server_shop");
+
+    @Override
+    protected ServerShopCatalog prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
+        ServerShopCatalog.Builder builder = new ServerShopCatalog.Builder();
+        for (Map.Entry<ResourceLocation, Resource> file : LISTER.listMatchingResources(resourceManager).entrySet()) {
+            try (Reader reader = file.getValue().openAsReader()) {
+                JsonObject root = GsonHelper.convertToJsonObject(JsonParser.parseReader(reader), "server_shop");
+                for (JsonElement element : GsonHelper.getAsJsonArray(root, "entries")) {
+                    addEntry(builder, GsonHelper.convertToJsonObject(element, "entry"), file.getKey());
+                }
+            } catch (Exception e) {
+                LOGGER.error("无法加载系统商店文件 {}: {}", file.getKey(), e.getMessage());
+            }
+        }
+        return builder.build();
+    }
+
+    private static void addEntry(ServerShopCatalog.Builder builder, JsonObject entry, ResourceLocation file) {
+        String itemId = GsonHelper.getAsString(entry, "item");
+        ResourceLocation id = ResourceLocation.tryParse(ItemFingerprint.normalizeId(itemId));
+        if (id == null || !BuiltInRegistries.ITEM.containsKey(id)) {
+            LOGGER.warn("系统商店文件 {} 中的物品不存在: {}", file, itemId);
+            return;
+        }
+
+        try {
+            builder.add(id.toString(),
+                    GsonHelper.getAsString(entry, "nbt", null),
+                    GsonHelper.getAsString(entry, "name", null),
+                    GsonHelper.getAsLong(entry, "buy", ServerShopCatalog.NOT_TRADED),
+                    GsonHelper.getAsLong(entry, "sell", ServerShopCatalog.NOT_TRADED));
+        } catch (CommandSyntaxException e) {
+            LOGGER.warn("系统商店文件 {} 中 {} 的NBT无法解析: {}", file, itemId, e.getMessage());
+        }
+    }
+
+    @Override
+    protected void apply(ServerShopCatalog catalog, ResourceManager resourceManager, ProfilerFiller profiler) {
+        ServerShop.setCatalog(catalog);
+        LOGGER.info("系统商店已加载 {} 种商品", catalog.size());
+    }
+}
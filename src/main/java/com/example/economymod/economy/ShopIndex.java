@@ -0,0 +1,324 @@
+package com.example.economymod.economy;
+
+import java.util.*;
+
+// 全服商店商品索引 - 物品指纹 -> 按价格排序的在售商品，由PlayerShop在商品变化时增量更新
+// 另外维护物品名 -> 指纹的索引用于按名称查找，以及物品名的三元组(n-gram)索引用于模糊搜索
+public class ShopIndex {
+    private static final int GRAM_SIZE = 3;
+
+    // 模糊匹配的最低相似度
+    private static final double MIN_SIMILARITY = 0.3;
+
+    // 物品指纹 -> 按价格排序的在售商品
+    private final Map<String, NavigableSet<Listing>> listingsByItem = new HashMap<>();
+
+    // 商店名 -> (物品指纹 -> 在售商品)，用于定位旧的索引项
+    private final Map<String, Map<String, Listing>> listingsByShop = new HashMap<>();
+
+    // 小写物品名 -> 在售的物品指纹（同名物品可能有不同的NBT）
+    private final Map<String, Set<String>> keysByName = new HashMap<>();
+
+    // 三元组 -> 包含该三元组的小写物品名
+    private final Map<String, Set<String>> gramIndex = new HashMap<>();
+
+    private static final Comparator<Listing> PRICE_ORDER = Comparator.comparingLong(Listing::getPrice)
+            .thenComparing(Listing::getShopName);
+
+    // 根据商店中商品的当前状态更新索引（商品售罄、被移除或商店关闭时移出索引）
+    public synchronized void update(PlayerShop shop, String itemKey) {
+        Map<String, Listing> shopListings = listingsByShop.get(shop.getShopName());
+        Listing previous = shopListings != null ? shopListings.remove(itemKey) : null;
+        if (previous != null) {
+            removeListing(previous);
+        }
+
+        PlayerShop.ShopItem item = shop.getItem(itemKey);
+        int available = shop.getAvailableQuantity(itemKey);
+        if (shop.isOpen() && item != null && available > 0) {
+            Listing listing = new Listing(shop.getShopName(), shop.getOwnerId(), itemKey, item.getItemName(),
+                    item.getDisplayName(), item.getPrice(), available);
+            listingsByShop.computeIfAbsent(shop.getShopName(), k -> new HashMap<>()).put(itemKey, listing);
+            addListing(listing);
+        } else if (shopListings != null && shopListings.isEmpty()) {
+            listingsByShop.remove(shop.getShopName());
+        }
+    }
+
+    // 重新索引整个商店（开关店时调用）
+    public synchronized void updateShop(PlayerShop shop) {
+        removeShop(shop.getShopName());
+        for (String itemKey : shop.getItems().keySet()) {
+            update(shop, itemKey);
+        }
+    }
+
+    // 将商店的所有商品移出索引
+    public synchronized void removeShop(String shopName) {
+        Map<String, Listing> shopListings = listingsByShop.remove(shopName);
+        if (shopListings == null) return;
+
+        for (Listing listing : shopListings.values()) {
+            removeListing(listing);
+        }
+    }
+
+    // 从所有商店重建索引（加载数据后调用，同时把旧数据的商品键迁移为物品指纹）
+    public synchronized void rebuild(Collection<PlayerShop> shops) {
+        listingsByItem.clear();
+        listingsByShop.clear();
+        keysByName.clear();
+        gramIndex.clear();
+        for (PlayerShop shop : shops) {
+            shop.normalizeItemKeys();
+            shop.attachIndex(this);
+            updateShop(shop);
+        }
+    }
+
+    // 按输入查找在售的物品指纹：完整指纹、物品名或物品ID（可省略minecraft:），都不匹配时按指纹前缀查找
+    public synchronized List<String> resolve(String input) {
+        String query = input.trim().toLowerCase(Locale.ROOT);
+        if (listingsByItem.containsKey(query)) {
+            return List.of(query);
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        Set<String> byName = keysByName.get(query);
+        if (byName != null) keys.addAll(byName);
+        Set<String> byId = keysByName.get(ItemFingerprint.normalizeId(query));
+        if (byId != null) keys.addAll(byId);
+
+        if (keys.isEmpty() && ItemFingerprint.isKeyPrefix(query)) {
+            for (String itemKey : listingsByItem.keySet()) {
+                if (itemKey.startsWith(query)) {
+                    keys.add(itemKey);
+                }
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    // 获取物品的所有在售商品（按价格从低到高）
+    public synchronized List<Listing> getListings(String itemKey) {
+        NavigableSet<Listing> listings = listingsByItem.get(itemKey);
+        return listings != null ? new ArrayList<>(listings) : Collections.emptyList();
+    }
+
+    // 获取物品的最低价在售商品
+    public synchronized Listing getBestListing(String itemKey) {
+        NavigableSet<Listing> listings = listingsByItem.get(itemKey);
+        return listings != null && !listings.isEmpty() ? listings.first() : null;
+    }
+
+    // 按最低价依次购买指定数量时的报价
+    public synchronized Quote quote(String itemKey, int quantity) {
+        NavigableSet<Listing> listings = listingsByItem.get(itemKey);
+        String itemName = listings != null && !listings.isEmpty() ? listings.first().getDisplayName() : itemKey;
+        int filled = 0;
+        long totalCost = 0;
+        if (listings != null) {
+            for (Listing listing : listings) {
+                if (filled >= quantity) break;
+                int take = Math.min(quantity - filled, listing.getQuantity());
+                filled += take;
+                totalCost += listing.getPrice() * take;
+            }
+        }
+        return new Quote(itemName, quantity, filled, totalCost);
+    }
+
+    // 模糊搜索物品名：子串匹配优先，其次按三元组相似度排序，每个物品指纹一个结果
+    public synchronized List<Match> find(String query, int limit) {
+        String key = normalizeName(query.trim());
+        if (key.isEmpty()) return Collections.emptyList();
+
+        Set<String> queryGrams = grams(key);
+        Map<String, Integer> sharedGrams = new HashMap<>();
+
+        // 查询过短时没有完整的三元组，直接做子串匹配
+        if (key.length() < GRAM_SIZE) {
+            for (String name : keysByName.keySet()) {
+                if (name.contains(key)) {
+                    sharedGrams.put(name, 0);
+                }
+            }
+        }
+
+        for (String gram : queryGrams) {
+            Set<String> names = gramIndex.get(gram);
+            if (names == null) continue;
+            for (String name : names) {
+                sharedGrams.merge(name, 1, Integer::sum);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : sharedGrams.entrySet()) {
+            String name = entry.getKey();
+            double score = name.contains(key)
+                    ? 1.0 + (double) key.length() / name.length()
+                    : 2.0 * entry.getValue() / (queryGrams.size() + nameGramCount(name));
+            if (score >= MIN_SIMILARITY) {
+                for (String itemKey : keysByName.get(name)) {
+                    NavigableSet<Listing> listings = listingsByItem.get(itemKey);
+                    matches.add(new Match(listings.first(), listings.size(), score));
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble(Match::getScore).reversed()
+                .thenComparing(match -> match.getBestListing().getDisplayName()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    public synchronized int getIndexedItemCount() {
+        return listingsByItem.size();
+    }
+
+    private void addListing(Listing listing) {
+        NavigableSet<Listing> listings = listingsByItem.get(listing.getItemKey());
+        if (listings == null) {
+            listings = new TreeSet<>(PRICE_ORDER);
+            listingsByItem.put(listing.getItemKey(), listings);
+
+            String name = normalizeName(listing.getItemName());
+            Set<String> keys = keysByName.get(name);
+            if (keys == null) {
+                keys = new HashSet<>();
+                keysByName.put(name, keys);
+                for (String gram : grams(name)) {
+                    gramIndex.computeIfAbsent(gram, k -> new HashSet<>()).add(name);
+                }
+            }
+            keys.add(listing.getItemKey());
+        }
+        listings.add(listing);
+    }
+
+    private void removeListing(Listing listing) {
+        NavigableSet<Listing> listings = listingsByItem.get(listing.getItemKey());
+        if (listings == null) return;
+
+        listings.remove(listing);
+        if (!listings.isEmpty()) return;
+
+        listingsByItem.remove(listing.getItemKey());
+        String name = normalizeName(listing.getItemName());
+        Set<String> keys = keysByName.get(name);
+        if (keys == null) return;
+
+        keys.remove(listing.getItemKey());
+        if (keys.isEmpty()) {
+            keysByName.remove(name);
+            for (String gram : grams(name)) {
+                Set<String> names = gramIndex.get(gram);
+                if (names != null) {
+                    names.remove(name);
+                    if (names.isEmpty()) {
+                        gramIndex.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    // 生成带边界标记的三元组，带命名空间的物品名（如minecraft:diamond）同时按路径部分生成
+    private static Set<String> grams(String key) {
+        Set<String> result = new HashSet<>();
+        addGrams("^" + key + "$", result);
+
+        int separator = key.indexOf(':');
+        if (separator >= 0 && separator < key.length() - 1) {
+            addGrams("^" + key.substring(separator + 1) + "$", result);
+        }
+        return result;
+    }
+
+    // 相似度只按物品名本身（不含命名空间）的三元组数量计算
+    private static int nameGramCount(String key) {
+        int separator = key.indexOf(':');
+        String name = separator >= 0 && separator < key.length() - 1 ? key.substring(separator + 1) : key;
+        return Math.max(1, name.length() + 2 - GRAM_SIZE + 1);
+    }
+
+    private static void addGrams(String padded, Set<String> result) {
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            result.add(padded.substring(i, i + GRAM_SIZE));
+        }
+    }
+
+    static String normalizeName(String itemName) {
+        return itemName.toLowerCase(Locale.ROOT);
+    }
+
+    // 在售商品（不可变快照）
+    public static class Listing {
+        private final String shopName;
+        private final UUID ownerId;
+        private final String itemKey;
+        private final String itemName;
+        private final String displayName;
+        private final long price;
+        private final int quantity;
+
+        public Listing(String shopName, UUID ownerId, String itemKey, String itemName, String displayName,
+                       long price, int quantity) {
+            this.shopName = shopName;
+            this.ownerId = ownerId;
+            this.itemKey = itemKey;
+            this.itemName = itemName;
+            this.displayName = displayName;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public String getShopName() { return shopName; }
+        public UUID getOwnerId() { return ownerId; }
+        public String getItemKey() { return itemKey; }
+        public String getItemName() { return itemName; }
+        public String getDisplayName() { return displayName; }
+        public long getPrice() { return price; }
+        public int getQuantity() { return quantity; }
+    }
+
+    // 模糊搜索结果
+    public static class Match {
+        private final Listing bestListing;
+        private final int sellerCount;
+        private final double score;
+
+        public Match(Listing bestListing, int sellerCount, double score) {
+            this.bestListing = bestListing;
+            this.sellerCount = sellerCount;
+            this.score = score;
+        }
+
+        public Listing getBestListing() { return bestListing; }
+        public int getSellerCount() { return sellerCount; }
+        public double getScore() { return score; }
+    }
+
+    // 报价结果
+    public static class Quote {
+        private final String itemName;
+        private final int requested;
+        private final int available;
+        private final long totalCost;
+
+        public Quote(String itemName, int requested, int available, long totalCost) {
+            this.itemName = itemName;
+            this.requested = requested;
+            this.available = available;
+            this.totalCost = totalCost;
+        }
+
+        public boolean isFilled() { return available >= requested; }
+
+        public String getItemName() { return itemName; }
+        public int getRequested() { return requested; }
+        public int getAvailable() { return available; }
+        public long getTotalCost() { return totalCost; }
+        public long getAveragePrice() { return available > 0 ? totalCost / available : 0; }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.economymod.economy;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+// 商店销售统计 - 按分钟/小时/天分桶的环形缓冲区，每笔销售O(1)更新，内存固定
+public class ShopSalesStats {
+    private static final int MINUTE_BUCKETS = 60;   // 最近一小时
+    private static final int HOUR_BUCKETS = 24;     // 最近一天
+    private static final int DAY_BUCKETS = 30;      // 最近一个月
+
+    // 每个商店最多单独统计的商品数量
+    private static final int MAX_TRACKED_ITEMS = 64;
+
+    private SalesRing minutes;
+    private SalesRing hours;
+    private SalesRing days;
+    private Map<String, ItemSales> items; // 物品指纹 -> 商品统计（旧数据按物品名记录，加载后迁移）
+
+    public ShopSalesStats() {
+        this.minutes = new SalesRing(MINUTE_BUCKETS, EconomyClock.MINUTE_MILLIS);
+        this.hours = new SalesRing(HOUR_BUCKETS, EconomyClock.HOUR_MILLIS);
+        this.days = new SalesRing(DAY_BUCKETS, EconomyClock.DAY_MILLIS);
+        this.items = new HashMap<>();
+    }
+
+    // 记录一笔销售（按物品指纹统计，同名但NBT不同的商品分开计算）
+    public synchronized void record(String itemKey, String itemName, long revenue, int quantity, long nowMillis) {
+        minutes.record(nowMillis, revenue, quantity);
+        hours.record(nowMillis, revenue, quantity);
+        days.record(nowMillis, revenue, quantity);
+
+        ItemSales itemSales = items.get(itemKey);
+        if (itemSales == null) {
+            if (items.size() >= MAX_TRACKED_ITEMS) {
+                evictSlowestItem(nowMillis);
+            }
+            itemSales = new ItemSales(itemName);
+            items.put(itemKey, itemSales);
+        }
+        itemSales.itemName = itemName;
+        itemSales.record(nowMillis, revenue, quantity);
+    }
+
+    // 旧数据的商品统计以物品名为键且只有按天统计：按商店当前商品把物品名换成物品指纹，
+    // 找不到对应商品的保留物品名作为键，直到过期被淘汰
+    public synchronized void migrateLegacyItems(Map<String, String> nameToKey) {
+        if (items == null) {
+            items = new HashMap<>();
+            return;
+        }
+        Map<String, ItemSales> migrated = new HashMap<>();
+        for (Map.Entry<String, ItemSales> entry : items.entrySet()) {
+            ItemSales itemSales = entry.getValue();
+            String itemKey = entry.getKey();
+            if (itemSales.itemName == null) {
+                itemSales.itemName = itemKey;
+                itemKey = nameToKey.getOrDefault(itemKey, itemKey);
+            }
+            itemSales.ensureRings();
+            migrated.putIfAbsent(itemKey, itemSales);
+        }
+        items = migrated;
+    }
+
+    // 最近一小时的销售额
+    public synchronized long getRevenueLastHour(long nowMillis) {
+        return minutes.revenue(nowMillis, MINUTE_BUCKETS);
+    }
+
+    // 最近24小时的销售额
+    public synchronized long getRevenueLastDay(long nowMillis) {
+        return hours.revenue(nowMillis, HOUR_BUCKETS);
+    }
+
+    // 最近N天的销售额（最多30天）
+    public synchronized long getRevenueLastDays(long nowMillis, int dayCount) {
+        return days.revenue(nowMillis, Math.min(dayCount, DAY_BUCKETS));
+    }
+
+    public synchronized long getUnitsLastHour(long nowMillis) {
+        return minutes.units(nowMillis, MINUTE_BUCKETS);
+    }
+
+    public synchronized long getUnitsLastDay(long nowMillis) {
+        return hours.units(nowMillis, HOUR_BUCKETS);
+    }
+
+    public synchronized long getUnitsLastDays(long nowMillis, int dayCount) {
+        return days.units(nowMillis, Math.min(dayCount, DAY_BUCKETS));
+    }
+
+    // 最近N小时每小时的销售额（最早的在前）
+    public synchronized long[] getHourlyRevenue(long nowMillis, int hourCount) {
+        int count = Math.min(hourCount, HOUR_BUCKETS);
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = hours.revenueAt(nowMillis, count - 1 - i);
+        }
+        return result;
+    }
+
+    // 最近一小时销售额最高的商品
+    public synchronized List<ItemRanking> getTopItemsLastHour(long nowMillis, int limit) {
+        return topItems(sales -> sales.minutes.revenue(nowMillis, MINUTE_BUCKETS),
+                sales -> sales.minutes.units(nowMillis, MINUTE_BUCKETS), limit);
+    }
+
+    // 最近24小时销售额最高的商品
+    public synchronized List<ItemRanking> getTopItemsLastDay(long nowMillis, int limit) {
+        return topItems(sales -> sales.hours.revenue(nowMillis, HOUR_BUCKETS),
+                sales -> sales.hours.units(nowMillis, HOUR_BUCKETS), limit);
+    }
+
+    // 最近N天销售额最高的商品
+    public synchronized List<ItemRanking> getTopItems(long nowMillis, int dayCount, int limit) {
+        int window = Math.min(dayCount, DAY_BUCKETS);
+        return topItems(sales -> sales.days.revenue(nowMillis, window),
+                sales -> sales.days.units(nowMillis, window), limit);
+    }
+
+    private List<ItemRanking> topItems(ToLongFunction<ItemSales> revenueOf, ToLongFunction<ItemSales> unitsOf, int limit) {
+        List<ItemRanking> rankings = new ArrayList<>();
+        for (Map.Entry<String, ItemSales> entry : items.entrySet()) {
+            ItemSales itemSales = entry.getValue();
+            long revenue = revenueOf.applyAsLong(itemSales);
+            if (revenue > 0) {
+                rankings.add(new ItemRanking(entry.getKey(), itemSales.itemName, revenue, unitsOf.applyAsLong(itemSales)));
+            }
+        }
+        rankings.sort(Comparator.comparingLong(ItemRanking::getRevenue).reversed());
+        return rankings.size() > limit ? new ArrayList<>(rankings.subList(0, limit)) : rankings;
+    }
+
+    // 淘汰最近一个月销售额最低的商品统计
+    private void evictSlowestItem(long nowMillis) {
+        String slowest = null;
+        long lowest = Long.MAX_VALUE;
+        for (Map.Entry<String, ItemSales> entry : items.entrySet()) {
+            long revenue = entry.getValue().days.revenue(nowMillis, DAY_BUCKETS);
+            if (revenue < lowest) {
+                lowest = revenue;
+                slowest = entry.getKey();
+            }
+        }
+        if (slowest != null) {
+            items.remove(slowest);
+        }
+    }
+
+    // 单个商品的销售统计，与商店总计使用相同的分钟/小时/天分桶
+    private static class ItemSales {
+        private String itemName; // 显示名称（旧数据中为null）
+        private SalesRing minutes;
+        private SalesRing hours;
+        private SalesRing days;
+
+        ItemSales(String itemName) {
+            this.itemName = itemName;
+            ensureRings();
+        }
+
+        // 旧数据只有按天统计，补上分钟和小时统计
+        void ensureRings() {
+            if (minutes == null) minutes = new SalesRing(MINUTE_BUCKETS, EconomyClock.MINUTE_MILLIS);
+            if (hours == null) hours = new SalesRing(HOUR_BUCKETS, EconomyClock.HOUR_MILLIS);
+            if (days == null) days = new SalesRing(DAY_BUCKETS, EconomyClock.DAY_MILLIS);
+        }
+
+        void record(long nowMillis, long revenue, int quantity) {
+            minutes.record(nowMillis, revenue, quantity);
+            hours.record(nowMillis, revenue, quantity);
+            days.record(nowMillis, revenue, quantity);
+        }
+    }
+
+    // 固定大小的时间桶环形缓冲区，槽位按时间桶编号取模复用，过期的桶在写入时清零
+    static class SalesRing {
+        private long bucketMillis;
+        private long[] keys;      // 槽位当前对应的时间桶编号
+        private long[] revenue;
+        private long[] units;
+
+        SalesRing(int size, long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+            this.keys = new long[size];
+            this.revenue = new long[size];
+            this.units = new long[size];
+            Arrays.fill(keys, Long.MIN_VALUE);
+        }
+
+        void record(long nowMillis, long amount, long quantity) {
+            long key = nowMillis / bucketMillis;
+            int slot = (int) Math.floorMod(key, (long) keys.length);
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                revenue[slot] = 0;
+                units[slot] = 0;
+            }
+            revenue[slot] += amount;
+            units[slot] += quantity;
+        }
+
+        // 最近bucketCount个时间桶（包括当前桶）的销售额
+        long revenue(long nowMillis, int bucketCount) {
+            return sum(revenue, nowMillis, bucketCount);
+        }
+
+        long units(long nowMillis, int bucketCount) {
+            return sum(units, nowMillis, bucketCount);
+        }
+
+        // bucketsAgo个时间桶之前的销售额
+        long revenueAt(long nowMillis, int bucketsAgo) {
+            long key = nowMillis / bucketMillis - bucketsAgo;
+            int slot = (int) Math.floorMod(key, (long) keys.length);
+            return keys[slot] == key ? revenue[slot] : 0;
+        }
+
+        private long sum(long[] values, long nowMillis, int bucketCount) {
+            long newest = nowMillis / bucketMillis;
+            long oldest = newest - Math.min(bucketCount, keys.length) + 1;
+            long total = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] >= oldest && keys[i] <= newest) {
+                    total += values[i];
+                }
+            }
+            return total;
+        }
+    }
+
+    // 商品销售排名
+    public static class ItemRanking {
+        private final String itemKey;
+        private final String itemName;
+        private final long revenue;
+        private final long units;
+
+        public ItemRanking(String itemKey, String itemName, long revenue, long units) {
+            this.itemKey = itemKey;
+            this.itemName = itemName;
+            this.revenue = revenue;
+            this.units = units;
+        }
+
+        public String getItemKey() { return itemKey; }
+        public String getItemName() { return itemName; }
+        public long getRevenue() { return revenue; }
+        public long getUnits() { return units; }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.economymod.economy;
+
+import net.minecraft.world.item.ItemStack;
+
+import java.util.List;
+import java.util.Map;
+
+// 商店的实物库存来源（例如商店库存箱），库存数量由来源自己缓存，变化时通过PlayerShop.onStockChanged通知商店
+public interface ShopStockSource {
+    // 当前各物品（按物品指纹）的数量
+    Map<String, Integer> getStockCounts();
+
+    // 取出指定物品，返回实际取出的物品堆（数量可能少于要求）
+    List<ItemStack> extract(String itemKey, int amount);
+
+    // 放回之前取出的物品堆（出售失败时回滚），返回放不下的部分
+    ItemStack restore(ItemStack stack);
+}
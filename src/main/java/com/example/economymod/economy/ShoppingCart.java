@@ -0,0 +1,141 @@
+package com.example.economymod.economy;
+
+import java.util.*;
+
+// 购物车 - 暂存来自多个商店的商品，结账时作为一笔交易统一结算
+public class ShoppingCart {
+    public static final int MAX_LINES = 32;
+
+    private final List<CartLine> lines = new ArrayList<>();
+
+    // 添加商品，同一商店的同一商品（按物品指纹）合并为一行（价格以最新报价为准）
+    public synchronized boolean add(String shopName, String itemKey, String itemName, int quantity, long unitPrice) {
+        if (quantity <= 0) return false;
+
+        for (int i = 0; i < lines.size(); i++) {
+            CartLine line = lines.get(i);
+            if (line.getShopName().equals(shopName) && line.getItemKey().equals(itemKey)) {
+                lines.set(i, new CartLine(shopName, itemKey, itemName, line.getQuantity() + quantity, unitPrice));
+                return true;
+            }
+        }
+
+        if (lines.size() >= MAX_LINES) return false;
+        lines.add(new CartLine(shopName, itemKey, itemName, quantity, unitPrice));
+        return true;
+    }
+
+    // 移除一行（从0开始的序号）
+    public synchronized CartLine remove(int index) {
+        if (index < 0 || index >= lines.size()) return null;
+        return lines.remove(index);
+    }
+
+    public synchronized void clear() {
+        lines.clear();
+    }
+
+    // 购物车中某个商店某商品的已加入数量
+    public synchronized int getQuantity(String shopName, String itemKey) {
+        for (CartLine line : lines) {
+            if (line.getShopName().equals(shopName) && line.getItemKey().equals(itemKey)) {
+                return line.getQuantity();
+            }
+        }
+        return 0;
+    }
+
+    public synchronized List<CartLine> getLines() {
+        return new ArrayList<>(lines);
+    }
+
+    // 按加入时的报价计算总价
+    public synchronized long getQuotedTotal() {
+        long total = 0;
+        for (CartLine line : lines) {
+            total += line.getTotalPrice();
+        }
+        return total;
+    }
+
+    public synchronized boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    // 购物车中的一行
+    public static class CartLine {
+        private final String shopName;
+        private final String itemKey;   // 物品指纹
+        private final String itemName;  // 显示名称
+        private final int quantity;
+        private final long unitPrice; // 加入购物车时的报价
+
+        public CartLine(String shopName, String itemKey, String itemName, int quantity, long unitPrice) {
+            this.shopName = shopName;
+            this.itemKey = itemKey;
+            this.itemName = itemName;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+        }
+
+        public String getShopName() { return shopName; }
+        public String getItemKey() { return itemKey; }
+        public String getItemName() { return itemName; }
+        public int getQuantity() { return quantity; }
+        public long getUnitPrice() { return unitPrice; }
+        public long getTotalPrice() { return unitPrice * quantity; }
+    }
+
+    // 结账结果
+    public static class CheckoutResult {
+        public enum Status {
+            SUCCESS("结账成功"),
+            EMPTY("购物车为空"),
+            SHOP_UNAVAILABLE("商店不存在、已关闭或是您自己的商店"),
+            OUT_OF_STOCK("商品库存不足"),
+            PRICE_CHANGED("商品价格已变化"),
+            INSUFFICIENT_FUNDS("余额不足");
+
+            private final String description;
+
+            Status(String description) {
+                this.description = description;
+            }
+
+            public String getDescription() {
+                return description;
+            }
+        }
+
+        private final Status status;
+        private final CartLine failedLine; // 导致失败的行
+        private final List<CartLine> purchased;
+        private final Map<String, PlayerShop.ShopItem> items; // 物品指纹 -> 购买的商品（用于发放物品）
+        private final long totalCost;
+
+        private CheckoutResult(Status status, CartLine failedLine, List<CartLine> purchased,
+                               Map<String, PlayerShop.ShopItem> items, long totalCost) {
+            this.status = status;
+            this.failedLine = failedLine;
+            this.purchased = purchased;
+            this.items = items;
+            this.totalCost = totalCost;
+        }
+
+        static CheckoutResult success(List<CartLine> purchased, Map<String, PlayerShop.ShopItem> items, long totalCost) {
+            return new CheckoutResult(Status.SUCCESS, null, purchased, items, totalCost);
+        }
+
+        static CheckoutResult failure(Status status, CartLine failedLine) {
+            return new CheckoutResult(status, failedLine, Collections.emptyList(), Collections.emptyMap(), 0);
+        }
+
+        public boolean isSuccess() { return status == Status.SUCCESS; }
+
+        public Status getStatus() { return status; }
+        public CartLine getFailedLine() { return failedLine; }
+        public List<CartLine> getPurchased() { return purchased; }
+        public PlayerShop.ShopItem getPurchasedItem(CartLine line) { return items.get(line.getItemKey()); }
+        public long getTotalCost() { return totalCost; }
+    }
+}
@@ -27,6 +27,10 @@ public enum TransactionType {
     AUCTION_SELL("拍卖销售", true),
     AUCTION_REFUND("拍卖退款", true),
     
+    // 股票交易
+    STOCK_BUY("股票买入", false),
+    STOCK_SELL("股票卖出", true),
+    
     // 系统相关
     INITIAL("初始资金", true),
     DAILY_REWARD("每日奖励", true),
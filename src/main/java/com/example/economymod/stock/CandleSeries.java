@@ -0,0 +1,154 @@
+package com.example.economymod.stock;
+
+import com.example.economymod.economy.EconomyClock;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// K线序列 - 某一周期的OHLCV蜡烛图，有容量上限的环形缓冲区，每个字段一个基本类型数组
+// 成交逐笔并入当前周期的K线，进入新周期时追加一根，写满后覆盖最旧的K线；
+// 数组按需倍增到容量上限，不交易的股票只占用很少的内存
+public class CandleSeries {
+    // K线周期及保留数量：分钟线保留一周，小时线保留30天，日线保留10年
+    public enum Resolution {
+        MINUTE("分钟", 7 * 24 * 60),
+        HOUR("小时", 30 * 24),
+        DAY("日", 3650);
+
+        private final String displayName;
+        private final int capacity;
+
+        Resolution(String displayName, int capacity) {
+            this.displayName = displayName;
+            this.capacity = capacity;
+        }
+
+        // 时间所在的周期编号（日线按交易日划分，与开盘价一致）
+        long bucket(long millis) {
+            return switch (this) {
+                case MINUTE -> Math.floorDiv(millis, EconomyClock.MINUTE_MILLIS);
+                case HOUR -> Math.floorDiv(millis, EconomyClock.HOUR_MILLIS);
+                case DAY -> EconomyClock.tradingDay();
+            };
+        }
+
+        public String getDisplayName() { return displayName; }
+        public int getCapacity() { return capacity; }
+
+        public static Resolution fromName(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Resolution resolution;
+    private long[] buckets;   // 周期编号
+    private long[] times;     // 该周期第一笔成交的时间（毫秒）
+    private long[] opens;
+    private long[] highs;
+    private long[] lows;
+    private long[] closes;
+    private long[] volumes;
+    private int start;
+    private int size;
+
+    public CandleSeries(Resolution resolution) {
+        int capacity = Math.min(INITIAL_CAPACITY, resolution.getCapacity());
+        this.resolution = resolution;
+        this.buckets = new long[capacity];
+        this.times = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new long[capacity];
+    }
+
+    // 并入一笔成交；时钟回拨时并入最新的K线
+    void update(long price, long volume, long time) {
+        long bucket = resolution.bucket(time);
+        if (size > 0) {
+            int last = physical(size - 1);
+            if (bucket <= buckets[last]) {
+                highs[last] = Math.max(highs[last], price);
+                lows[last] = Math.min(lows[last], price);
+                closes[last] = price;
+                volumes[last] += volume;
+                return;
+            }
+        }
+
+        if (size == buckets.length && size < resolution.getCapacity()) {
+            grow();
+        }
+
+        int slot;
+        if (size < buckets.length) {
+            slot = (start + size) % buckets.length;
+            size++;
+        } else {
+            slot = start;
+            start = (start + 1) % buckets.length;
+        }
+        buckets[slot] = bucket;
+        times[slot] = time;
+        opens[slot] = price;
+        highs[slot] = price;
+        lows[slot] = price;
+        closes[slot] = price;
+        volumes[slot] = volume;
+    }
+
+    // 数组倍增（只在写满之前发生，此时start为0，直接复制即可）
+    private void grow() {
+        int capacity = Math.min(resolution.getCapacity(), buckets.length * 2);
+        buckets = Arrays.copyOf(buckets, capacity);
+        times = Arrays.copyOf(times, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+
+    // 股票分割：原地调整所有价格
+    void adjustPrices(int ratio) {
+        for (int i = 0; i < size; i++) {
+            int slot = physical(i);
+            opens[slot] /= ratio;
+            highs[slot] /= ratio;
+            lows[slot] /= ratio;
+            closes[slot] /= ratio;
+        }
+    }
+
+    public Resolution getResolution() { return resolution; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // 最新K线是否属于当前周期
+    public boolean isCurrent() {
+        return size > 0 && buckets[physical(size - 1)] == resolution.bucket(EconomyClock.millis());
+    }
+
+    // 按下标读取（0为最旧，size()-1为最新）
+    public long getTime(int index) { return times[physical(index)]; }
+    public long getOpen(int index) { return opens[physical(index)]; }
+    public long getHigh(int index) { return highs[physical(index)]; }
+    public long getLow(int index) { return lows[physical(index)]; }
+    public long getClose(int index) { return closes[physical(index)]; }
+    public long getVolume(int index) { return volumes[physical(index)]; }
+
+    private int physical(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int slot = start + index;
+        return slot < buckets.length ? slot : slot - buckets.length;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.economymod.stock;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// 因子模型 - 每只股票的冲击 = 市场因子 × 市场载荷 + 行业因子 × 行业载荷 + 个股冲击 × 剩余载荷
+// 同行业股票的相关系数为 市场相关 + 行业相关，不同行业为 市场相关。载荷矩阵是稀疏的（每行两个因子），
+// 只在上市股票变化时重建，每次调价的代价为O(股票数 + 因子数)
+public class FactorModel {
+    public static final int MARKET_FACTOR = 0;
+
+    private final Map<String, Integer> rows = new HashMap<>();
+    private final int[] sectorFactors;       // 每行的行业因子下标
+    private final double[] marketLoadings;
+    private final double[] sectorLoadings;
+    private final double[] idiosyncratic;    // 个股冲击的载荷，保证总方差为1
+    private final int factorCount;
+
+    // marketCorrelation、sectorCorrelation为因子解释的方差占比
+    public FactorModel(Collection<Stock> stocks, double marketCorrelation, double sectorCorrelation) {
+        double market = Math.max(0, Math.min(1, marketCorrelation));
+        double sector = Math.max(0, Math.min(1 - market, sectorCorrelation));
+        double marketLoading = Math.sqrt(market);
+        double sectorLoading = Math.sqrt(sector);
+        double residual = Math.sqrt(1 - market - sector);
+
+        int size = stocks.size();
+        this.sectorFactors = new int[size];
+        this.marketLoadings = new double[size];
+        this.sectorLoadings = new double[size];
+        this.idiosyncratic = new double[size];
+
+        Map<String, Integer> sectors = new HashMap<>();
+        int row = 0;
+        for (Stock stock : stocks) {
+            rows.put(stock.getSymbol(), row);
+            sectorFactors[row] = sectors.computeIfAbsent(stock.getIndustry(), k -> sectors.size() + 1);
+            marketLoadings[row] = marketLoading;
+            sectorLoadings[row] = sectorLoading;
+            idiosyncratic[row] = residual;
+            row++;
+        }
+        this.factorCount = sectors.size() + 1;
+    }
+
+    // 股票所在的行，不在模型中时返回-1
+    public int rowOf(String symbol) {
+        Integer row = rows.get(symbol);
+        return row != null ? row : -1;
+    }
+
+    public int getFactorCount() {
+        return factorCount;
+    }
+
+    // 由本次的因子冲击和个股冲击合成第row行的标准正态冲击
+    public double shock(int row, double[] factors, double own) {
+        if (row < 0) return own;
+        return marketLoadings[row] * factors[MARKET_FACTOR]
+                + sectorLoadings[row] * factors[sectorFactors[row]]
+                + idiosyncratic[row] * own;
+    }
+}
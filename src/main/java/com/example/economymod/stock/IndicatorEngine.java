@@ -0,0 +1,182 @@
+package com.example.economymod.stock;
+
+// 技术指标引擎 - 每条新价格O(1)增量更新：SMA、快慢均线和布林带用滚动和（移出窗口的价格从价格历史中读取），
+// EMA按指数平滑，RSI用Wilder平滑，并检测快慢均线的金叉/死叉。指标未满窗口时返回NaN
+public class IndicatorEngine {
+    private static final int TREND_WINDOW = 10; // 趋势因子使用的价格条数
+
+    public enum CrossSignal {
+        NONE("无"),
+        GOLDEN("金叉"),
+        DEATH("死叉");
+
+        private final String displayName;
+
+        CrossSignal(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final IndicatorSettings settings;
+
+    private int samples;
+    private long smaSum;
+    private long fastSum;
+    private long slowSum;
+    private long bollingerSum;
+    private double bollingerSumSquares;
+    private double trendSum;      // 最近TREND_WINDOW条价格之间涨跌幅之和
+    private double ema = Double.NaN;
+    private double averageGain;
+    private double averageLoss;
+    private int rsiSamples;
+
+    private int fastAbove;        // 快线在慢线上方为1，下方为-1，未知为0
+    private CrossSignal lastCross = CrossSignal.NONE;
+    private long lastCrossTime;
+
+    public IndicatorEngine(IndicatorSettings settings) {
+        this.settings = settings;
+    }
+
+    // 用整段价格历史重新计算（更换参数、股票分割后）
+    public static IndicatorEngine rebuild(IndicatorSettings settings, PriceSeries series) {
+        IndicatorEngine engine = new IndicatorEngine(settings);
+        for (int i = 0; i < series.size(); i++) {
+            engine.update(series, i);
+        }
+        return engine;
+    }
+
+    // 价格历史中下标为index的价格已经写入，更新所有指标
+    public void update(PriceSeries series, int index) {
+        long price = series.getPrice(index);
+        samples = index + 1;
+
+        smaSum += price - leaving(series, index, settings.getSmaWindow());
+        fastSum += price - leaving(series, index, settings.getFastWindow());
+        slowSum += price - leaving(series, index, settings.getSlowWindow());
+
+        long oldest = leaving(series, index, settings.getBollingerWindow());
+        bollingerSum += price - oldest;
+        bollingerSumSquares += (double) price * price - (double) oldest * oldest;
+
+        double alpha = 2.0 / (settings.getEmaPeriod() + 1);
+        ema = Double.isNaN(ema) ? price : ema + alpha * (price - ema);
+
+        if (index > 0) {
+            long previous = series.getPrice(index - 1);
+            trendSum += change(previous, price);
+            if (index >= TREND_WINDOW) {
+                trendSum -= change(series.getPrice(index - TREND_WINDOW), series.getPrice(index - TREND_WINDOW + 1));
+            }
+            updateRsi(price - previous);
+        }
+
+        updateCross(series.getTime(index));
+    }
+
+    // 移出窗口的价格，窗口未满时为0
+    private static long leaving(PriceSeries series, int index, int window) {
+        return index >= window ? series.getPrice(index - window) : 0;
+    }
+
+    private static double change(long from, long to) {
+        return from > 0 ? (double) (to - from) / from : 0;
+    }
+
+    // Wilder平滑：前period个涨跌取简单平均，之后 avg = (avg * (n - 1) + x) / n
+    private void updateRsi(long delta) {
+        int period = settings.getRsiPeriod();
+        double gain = Math.max(0, delta);
+        double loss = Math.max(0, -delta);
+        rsiSamples++;
+        if (rsiSamples <= period) {
+            averageGain += (gain - averageGain) / rsiSamples;
+            averageLoss += (loss - averageLoss) / rsiSamples;
+        } else {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+    }
+
+    private void updateCross(long time) {
+        if (samples < settings.getSlowWindow()) return;
+
+        // 比较窗口和，避免除法带来的误差（fast/slow窗口长度不同）
+        long fastScaled = fastSum * settings.getSlowWindow();
+        long slowScaled = slowSum * settings.getFastWindow();
+        int above = Long.compare(fastScaled, slowScaled);
+        if (above == 0) return;
+
+        if (fastAbove != 0 && above != fastAbove) {
+            lastCross = above > 0 ? CrossSignal.GOLDEN : CrossSignal.DEATH;
+            lastCrossTime = time;
+        }
+        fastAbove = above;
+    }
+
+    public IndicatorSettings getSettings() { return settings; }
+
+    public double getSma() {
+        return average(smaSum, settings.getSmaWindow());
+    }
+
+    public double getEma() {
+        return samples >= settings.getEmaPeriod() ? ema : Double.NaN;
+    }
+
+    public double getFastMa() {
+        return average(fastSum, settings.getFastWindow());
+    }
+
+    public double getSlowMa() {
+        return average(slowSum, settings.getSlowWindow());
+    }
+
+    // 相对强弱指数（0-100）
+    public double getRsi() {
+        if (rsiSamples < settings.getRsiPeriod()) return Double.NaN;
+        if (averageLoss == 0) return averageGain == 0 ? 50 : 100;
+        return 100 - 100 / (1 + averageGain / averageLoss);
+    }
+
+    public double getBollingerMiddle() {
+        return average(bollingerSum, settings.getBollingerWindow());
+    }
+
+    public double getBollingerUpper() {
+        return getBollingerMiddle() + settings.getBollingerWidth() * getStandardDeviation();
+    }
+
+    public double getBollingerLower() {
+        return getBollingerMiddle() - settings.getBollingerWidth() * getStandardDeviation();
+    }
+
+    // 布林带窗口内的总体标准差
+    public double getStandardDeviation() {
+        int window = settings.getBollingerWindow();
+        if (samples < window) return Double.NaN;
+        double mean = (double) bollingerSum / window;
+        return Math.sqrt(Math.max(0, bollingerSumSquares / window - mean * mean));
+    }
+
+    // 最近TREND_WINDOW条价格的平均涨跌幅
+    public double getTrend() {
+        return samples >= TREND_WINDOW ? trendSum / TREND_WINDOW : 0;
+    }
+
+    public CrossSignal getLastCross() { return lastCross; }
+    public long getLastCrossTime() { return lastCrossTime; }
+
+    // 快线当前是否在慢线上方
+    public boolean isFastAboveSlow() { return fastAbove > 0; }
+
+    private double average(long sum, int window) {
+        return samples >= window ? (double) sum / window : Double.NaN;
+    }
+}
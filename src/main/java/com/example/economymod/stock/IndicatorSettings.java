@@ -0,0 +1,55 @@
+package com.example.economymod.stock;
+
+import java.util.Objects;
+
+// 技术指标参数（按价格记录条数计算窗口），可在上市股票数据包中按股票配置
+public final class IndicatorSettings {
+    public static final IndicatorSettings DEFAULT = new IndicatorSettings(20, 12, 14, 20, 2.0, 120, 360);
+
+    private final int smaWindow;
+    private final int emaPeriod;
+    private final int rsiPeriod;
+    private final int bollingerWindow;
+    private final double bollingerWidth;  // 布林带宽度（标准差倍数）
+    private final int fastWindow;         // 均线交叉的快线
+    private final int slowWindow;         // 均线交叉的慢线
+
+    public IndicatorSettings(int smaWindow, int emaPeriod, int rsiPeriod, int bollingerWindow,
+                             double bollingerWidth, int fastWindow, int slowWindow) {
+        // 滚动窗口需要从价格历史中取出移出窗口的价格，不能超过历史容量
+        int maxWindow = PriceSeries.DEFAULT_CAPACITY - 1;
+        this.smaWindow = clamp(smaWindow, maxWindow);
+        this.emaPeriod = clamp(emaPeriod, maxWindow);
+        this.rsiPeriod = clamp(rsiPeriod, maxWindow);
+        this.bollingerWindow = clamp(Math.max(2, bollingerWindow), maxWindow);
+        this.bollingerWidth = Math.max(0.1, bollingerWidth);
+        this.fastWindow = clamp(Math.min(fastWindow, slowWindow - 1), maxWindow - 1);
+        this.slowWindow = clamp(Math.max(slowWindow, this.fastWindow + 1), maxWindow);
+    }
+
+    private static int clamp(int window, int max) {
+        return Math.max(1, Math.min(max, window));
+    }
+
+    public int getSmaWindow() { return smaWindow; }
+    public int getEmaPeriod() { return emaPeriod; }
+    public int getRsiPeriod() { return rsiPeriod; }
+    public int getBollingerWindow() { return bollingerWindow; }
+    public double getBollingerWidth() { return bollingerWidth; }
+    public int getFastWindow() { return fastWindow; }
+    public int getSlowWindow() { return slowWindow; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IndicatorSettings other)) return false;
+        return smaWindow == other.smaWindow && emaPeriod == other.emaPeriod && rsiPeriod == other.rsiPeriod
+                && bollingerWindow == other.bollingerWindow && bollingerWidth == other.bollingerWidth
+                && fastWindow == other.fastWindow && slowWindow == other.slowWindow;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(smaWindow, emaPeriod, rsiPeriod, bollingerWindow, bollingerWidth, fastWindow, slowWindow);
+    }
+}
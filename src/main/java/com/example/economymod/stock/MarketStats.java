@@ -0,0 +1,119 @@
+package com.example.economymod.stock;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// 市场统计 - 按价格和股本变化增量维护总市值、涨跌家数、市值加权指数和行业指数，所有读取都是O(1)
+// 指数 = 成分股总市值 / 除数。成分股增减、股票分割和回购改变市值但不是价格变动，此时调整除数使指数保持连续
+public class MarketStats {
+    public static final double BASE_INDEX = 1000; // 基期指数
+
+    private final Index market = new Index();
+    private final Map<String, Index> sectors = new HashMap<>();
+    private final Set<String> members = new HashSet<>(); // 成分股（活跃股票）代码
+    private int upCount;
+    private int downCount;
+    private int flatCount;
+
+    // 股票上市或恢复交易，加入指数
+    public synchronized void add(Stock stock) {
+        if (!stock.isActive() || !members.add(stock.getSymbol())) return;
+        market.addConstituent(stock.getMarketCap());
+        sector(stock.getIndustry()).addConstituent(stock.getMarketCap());
+        countDirection(stock.getPriceDirection(), 1);
+    }
+
+    // 股票停牌或退市，移出指数
+    public synchronized void remove(Stock stock) {
+        if (!members.remove(stock.getSymbol())) return;
+        market.addConstituent(-stock.getMarketCap());
+        sector(stock.getIndustry()).addConstituent(-stock.getMarketCap());
+        countDirection(stock.getPriceDirection(), -1);
+    }
+
+    // 价格变动：市值变化计入指数，同时更新涨跌家数
+    public synchronized void onPriceChanged(Stock stock, long oldMarketCap, int oldDirection) {
+        if (!members.contains(stock.getSymbol())) return;
+        long delta = stock.getMarketCap() - oldMarketCap;
+        market.move(delta);
+        sector(stock.getIndustry()).move(delta);
+        countDirection(oldDirection, -1);
+        countDirection(stock.getPriceDirection(), 1);
+    }
+
+    // 股本变化（分割、回购）：市值变化不影响指数点位，只调整除数
+    public synchronized void onSharesChanged(Stock stock, long oldMarketCap, int oldDirection) {
+        if (!members.contains(stock.getSymbol())) return;
+        long delta = stock.getMarketCap() - oldMarketCap;
+        market.addConstituent(delta);
+        sector(stock.getIndustry()).addConstituent(delta);
+        countDirection(oldDirection, -1);
+        countDirection(stock.getPriceDirection(), 1);
+    }
+
+    public synchronized long getTotalMarketCap() { return market.marketCap; }
+    public synchronized int getListedCompanies() { return members.size(); }
+    public synchronized int getUpCount() { return upCount; }
+    public synchronized int getDownCount() { return downCount; }
+    public synchronized int getFlatCount() { return flatCount; }
+    public synchronized double getIndex() { return market.value(); }
+
+    // 行业指数，行业不存在时为基期指数
+    public synchronized double getSectorIndex(String industry) {
+        Index index = sectors.get(industry);
+        return index != null ? index.value() : BASE_INDEX;
+    }
+
+    // 所有有成分股的行业指数（按行业名排序）
+    public synchronized Map<String, Double> getSectorIndices() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Index> entry : new TreeMap<>(sectors).entrySet()) {
+            if (entry.getValue().marketCap > 0) {
+                result.put(entry.getKey(), entry.getValue().value());
+            }
+        }
+        return result;
+    }
+
+    private Index sector(String industry) {
+        return sectors.computeIfAbsent(industry, k -> new Index());
+    }
+
+    private void countDirection(int direction, int count) {
+        if (direction > 0) upCount += count;
+        else if (direction < 0) downCount += count;
+        else flatCount += count;
+    }
+
+    // 一个市值加权指数
+    private static class Index {
+        long marketCap;
+        double divisor;
+
+        // 非价格因素的市值变化：按变化前后的市值比例调整除数，点位不变
+        void addConstituent(long delta) {
+            long newCap = marketCap + delta;
+            if (newCap <= 0) {
+                divisor = 0; // 成分股清空，之后重新从基期开始
+            } else if (marketCap <= 0 || divisor == 0) {
+                divisor = newCap / BASE_INDEX;
+            } else {
+                divisor *= (double) newCap / marketCap;
+            }
+            marketCap = Math.max(0, newCap);
+        }
+
+        // 价格变动带来的市值变化直接反映在点位上
+        void move(long delta) {
+            marketCap += delta;
+        }
+
+        double value() {
+            return divisor > 0 ? marketCap / divisor : BASE_INDEX;
+        }
+    }
+}
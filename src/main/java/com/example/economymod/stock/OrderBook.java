@@ -0,0 +1,304 @@
+package com.example.economymod.stock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// 限价订单簿 - 买卖双方按价格-时间优先撮合，支持限价单、市价单、部分成交和撤单
+// 订单存放在基本类型数组组成的订单池中（空闲槽位用链表复用），同一价位的订单是双向链表；
+// 价位按优先级升序存放在数组中，最优价位在末尾，成交后移除价位只需计数减一。撮合过程不分配对象
+public class OrderBook {
+    public static final long MARKET = 0; // 市价单的价格
+
+    private static final int SLOT_BITS = 24; // 订单号低位为池中槽位，高位为序号
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int NONE = -1;
+
+    // 撮合回调（在撮合过程中同步调用）
+    public interface Listener {
+        // 成交：maker为挂单方，taker为主动下单方，所有者为null表示系统做市
+        void onFill(long makerId, UUID maker, long takerId, UUID taker, boolean takerBuys, long price, long quantity);
+
+        // 挂单被撮合引擎撤销（自成交保护：同一玩家的新订单遇到自己的挂单时撤销旧挂单）
+        void onCancel(long orderId, UUID owner, boolean buy, long price, long remaining);
+    }
+
+    // 订单池（按槽位并列存放）
+    private long[] ids = new long[64];
+    private long[] prices = new long[64];
+    private long[] remaining = new long[64];
+    private long[] reserved = new long[64];  // 调用方托管的资金等，由调用方维护
+    private boolean[] buys = new boolean[64];
+    private UUID[] owners = new UUID[64];
+    private int[] prev = new int[64];
+    private int[] next = new int[64];
+    private int poolSize;
+    private int freeHead = NONE;
+    private long sequence;
+    private int openOrders;
+
+    private final Side bids = new Side(true);
+    private final Side asks = new Side(false);
+
+    // 提交订单并立即撮合，限价单未成交的部分挂入订单簿，市价单未成交的部分作废
+    // 返回订单号；撮合结束后可用isOpen判断订单是否仍在簿中
+    public long submit(boolean buy, long price, long quantity, UUID owner, Listener listener) {
+        if (quantity <= 0 || price < 0) return 0;
+
+        int slot = allocate();
+        long id = (++sequence << SLOT_BITS) | slot;
+        ids[slot] = id;
+        prices[slot] = price;
+        remaining[slot] = quantity;
+        reserved[slot] = 0;
+        buys[slot] = buy;
+        owners[slot] = owner;
+
+        Side opposite = buy ? asks : bids;
+        while (remaining[slot] > 0 && opposite.count > 0) {
+            int level = opposite.count - 1;
+            long levelPrice = opposite.price(level);
+            if (price != MARKET && (buy ? levelPrice > price : levelPrice < price)) break;
+
+            int maker = opposite.heads[level];
+            while (maker != NONE && remaining[slot] > 0) {
+                int nextMaker = next[maker];
+                if (owner != null && owner.equals(owners[maker])) {
+                    long rest = remaining[maker];
+                    listener.onCancel(ids[maker], owners[maker], buys[maker], prices[maker], rest);
+                    unlink(opposite, level, maker);
+                    release(maker);
+                    openOrders--;
+                } else {
+                    long fill = Math.min(remaining[slot], remaining[maker]);
+                    remaining[slot] -= fill;
+                    remaining[maker] -= fill;
+                    opposite.volumes[level] -= fill;
+                    listener.onFill(ids[maker], owners[maker], id, owner, buy, levelPrice, fill);
+                    if (remaining[maker] == 0) {
+                        unlink(opposite, level, maker);
+                        release(maker);
+                        openOrders--;
+                    }
+                }
+                maker = nextMaker;
+            }
+        }
+
+        if (remaining[slot] > 0 && price != MARKET) {
+            Side own = buy ? bids : asks;
+            int level = own.levelFor(price);
+            int tail = own.tails[level];
+            prev[slot] = tail;
+            next[slot] = NONE;
+            if (tail == NONE) {
+                own.heads[level] = slot;
+            } else {
+                next[tail] = slot;
+            }
+            own.tails[level] = slot;
+            own.volumes[level] += remaining[slot];
+            openOrders++;
+        } else {
+            release(slot);
+        }
+        return id;
+    }
+
+    // 撤单，返回撤销的剩余数量（订单不存在时返回0）
+    public long cancel(long orderId) {
+        if (!isOpen(orderId)) return 0;
+
+        int slot = (int) (orderId & SLOT_MASK);
+        Side side = buys[slot] ? bids : asks;
+        int level = side.find(prices[slot]);
+        long rest = remaining[slot];
+        unlink(side, level, slot);
+        release(slot);
+        openOrders--;
+        return rest;
+    }
+
+    public boolean isOpen(long orderId) {
+        int slot = (int) (orderId & SLOT_MASK);
+        return orderId != 0 && slot < poolSize && ids[slot] == orderId;
+    }
+
+    // 以下查询只对仍在簿中的订单有效
+    public UUID getOwner(long orderId) { return owners[(int) (orderId & SLOT_MASK)]; }
+    public boolean isBuy(long orderId) { return buys[(int) (orderId & SLOT_MASK)]; }
+    public long getPrice(long orderId) { return prices[(int) (orderId & SLOT_MASK)]; }
+    public long getRemaining(long orderId) { return remaining[(int) (orderId & SLOT_MASK)]; }
+    public long getReserved(long orderId) { return reserved[(int) (orderId & SLOT_MASK)]; }
+
+    public void setReserved(long orderId, long amount) {
+        if (isOpen(orderId)) {
+            reserved[(int) (orderId & SLOT_MASK)] = amount;
+        }
+    }
+
+    public long getBestBid() {
+        return bids.count > 0 ? bids.price(bids.count - 1) : 0;
+    }
+
+    public long getBestAsk() {
+        return asks.count > 0 ? asks.price(asks.count - 1) : 0;
+    }
+
+    public int getOpenOrderCount() {
+        return openOrders;
+    }
+
+    // 按当前挂单计算买入/卖出指定数量需要吃到的最差价格（对手方为空时返回0）
+    public long getMarketablePrice(boolean buy, long quantity) {
+        Side opposite = buy ? asks : bids;
+        long left = quantity;
+        long price = 0;
+        for (int level = opposite.count - 1; level >= 0 && left > 0; level--) {
+            left -= opposite.volumes[level];
+            price = opposite.price(level);
+        }
+        return price;
+    }
+
+    // 从最优价位开始的盘口深度，返回写入的价位数
+    public int depth(boolean bidSide, long[] outPrices, long[] outVolumes) {
+        Side side = bidSide ? bids : asks;
+        int levels = Math.min(side.count, Math.min(outPrices.length, outVolumes.length));
+        for (int i = 0; i < levels; i++) {
+            int level = side.count - 1 - i;
+            outPrices[i] = side.price(level);
+            outVolumes[i] = side.volumes[level];
+        }
+        return levels;
+    }
+
+    // 某个所有者（null为系统做市）的所有挂单号
+    public List<Long> getOrderIds(UUID owner) {
+        List<Long> result = new ArrayList<>();
+        for (int slot = 0; slot < poolSize; slot++) {
+            long id = ids[slot];
+            if (id != 0 && (owner == null ? owners[slot] == null : owner.equals(owners[slot]))) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    // 所有玩家挂单号（不含系统做市）
+    public List<Long> getPlayerOrderIds() {
+        List<Long> result = new ArrayList<>();
+        for (int slot = 0; slot < poolSize; slot++) {
+            if (ids[slot] != 0 && owners[slot] != null) {
+                result.add(ids[slot]);
+            }
+        }
+        return result;
+    }
+
+    private void unlink(Side side, int level, int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            side.heads[level] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            side.tails[level] = before;
+        } else {
+            prev[after] = before;
+        }
+        side.volumes[level] -= remaining[slot];
+        if (side.heads[level] == NONE) {
+            side.removeLevel(level);
+        }
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (poolSize == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+            reserved = Arrays.copyOf(reserved, capacity);
+            buys = Arrays.copyOf(buys, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return poolSize++;
+    }
+
+    private void release(int slot) {
+        ids[slot] = 0;
+        owners[slot] = null;
+        remaining[slot] = 0;
+        reserved[slot] = 0;
+        next[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    // 一侧的价位：排序键升序存放（买方为价格，卖方为价格取负），最优价位在末尾
+    private static class Side {
+        private final boolean bid;
+        private long[] keys = new long[16];
+        private int[] heads = new int[16];
+        private int[] tails = new int[16];
+        private long[] volumes = new long[16];
+        private int count;
+
+        Side(boolean bid) {
+            this.bid = bid;
+        }
+
+        long price(int level) {
+            return bid ? keys[level] : -keys[level];
+        }
+
+        int find(long price) {
+            return Arrays.binarySearch(keys, 0, count, bid ? price : -price);
+        }
+
+        // 查找价位，不存在时插入空价位
+        int levelFor(long price) {
+            int index = find(price);
+            if (index >= 0) return index;
+
+            index = -index - 1;
+            if (count == keys.length) {
+                int capacity = keys.length * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                heads = Arrays.copyOf(heads, capacity);
+                tails = Arrays.copyOf(tails, capacity);
+                volumes = Arrays.copyOf(volumes, capacity);
+            }
+            int moved = count - index;
+            System.arraycopy(keys, index, keys, index + 1, moved);
+            System.arraycopy(heads, index, heads, index + 1, moved);
+            System.arraycopy(tails, index, tails, index + 1, moved);
+            System.arraycopy(volumes, index, volumes, index + 1, moved);
+            keys[index] = bid ? price : -price;
+            heads[index] = NONE;
+            tails[index] = NONE;
+            volumes[index] = 0;
+            count++;
+            return index;
+        }
+
+        void removeLevel(int level) {
+            int moved = count - level - 1;
+            System.arraycopy(keys, level + 1, keys, level, moved);
+            System.arraycopy(heads, level + 1, heads, level, moved);
+            System.arraycopy(tails, level + 1, tails, level, moved);
+            System.arraycopy(volumes, level + 1, volumes, level, moved);
+            count--;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.economymod.stock;
 
+import com.example.economymod.economy.EconomyClock;
+
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -19,7 +21,7 @@ public class Portfolio {
         this.transactions = new ArrayList<>();
         this.totalInvested = 0;
         this.totalDividends = 0;
-        this.lastUpdate = LocalDateTime.now();
+        this.lastUpdate = EconomyClock.now();
     }
     
     // 买入股票
@@ -41,12 +43,12 @@ public class Portfolio {
         // 记录交易
         StockTransaction transaction = new StockTransaction(
             symbol, StockTransaction.TransactionType.BUY, 
-            shares, pricePerShare, LocalDateTime.now()
+            shares, pricePerShare, EconomyClock.now()
         );
         transactions.add(transaction);
         
         totalInvested += totalCost;
-        lastUpdate = LocalDateTime.now();
+        lastUpdate = EconomyClock.now();
         
         return true;
     }
@@ -71,14 +73,32 @@ public class Portfolio {
         // 记录交易
         StockTransaction transaction = new StockTransaction(
             symbol, StockTransaction.TransactionType.SELL,
-            shares, pricePerShare, LocalDateTime.now()
+            shares, pricePerShare, EconomyClock.now()
         );
         transactions.add(transaction);
         
-        lastUpdate = LocalDateTime.now();
+        lastUpdate = EconomyClock.now();
+        return true;
+    }
+    
+    // 为卖单冻结持仓，可用股数不足时返回false
+    public boolean reserveShares(String symbol, long shares) {
+        Holding holding = holdings.get(symbol);
+        if (shares <= 0 || holding == null || holding.getAvailableShares() < shares) {
+            return false;
+        }
+        holding.reserved += shares;
         return true;
     }
     
+    // 解冻卖单未成交的持仓
+    public void releaseShares(String symbol, long shares) {
+        Holding holding = holdings.get(symbol);
+        if (holding != null) {
+            holding.reserved = Math.max(0, holding.reserved - shares);
+        }
+    }
+    
     // 计算投资组合总价值
     public long calculateTotalValue(StockMarket stockMarket) {
         long totalValue = 0;
@@ -129,14 +149,14 @@ public class Portfolio {
                 // 记录股息交易
                 StockTransaction dividendTransaction = new StockTransaction(
                     holding.getSymbol(), StockTransaction.TransactionType.DIVIDEND,
-                    0, dividend, LocalDateTime.now()
+                    0, dividend, EconomyClock.now()
                 );
                 transactions.add(dividendTransaction);
             }
         }
         
         totalDividends += totalDividend;
-        lastUpdate = LocalDateTime.now();
+        lastUpdate = EconomyClock.now();
         
         return totalDividend;
     }
@@ -272,13 +292,14 @@ public class Portfolio {
         private String symbol;
         private long shares;
         private long totalCost;
+        private long reserved;      // 挂出的卖单冻结的股数
         private LocalDateTime firstPurchase;
         
         public Holding(String symbol, long shares, long pricePerShare) {
             this.symbol = symbol;
             this.shares = shares;
             this.totalCost = shares * pricePerShare;
-            this.firstPurchase = LocalDateTime.now();
+            this.firstPurchase = EconomyClock.now();
         }
         
         public void addShares(long newShares, long pricePerShare) {
@@ -304,6 +325,8 @@ public class Portfolio {
         // Getter方法
         public String getSymbol() { return symbol; }
         public long getShares() { return shares; }
+        public long getReservedShares() { return reserved; }
+        public long getAvailableShares() { return shares - reserved; }
         public long getTotalCost() { return totalCost; }
         public LocalDateTime getFirstPurchase() { return firstPurchase; }
     }
@@ -0,0 +1,9 @@
+package com.example.economymod.stock;
+
+import java.util.SplittableRandom;
+
+// 股价随机模型 - 根据模拟状态中第i只股票的数据和本次的标准正态冲击计算单次涨跌幅
+// 实现必须是无状态的：模拟在多个线程上并行调用，随机数只能使用传入的random
+public interface PriceModel {
+    double nextReturn(PriceSimulator.State state, int i, double shock, SplittableRandom random);
+}
@@ -0,0 +1,89 @@
+package com.example.economymod.stock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 股价模型注册表和内置模型，其他模组或数据包可以按名称注册新模型
+public final class PriceModels {
+    public static final String DEFAULT = "gaussian";
+
+    private static final Map<String, PriceModel> models = new ConcurrentHashMap<>();
+
+    static {
+        register(DEFAULT, new GaussianTrend());
+        register("gbm", new GeometricBrownian());
+        register("ou", new OrnsteinUhlenbeck());
+        register("jump", new JumpDiffusion());
+    }
+
+    private PriceModels() {
+    }
+
+    public static void register(String name, PriceModel model) {
+        models.put(name.toLowerCase(Locale.ROOT), model);
+    }
+
+    // 按名称取模型，名称为空或未注册时使用默认模型
+    public static PriceModel get(String name) {
+        PriceModel model = name != null ? models.get(name.toLowerCase(Locale.ROOT)) : null;
+        return model != null ? model : models.get(DEFAULT);
+    }
+
+    public static boolean exists(String name) {
+        return models.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    public static List<String> names() {
+        List<String> names = new ArrayList<>(models.keySet());
+        names.sort(null);
+        return names;
+    }
+
+    // 默认模型：正态波动加外部漂移，再叠加最近价格趋势的10%
+    private static class GaussianTrend implements PriceModel {
+        @Override
+        public double nextReturn(PriceSimulator.State state, int i, double shock, SplittableRandom random) {
+            return shock * state.getVolatility(i) + state.getDrift(i) + state.getTrend(i) * 0.1;
+        }
+    }
+
+    // 几何布朗运动：对数收益率为正态分布，价格永远为正且波动与价格成比例
+    private static class GeometricBrownian implements PriceModel {
+        @Override
+        public double nextReturn(PriceSimulator.State state, int i, double shock, SplittableRandom random) {
+            double sigma = state.getVolatility(i);
+            return Math.exp(state.getDrift(i) - 0.5 * sigma * sigma + sigma * shock) - 1;
+        }
+    }
+
+    // Ornstein-Uhlenbeck均值回归：对数价格以KAPPA的速度回到长期均线
+    private static class OrnsteinUhlenbeck implements PriceModel {
+        private static final double KAPPA = 0.05;
+
+        @Override
+        public double nextReturn(PriceSimulator.State state, int i, double shock, SplittableRandom random) {
+            double reversion = KAPPA * Math.log(state.getAnchor(i) / state.getPrice(i));
+            return reversion + state.getDrift(i) + shock * state.getVolatility(i);
+        }
+    }
+
+    // Merton跳跃扩散：正态波动之外以JUMP_PROBABILITY的概率出现幅度更大的跳空
+    private static class JumpDiffusion implements PriceModel {
+        private static final double JUMP_PROBABILITY = 0.02;
+        private static final double JUMP_SCALE = 3.0; // 跳跃幅度的标准差（波动率的倍数）
+
+        @Override
+        public double nextReturn(PriceSimulator.State state, int i, double shock, SplittableRandom random) {
+            double sigma = state.getVolatility(i);
+            double result = shock * sigma + state.getDrift(i);
+            if (random.nextDouble() < JUMP_PROBABILITY) {
+                result += random.nextGaussian() * sigma * JUMP_SCALE;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.economymod.stock;
+
+// 价格历史 - 固定容量的环形缓冲区，价格、成交量、时间戳分别存放在并列的基本类型数组中
+// 写满后覆盖最旧的记录，追加为O(1)；读取方按下标直接访问（0为最旧），不复制数据
+public class PriceSeries {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final long[] prices;
+    private final long[] volumes;
+    private final long[] times;   // 记录时间（毫秒）
+    private int start;            // 最旧记录所在位置
+    private int size;
+
+    public PriceSeries(int capacity) {
+        this.prices = new long[capacity];
+        this.volumes = new long[capacity];
+        this.times = new long[capacity];
+    }
+
+    // 追加一条记录，已满时覆盖最旧的记录
+    void add(long price, long volume, long time) {
+        int slot;
+        if (size < prices.length) {
+            slot = (start + size) % prices.length;
+            size++;
+        } else {
+            slot = start;
+            start = (start + 1) % prices.length;
+        }
+        prices[slot] = price;
+        volumes[slot] = volume;
+        times[slot] = time;
+    }
+
+    // 股票分割：一次遍历原地调整所有价格
+    void adjustPrices(int ratio) {
+        for (int i = 0; i < size; i++) {
+            prices[physical(i)] /= ratio;
+        }
+    }
+
+    public int size() { return size; }
+    public int capacity() { return prices.length; }
+    public boolean isEmpty() { return size == 0; }
+
+    // 按下标读取（0为最旧，size()-1为最新）
+    public long getPrice(int index) { return prices[physical(index)]; }
+    public long getVolume(int index) { return volumes[physical(index)]; }
+    public long getTime(int index) { return times[physical(index)]; }
+
+    // 从最新记录往前数的第ago条价格（0为最新）
+    public long getRecentPrice(int ago) {
+        return prices[physical(size - 1 - ago)];
+    }
+
+    private int physical(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int slot = start + index;
+        return slot < prices.length ? slot : slot - prices.length;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.economymod.stock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+// 股价模拟引擎 - 每次调价先把所有股票的数据装入并列数组（结构数组），再分区并行推进一步
+// 每个分区使用从本次根随机源顺序拆分出的SplittableRandom，结果与线程调度无关；股票较少时直接在当前线程计算
+// 每次先抽取一组市场/行业因子冲击，所有股票共用，使同一市场和行业的股票同涨同跌
+// 双缓冲：服务器线程装载后台缓冲区并交给工作线程计算，算完后工作线程通过原子引用发布，
+// 服务器线程在下一次调价时取走结果并与前台缓冲区互换，只付出一次指针交换的代价
+public class PriceSimulator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PriceSimulator.class);
+    private static final int PARTITION_SIZE = 512;     // 每个并行任务处理的股票数
+    private static final double MAX_CHANGE = 0.2;      // 单次涨跌幅限制（±20%）
+
+    private final SplittableRandom root;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EconomyMod-PriceSimulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<State> ready = new AtomicReference<>(); // 已算完、等待交换的缓冲区
+    private State front = new State();  // 上一次应用的结果（只在服务器线程访问）
+    private State back = new State();   // 正在装载或计算的缓冲区
+    private CompletableFuture<Void> pending; // 正在计算的任务（只在服务器线程访问）
+    private FactorModel factorModel;
+
+    public PriceSimulator(long seed) {
+        this.root = new SplittableRandom(seed);
+    }
+
+    public PriceSimulator() {
+        this(System.nanoTime());
+    }
+
+    // 上市股票变化后更换因子模型（下一次装载时生效，不影响正在计算的缓冲区）
+    public void setFactorModel(FactorModel factorModel) {
+        this.factorModel = factorModel;
+    }
+
+    // 是否有正在计算的缓冲区
+    public boolean isBusy() {
+        return pending != null;
+    }
+
+    // 开始装载后台缓冲区（计算进行中时不能调用）
+    public void clear() {
+        if (isBusy()) {
+            throw new IllegalStateException("Back buffer is being simulated");
+        }
+        State state = back;
+        Arrays.fill(state.stocks, 0, state.size, null);
+        state.size = 0;
+        state.factorModel = factorModel;
+        int factorCount = factorModel != null ? factorModel.getFactorCount() : 0;
+        if (state.factors.length != factorCount) {
+            state.factors = new double[factorCount];
+        }
+    }
+
+    // 装入一只股票，drift为外部因素（如关联的大宗商品涨跌）带来的漂移
+    public void add(Stock stock, double drift) {
+        State state = back;
+        state.ensureCapacity(state.size + 1);
+        int i = state.size++;
+        IndicatorEngine indicators = stock.getIndicators();
+        double anchor = indicators.getSlowMa();
+        if (Double.isNaN(anchor)) anchor = indicators.getSma();
+        if (Double.isNaN(anchor)) anchor = stock.getCurrentPrice();
+
+        state.stocks[i] = stock;
+        state.models[i] = PriceModels.get(stock.getPriceModel());
+        state.rows[i] = state.factorModel != null ? state.factorModel.rowOf(stock.getSymbol()) : -1;
+        state.prices[i] = stock.getCurrentPrice();
+        state.volatilities[i] = stock.getVolatility();
+        state.drifts[i] = drift;
+        state.trends[i] = indicators.getTrend();
+        state.anchors[i] = Math.max(1, anchor);
+    }
+
+    // 在工作线程上计算后台缓冲区，完成后发布到ready
+    public void submit() {
+        State state = back;
+        pending = CompletableFuture.runAsync(() -> compute(state), worker);
+    }
+
+    // 在当前线程计算后台缓冲区并发布
+    public void computeNow() {
+        State state = back;
+        compute(state);
+        pending = CompletableFuture.completedFuture(null);
+    }
+
+    // 取走已算完的结果并与前台缓冲区互换；还没算完时返回null
+    public State swap() {
+        State result = ready.getAndSet(null);
+        if (result == null) return null;
+        back = front;
+        front = result;
+        pending = null;
+        return result;
+    }
+
+    // 等待正在计算的缓冲区完成后交换，没有计算任务时返回null
+    public State await() {
+        if (pending == null) return null;
+        pending.join();
+        return swap();
+    }
+
+    private void compute(State state) {
+        try {
+            simulate(state);
+        } catch (RuntimeException e) {
+            LOGGER.error("股价模拟失败", e);
+            state.size = 0;
+        }
+        ready.set(state);
+    }
+
+    // 推进一步，计算所有股票的涨跌幅和成交量
+    private void simulate(State state) {
+        int partitions = (state.size + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        SplittableRandom tick = root.split();
+        for (int f = 0; f < state.factors.length; f++) {
+            state.factors[f] = tick.nextGaussian();
+        }
+        SplittableRandom[] randoms = new SplittableRandom[partitions];
+        for (int p = 0; p < partitions; p++) {
+            randoms[p] = tick.split();
+        }
+
+        if (partitions <= 1) {
+            if (partitions == 1) {
+                simulateRange(state, 0, state.size, randoms[0]);
+            }
+        } else {
+            ForkJoinPool.commonPool().invoke(new Partitions(state, randoms, 0, partitions));
+        }
+    }
+
+    private void simulateRange(State state, int from, int to, SplittableRandom random) {
+        FactorModel model = state.factorModel;
+        for (int i = from; i < to; i++) {
+            double own = random.nextGaussian();
+            double shock = model != null ? model.shock(state.rows[i], state.factors, own) : own;
+            double change = state.models[i].nextReturn(state, i, shock, random);
+            state.changes[i] = Math.max(-MAX_CHANGE, Math.min(MAX_CHANGE, change));
+            state.volumes[i] = Math.abs((long) (random.nextGaussian() * 1000)) + 100;
+        }
+    }
+
+    // 按分区二分拆分的并行任务
+    private class Partitions extends RecursiveAction {
+        private final State state;
+        private final SplittableRandom[] randoms;
+        private final int from;
+        private final int to;
+
+        Partitions(State state, SplittableRandom[] randoms, int from, int to) {
+            this.state = state;
+            this.randoms = randoms;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int start = from * PARTITION_SIZE;
+                simulateRange(state, start, Math.min(state.size, start + PARTITION_SIZE), randoms[from]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Partitions(state, randoms, from, middle), new Partitions(state, randoms, middle, to));
+        }
+    }
+
+    // 模拟状态（一个缓冲区）：每个字段一个数组，下标为股票在本轮中的序号
+    public static class State {
+        private int size;
+        private FactorModel factorModel;            // 装载时的因子模型
+        private double[] factors = new double[0];   // 本次的因子冲击
+        private Stock[] stocks = new Stock[64];
+        private PriceModel[] models = new PriceModel[64];
+        private int[] rows = new int[64];           // 在因子模型中的行
+        private double[] prices = new double[64];
+        private double[] volatilities = new double[64];
+        private double[] drifts = new double[64];
+        private double[] trends = new double[64];   // 最近价格的平均涨跌幅
+        private double[] anchors = new double[64];  // 长期均价（均值回归的目标）
+        private double[] changes = new double[64];  // 计算出的涨跌幅
+        private long[] volumes = new long[64];
+
+        public int size() { return size; }
+        public Stock getStock(int i) { return stocks[i]; }
+        public double getChange(int i) { return changes[i]; }
+        public long getVolume(int i) { return volumes[i]; }
+        public double getPrice(int i) { return prices[i]; }
+        public double getVolatility(int i) { return volatilities[i]; }
+        public double getDrift(int i) { return drifts[i]; }
+        public double getTrend(int i) { return trends[i]; }
+        public double getAnchor(int i) { return anchors[i]; }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= prices.length) return;
+            int newCapacity = Math.max(capacity, prices.length * 2);
+            stocks = Arrays.copyOf(stocks, newCapacity);
+            models = Arrays.copyOf(models, newCapacity);
+            rows = Arrays.copyOf(rows, newCapacity);
+            prices = Arrays.copyOf(prices, newCapacity);
+            volatilities = Arrays.copyOf(volatilities, newCapacity);
+            drifts = Arrays.copyOf(drifts, newCapacity);
+            trends = Arrays.copyOf(trends, newCapacity);
+            anchors = Arrays.copyOf(anchors, newCapacity);
+            changes = Arrays.copyOf(changes, newCapacity);
+            volumes = Arrays.copyOf(volumes, newCapacity);
+        }
+    }
+}
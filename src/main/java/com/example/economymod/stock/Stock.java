@@ -1,9 +1,10 @@
 package com.example.economymod.stock;
 
+import com.example.economymod.Config;
+import com.example.economymod.economy.EconomyClock;
+
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.Objects;
 
 // 股票数据模型
 public class Stock {
@@ -11,36 +12,39 @@ public class Stock {
     private String companyName;      // 公司名称
     private String industry;         // 行业分类
     private long currentPrice;       // 当前价格（金币）
-    private long openPrice;          // 开盘价
-    private long highPrice;          // 最高价
-    private long lowPrice;           // 最低价
     private long previousClose;      // 前收盘价
     private long totalShares;        // 总股数
     private long availableShares;    // 可交易股数
     private long marketCap;          // 市值
     private double volatility;       // 波动率
-    private List<PriceHistory> priceHistory; // 价格历史
+    private PriceSeries priceHistory; // 价格历史
+    private IndicatorEngine indicators; // 技术指标
+    private final CandleSeries[] candles; // 按周期的K线（分钟/小时/日）
+    private final VolumeWindow volume24h = new VolumeWindow(); // 最近24小时成交量
     private LocalDateTime lastUpdate; // 最后更新时间
     private boolean isActive;        // 是否活跃交易
     private String description;      // 公司描述
-    
-    private static final Random random = new Random();
+    private String commodityKey;     // 关联的大宗商品物品指纹
+    private double commodityMark;    // 上次调价时的大宗商品价格
+    private String priceModel;       // 股价随机模型名称，为空时使用配置的默认模型
     
     public Stock(String symbol, String companyName, String industry, long initialPrice, long totalShares) {
         this.symbol = symbol;
         this.companyName = companyName;
         this.industry = industry;
         this.currentPrice = initialPrice;
-        this.openPrice = initialPrice;
-        this.highPrice = initialPrice;
-        this.lowPrice = initialPrice;
         this.previousClose = initialPrice;
         this.totalShares = totalShares;
         this.availableShares = totalShares;
         this.marketCap = initialPrice * totalShares;
         this.volatility = 0.05; // 5%默认波动率
-        this.priceHistory = new ArrayList<>();
-        this.lastUpdate = LocalDateTime.now();
+        this.priceHistory = new PriceSeries(PriceSeries.DEFAULT_CAPACITY);
+        this.indicators = new IndicatorEngine(IndicatorSettings.DEFAULT);
+        this.candles = new CandleSeries[CandleSeries.Resolution.values().length];
+        for (CandleSeries.Resolution resolution : CandleSeries.Resolution.values()) {
+            candles[resolution.ordinal()] = new CandleSeries(resolution);
+        }
+        this.lastUpdate = EconomyClock.now();
         this.isActive = true;
         this.description = "一家在" + industry + "领域的知名公司";
         
@@ -48,86 +52,34 @@ public class Stock {
         recordPrice(initialPrice, 0);
     }
     
-    // 更新股票价格（模拟市场波动）
-    public void updatePrice() {
-        if (!isActive) return;
-        
-        // 基于波动率和随机因素计算新价格
-        double changePercent = (random.nextGaussian() * volatility);
-        
-        // 添加一些市场趋势影响
-        double trendFactor = calculateTrendFactor();
-        changePercent += trendFactor;
-        
-        // 限制单次波动幅度（-20% 到 +20%）
-        changePercent = Math.max(-0.2, Math.min(0.2, changePercent));
-        
-        long newPrice = Math.max(1, (long)(currentPrice * (1 + changePercent)));
-        long volume = Math.abs((long)(random.nextGaussian() * 1000)) + 100;
-        
-        setPriceWithVolume(newPrice, volume);
-    }
-    
     // 设置新价格和交易量
     public void setPriceWithVolume(long newPrice, long volume) {
+        long oldMarketCap = marketCap;
+        int oldDirection = getPriceDirection();
         previousClose = currentPrice;
         currentPrice = newPrice;
         
-        // 更新日内高低价
-        if (isNewTradingDay()) {
-            openPrice = newPrice;
-            highPrice = newPrice;
-            lowPrice = newPrice;
-        } else {
-            highPrice = Math.max(highPrice, newPrice);
-            lowPrice = Math.min(lowPrice, newPrice);
-        }
-        
-        // 记录价格历史
+        // 记录价格历史（同时并入各周期K线，日线的开高低即日内行情）
         recordPrice(newPrice, volume);
         
         // 更新市值
         marketCap = newPrice * totalShares;
-        lastUpdate = LocalDateTime.now();
+        lastUpdate = EconomyClock.now();
+        StockMarket.onPriceChanged(this, oldMarketCap, oldDirection);
     }
     
     // 记录价格历史
     private void recordPrice(long price, long volume) {
-        priceHistory.add(new PriceHistory(price, volume, LocalDateTime.now()));
-        
-        // 限制历史记录数量（保留最近1000条）
-        if (priceHistory.size() > 1000) {
-            priceHistory.remove(0);
-        }
-    }
-    
-    // 计算趋势因子
-    private double calculateTrendFactor() {
-        if (priceHistory.size() < 10) return 0;
-        
-        // 基于最近的价格趋势计算
-        List<PriceHistory> recent = priceHistory.subList(
-            Math.max(0, priceHistory.size() - 10), priceHistory.size());
+        long now = EconomyClock.millis();
         
-        double totalChange = 0;
-        for (int i = 1; i < recent.size(); i++) {
-            double change = (double)(recent.get(i).getPrice() - recent.get(i-1).getPrice()) 
-                           / recent.get(i-1).getPrice();
-            totalChange += change;
+        // 环形缓冲区只保留最近1000条，写满后覆盖最旧的记录
+        priceHistory.add(price, volume, now);
+        indicators.update(priceHistory, priceHistory.size() - 1);
+        for (CandleSeries series : candles) {
+            series.update(price, volume, now);
         }
-        
-        // 返回平均变化的10%作为趋势影响
-        return (totalChange / recent.size()) * 0.1;
-    }
-    
-    // 检查是否为新交易日
-    private boolean isNewTradingDay() {
-        if (priceHistory.isEmpty()) return true;
-        
-        LocalDateTime lastRecord = priceHistory.get(priceHistory.size() - 1).getTimestamp();
-        LocalDateTime now = LocalDateTime.now();
-        
-        return !lastRecord.toLocalDate().equals(now.toLocalDate());
+        volume24h.add(volume, now);
+        StockMarket.recordVolume(volume, now);
     }
     
     // 计算价格变化
@@ -135,6 +87,11 @@ public class Stock {
         return currentPrice - previousClose;
     }
     
+    // 涨跌方向：1上涨，-1下跌，0平盘
+    public int getPriceDirection() {
+        return Long.signum(currentPrice - previousClose);
+    }
+    
     // 计算价格变化百分比
     public double getPriceChangePercent() {
         if (previousClose == 0) return 0;
@@ -156,13 +113,13 @@ public class Stock {
     
     // 计算移动平均价格
     public long getMovingAverage(int days) {
-        if (priceHistory.size() < days) return currentPrice;
-        
-        List<PriceHistory> recent = priceHistory.subList(
-            Math.max(0, priceHistory.size() - days), priceHistory.size());
+        if (days <= 0 || priceHistory.size() < days) return currentPrice;
         
-        long sum = recent.stream().mapToLong(PriceHistory::getPrice).sum();
-        return sum / recent.size();
+        long sum = 0;
+        for (int ago = 0; ago < days; ago++) {
+            sum += priceHistory.getRecentPrice(ago);
+        }
+        return sum / days;
     }
     
     // 买入股票（减少可用股数）
@@ -185,25 +142,31 @@ public class Stock {
     public void stockSplit(int ratio) {
         if (ratio <= 1) return;
         
+        long oldMarketCap = marketCap;
+        int oldDirection = getPriceDirection();
         totalShares *= ratio;
         availableShares *= ratio;
         currentPrice /= ratio;
-        openPrice /= ratio;
-        highPrice /= ratio;
-        lowPrice /= ratio;
         previousClose /= ratio;
+        marketCap = currentPrice * totalShares;
+        StockMarket.getStats().onSharesChanged(this, oldMarketCap, oldDirection);
         
-        // 调整价格历史
-        for (PriceHistory history : priceHistory) {
-            history.adjustPrice(ratio);
+        // 调整价格历史并重新计算指标
+        priceHistory.adjustPrices(ratio);
+        for (CandleSeries series : candles) {
+            series.adjustPrices(ratio);
         }
+        indicators = IndicatorEngine.rebuild(indicators.getSettings(), priceHistory);
     }
     
     // 股票回购
     public void buyback(long shares, long pricePerShare) {
         if (shares > 0 && shares <= availableShares) {
+            long oldMarketCap = marketCap;
             totalShares -= shares;
             availableShares -= shares;
+            marketCap = currentPrice * totalShares;
+            StockMarket.getStats().onSharesChanged(this, oldMarketCap, getPriceDirection());
             
             // 回购通常会推高股价
             long newPrice = (long)(currentPrice * 1.02); // 2%溢价
@@ -235,15 +198,32 @@ public class Stock {
     public String getCompanyName() { return companyName; }
     public String getIndustry() { return industry; }
     public long getCurrentPrice() { return currentPrice; }
-    public long getOpenPrice() { return openPrice; }
-    public long getHighPrice() { return highPrice; }
-    public long getLowPrice() { return lowPrice; }
+    public CandleSeries getCandles(CandleSeries.Resolution resolution) { return candles[resolution.ordinal()]; }
+    
+    // 日内行情取自当日的日K线，当日还没有成交时为当前价
+    public long getOpenPrice() {
+        CandleSeries daily = getCandles(CandleSeries.Resolution.DAY);
+        return daily.isCurrent() ? daily.getOpen(daily.size() - 1) : currentPrice;
+    }
+    
+    public long getHighPrice() {
+        CandleSeries daily = getCandles(CandleSeries.Resolution.DAY);
+        return daily.isCurrent() ? daily.getHigh(daily.size() - 1) : currentPrice;
+    }
+    
+    public long getLowPrice() {
+        CandleSeries daily = getCandles(CandleSeries.Resolution.DAY);
+        return daily.isCurrent() ? daily.getLow(daily.size() - 1) : currentPrice;
+    }
+    
     public long getPreviousClose() { return previousClose; }
     public long getTotalShares() { return totalShares; }
     public long getAvailableShares() { return availableShares; }
     public long getMarketCap() { return marketCap; }
     public double getVolatility() { return volatility; }
-    public List<PriceHistory> getPriceHistory() { return new ArrayList<>(priceHistory); }
+    public PriceSeries getPriceHistory() { return priceHistory; } // 只读视图，不复制
+    public IndicatorEngine getIndicators() { return indicators; }
+    public long getVolume24h() { return volume24h.getTotal(EconomyClock.millis()); }
     public LocalDateTime getLastUpdate() { return lastUpdate; }
     public boolean isActive() { return isActive; }
     public String getDescription() { return description; }
@@ -252,27 +232,38 @@ public class Stock {
         this.volatility = Math.max(0.001, Math.min(1.0, volatility));
     }
     
-    public void setActive(boolean active) { this.isActive = active; }
-    public void setDescription(String description) { this.description = description; }
+    // 停牌/复牌时同步移出/加入市场指数和排行榜
+    public void setActive(boolean active) {
+        if (isActive == active) return;
+        isActive = active;
+        StockMarket.onActiveChanged(this);
+    }
     
-    // 价格历史记录内部类
-    public static class PriceHistory {
-        private long price;
-        private long volume;
-        private LocalDateTime timestamp;
-        
-        public PriceHistory(long price, long volume, LocalDateTime timestamp) {
-            this.price = price;
-            this.volume = volume;
-            this.timestamp = timestamp;
+    // 更换指标参数，用现有价格历史重新计算
+    public void setIndicatorSettings(IndicatorSettings settings) {
+        if (!settings.equals(indicators.getSettings())) {
+            indicators = IndicatorEngine.rebuild(settings, priceHistory);
         }
-        
-        public void adjustPrice(int ratio) {
-            this.price /= ratio;
+    }
+    public String getCommodityKey() { return commodityKey; }
+    
+    // 关联大宗商品，更换商品时重新取价格基准
+    public void setCommodityKey(String commodityKey) {
+        if (!Objects.equals(this.commodityKey, commodityKey)) {
+            this.commodityKey = commodityKey;
+            this.commodityMark = 0;
         }
-        
-        public long getPrice() { return price; }
-        public long getVolume() { return volume; }
-        public LocalDateTime getTimestamp() { return timestamp; }
     }
-}
\ No newline at end of file
+    
+    // 大宗商品自上次调价以来的涨跌幅，并记下新的基准；没有成交数据时为0
+    double takeCommodityReturn(double commodityPrice) {
+        double mark = commodityMark;
+        if (commodityPrice > 0) {
+            commodityMark = commodityPrice;
+        }
+        return mark > 0 && commodityPrice > 0 ? commodityPrice / mark - 1 : 0;
+    }
+    public void setDescription(String description) { this.description = description; }
+    public String getPriceModel() { return priceModel != null ? priceModel : Config.priceModel; }
+    public void setPriceModel(String priceModel) { this.priceModel = priceModel; }
+}
@@ -1,5 +1,8 @@
 package com.example.economymod.stock;
 
+import com.example.economymod.economy.CommodityIndex;
+import com.example.economymod.economy.EconomyClock;
+import com.example.economymod.economy.EconomyManager;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.LongArgumentType;
@@ -11,11 +14,16 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 
 import java.text.DecimalFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 // 股票命令系统
 public class StockCommands {
     private static final DecimalFormat df = new DecimalFormat("#.##");
+    private static final int ORDER_BOOK_LEVELS = 5;
+    private static final DateTimeFormatter SIGNAL_TIME_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm");
+    private static final DateTimeFormatter CANDLE_DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     
     public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
         dispatcher.register(Commands.literal("stock")
@@ -44,6 +52,55 @@ public class StockCommands {
                                                 StringArgumentType.getString(context, "symbol"),
                                                 LongArgumentType.getLong(context, "shares"))))))
                 
+                .then(Commands.literal("bid")
+                        .then(Commands.argument("symbol", StringArgumentType.word())
+                                .then(Commands.argument("shares", LongArgumentType.longArg(1))
+                                        .then(Commands.argument("price", LongArgumentType.longArg(1))
+                                                .executes(context -> placeLimitOrder(context.getSource(),
+                                                        StringArgumentType.getString(context, "symbol"), true,
+                                                        LongArgumentType.getLong(context, "shares"),
+                                                        LongArgumentType.getLong(context, "price")))))))
+                
+                .then(Commands.literal("ask")
+                        .then(Commands.argument("symbol", StringArgumentType.word())
+                                .then(Commands.argument("shares", LongArgumentType.longArg(1))
+                                        .then(Commands.argument("price", LongArgumentType.longArg(1))
+                                                .executes(context -> placeLimitOrder(context.getSource(),
+                                                        StringArgumentType.getString(context, "symbol"), false,
+                                                        LongArgumentType.getLong(context, "shares"),
+                                                        LongArgumentType.getLong(context, "price")))))))
+                
+                .then(Commands.literal("orders")
+                        .executes(context -> showOpenOrders(context.getSource())))
+                
+                .then(Commands.literal("cancel")
+                        .then(Commands.argument("id", LongArgumentType.longArg(1))
+                                .executes(context -> cancelOrder(context.getSource(),
+                                        LongArgumentType.getLong(context, "id")))))
+                
+                .then(Commands.literal("chart")
+                        .then(Commands.argument("symbol", StringArgumentType.word())
+                                .then(Commands.argument("period", StringArgumentType.word())
+                                        .suggests((context, builder) -> {
+                                            for (CandleSeries.Resolution resolution : CandleSeries.Resolution.values()) {
+                                                builder.suggest(resolution.name().toLowerCase());
+                                            }
+                                            return builder.buildFuture();
+                                        })
+                                        .executes(context -> showCandles(context.getSource(),
+                                                StringArgumentType.getString(context, "symbol"),
+                                                StringArgumentType.getString(context, "period"), 10))
+                                        .then(Commands.argument("count", IntegerArgumentType.integer(1, 30))
+                                                .executes(context -> showCandles(context.getSource(),
+                                                        StringArgumentType.getString(context, "symbol"),
+                                                        StringArgumentType.getString(context, "period"),
+                                                        IntegerArgumentType.getInteger(context, "count")))))))
+                
+                .then(Commands.literal("book")
+                        .then(Commands.argument("symbol", StringArgumentType.word())
+                                .executes(context -> showOrderBook(context.getSource(),
+                                        StringArgumentType.getString(context, "symbol")))))
+                
                 .then(Commands.literal("portfolio")
                         .executes(context -> showPortfolio(context.getSource())))
                 
@@ -62,6 +119,12 @@ public class StockCommands {
                                 .executes(context -> showTopLosers(context.getSource(),
                                         IntegerArgumentType.getInteger(context, "limit")))))
                 
+                .then(Commands.literal("volume")
+                        .executes(context -> showTopVolume(context.getSource(), 5))
+                        .then(Commands.argument("limit", IntegerArgumentType.integer(1, 20))
+                                .executes(context -> showTopVolume(context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "limit")))))
+                
                 .then(Commands.literal("search")
                         .then(Commands.argument("keyword", StringArgumentType.greedyString())
                                 .executes(context -> searchStocks(context.getSource(),
@@ -75,6 +138,15 @@ public class StockCommands {
                 .then(Commands.literal("industries")
                         .executes(context -> showIndustries(context.getSource())))
                 
+                .then(Commands.literal("signals")
+                        .executes(context -> showSignals(context.getSource(), 24))
+                        .then(Commands.argument("hours", IntegerArgumentType.integer(1, 720))
+                                .executes(context -> showSignals(context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "hours")))))
+                
+                .then(Commands.literal("commodities")
+                        .executes(context -> showCommodities(context.getSource())))
+                
                 .then(Commands.literal("transactions")
                         .executes(context -> showTransactionHistory(context.getSource(), 10))
                         .then(Commands.argument("limit", IntegerArgumentType.integer(1, 50))
@@ -181,6 +253,22 @@ public class StockCommands {
         source.sendSuccess(() -> Component.literal("股息收益率: " + df.format(stock.getDividendYield() * 100) + "%")
                 .withStyle(ChatFormatting.GREEN), false);
         
+        IndicatorEngine indicators = stock.getIndicators();
+        IndicatorSettings settings = indicators.getSettings();
+        source.sendSuccess(() -> Component.literal("技术指标:").withStyle(ChatFormatting.BLUE), false);
+        source.sendSuccess(() -> Component.literal("MA" + settings.getSmaWindow() + ": " + formatIndicator(indicators.getSma())
+                + "  EMA" + settings.getEmaPeriod() + ": " + formatIndicator(indicators.getEma())
+                + "  RSI" + settings.getRsiPeriod() + ": " + formatIndicator(indicators.getRsi()))
+                .withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("布林带(" + settings.getBollingerWindow() + "): "
+                + formatIndicator(indicators.getBollingerLower()) + " / " + formatIndicator(indicators.getBollingerMiddle())
+                + " / " + formatIndicator(indicators.getBollingerUpper()))
+                .withStyle(ChatFormatting.GRAY), false);
+        source.sendSuccess(() -> Component.literal("MA" + settings.getFastWindow() + "/MA" + settings.getSlowWindow() + ": "
+                + formatIndicator(indicators.getFastMa()) + " / " + formatIndicator(indicators.getSlowMa())
+                + "  最近信号: " + describeCross(indicators))
+                .withStyle(ChatFormatting.GRAY), false);
+        
         return 1;
     }
 
@@ -203,17 +291,12 @@ public class StockCommands {
         }
         
         long totalCost = shares * stock.getCurrentPrice();
-        source.sendSuccess(() -> Component.literal("准备买入 " + shares + " 股 " + symbol + 
-                "，总费用约 " + totalCost + " 金币（不含手续费）"), false);
+        source.sendSuccess(() -> Component.literal("准备买入 " + shares + " 股 " + stock.getSymbol() + 
+                "，按现价约 " + totalCost + " 金币（不含手续费，大单成交价会更高）"), false);
         
-        if (StockMarket.buyStock(player.getUUID(), symbol, shares)) {
-            source.sendSuccess(() -> Component.literal("成功买入 " + shares + " 股 " + symbol)
-                    .withStyle(ChatFormatting.GREEN), false);
-        } else {
-            source.sendFailure(Component.literal("买入失败，可能是资金不足或股票不可用"));
-        }
-        
-        return 1;
+        StockExchange.OrderResult result = StockMarket.buyStock(player.getUUID(), symbol, shares);
+        sendOrderResult(source, stock.getSymbol(), true, shares, result);
+        return result.getFilled() > 0 ? 1 : 0;
     }
 
     // 卖出股票
@@ -228,11 +311,145 @@ public class StockCommands {
             return 0;
         }
         
-        if (StockMarket.sellStock(player.getUUID(), symbol, shares)) {
-            source.sendSuccess(() -> Component.literal("成功卖出 " + shares + " 股 " + symbol)
+        StockExchange.OrderResult result = StockMarket.sellStock(player.getUUID(), symbol, shares);
+        sendOrderResult(source, symbol.toUpperCase(), false, shares, result);
+        return result.getFilled() > 0 ? 1 : 0;
+    }
+
+    // 下限价单
+    private static int placeLimitOrder(CommandSourceStack source, String symbol, boolean buy, long shares, long price) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+        
+        StockExchange.OrderResult result = StockMarket.placeOrder(player.getUUID(), symbol, buy, shares, price);
+        sendOrderResult(source, symbol.toUpperCase(), buy, shares, result);
+        if (result.getResting() > 0) {
+            source.sendSuccess(() -> Component.literal("挂单 #" + result.getOrderId() + ": " + (buy ? "买入 " : "卖出 ")
+                    + result.getResting() + " 股 @ " + price + " 金币，使用 /stock cancel " + result.getOrderId() + " 撤单")
+                    .withStyle(ChatFormatting.AQUA), false);
+        }
+        return result.isSuccess() ? 1 : 0;
+    }
+
+    // 显示下单结果
+    private static void sendOrderResult(CommandSourceStack source, String symbol, boolean buy, long shares,
+                                        StockExchange.OrderResult result) {
+        if (!result.isSuccess()) {
+            source.sendFailure(Component.literal((buy ? "买入" : "卖出") + "失败: " + result.getStatus().getDescription()));
+            return;
+        }
+        
+        if (result.getFilled() > 0) {
+            source.sendSuccess(() -> Component.literal("成功" + (buy ? "买入 " : "卖出 ") + result.getFilled() + " 股 " + symbol
+                    + "，成交均价 " + result.getAveragePrice() + " 金币，成交额 " + result.getNotional() + " 金币")
+                    .withStyle(ChatFormatting.GREEN), false);
+        }
+        long unfilled = shares - result.getFilled() - result.getResting();
+        if (unfilled > 0) {
+            source.sendSuccess(() -> Component.literal("对手盘不足，" + unfilled + " 股未成交")
+                    .withStyle(ChatFormatting.YELLOW), false);
+        }
+    }
+
+    // 显示玩家挂单
+    private static int showOpenOrders(CommandSourceStack source) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+        
+        List<StockExchange.OpenOrder> orders = StockExchange.getOpenOrders(player.getUUID());
+        if (orders.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("您没有未成交的挂单").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+        
+        source.sendSuccess(() -> Component.literal("=== 我的挂单 ===").withStyle(ChatFormatting.GOLD), false);
+        for (StockExchange.OpenOrder order : orders) {
+            source.sendSuccess(() -> Component.literal(String.format("#%d %s %s %d 股 @ %d 金币",
+                    order.getOrderId(), order.getSymbol(), order.isBuy() ? "买入" : "卖出",
+                    order.getRemaining(), order.getPrice()))
+                    .withStyle(order.isBuy() ? ChatFormatting.GREEN : ChatFormatting.RED), false);
+        }
+        
+        return 1;
+    }
+
+    // 撤单
+    private static int cancelOrder(CommandSourceStack source, long orderId) {
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.literal("此命令只能由玩家执行"));
+            return 0;
+        }
+        
+        long cancelled = StockExchange.cancelOrder(player.getUUID(), orderId);
+        if (cancelled < 0) {
+            source.sendFailure(Component.literal("未找到您的挂单 #" + orderId));
+            return 0;
+        }
+        
+        source.sendSuccess(() -> Component.literal("已撤销挂单 #" + orderId + "，退回 " + cancelled + " 股对应的冻结")
+                .withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
+    // 显示最近的K线
+    private static int showCandles(CommandSourceStack source, String symbol, String period, int count) {
+        Stock stock = StockMarket.getStock(symbol);
+        if (stock == null) {
+            source.sendFailure(Component.literal("未找到股票: " + symbol));
+            return 0;
+        }
+        
+        CandleSeries.Resolution resolution = CandleSeries.Resolution.fromName(period);
+        if (resolution == null) {
+            source.sendFailure(Component.literal("未知的K线周期: " + period + "（可选 minute/hour/day）"));
+            return 0;
+        }
+        
+        CandleSeries candles = stock.getCandles(resolution);
+        source.sendSuccess(() -> Component.literal("=== " + stock.getSymbol() + " " + resolution.getDisplayName() + "K线 ===")
+                .withStyle(ChatFormatting.GOLD), false);
+        source.sendSuccess(() -> Component.literal("时间          开盘    最高    最低    收盘    成交量").withStyle(ChatFormatting.GRAY), false);
+        
+        DateTimeFormatter format = resolution == CandleSeries.Resolution.DAY ? CANDLE_DAY_FORMAT : SIGNAL_TIME_FORMAT;
+        for (int i = Math.max(0, candles.size() - count); i < candles.size(); i++) {
+            long open = candles.getOpen(i);
+            long close = candles.getClose(i);
+            String time = EconomyClock.toDateTime(candles.getTime(i)).format(format);
+            String line = String.format("%-12s %6d  %6d  %6d  %6d  %8d",
+                    time, open, candles.getHigh(i), candles.getLow(i), close, candles.getVolume(i));
+            ChatFormatting color = close > open ? ChatFormatting.GREEN : close < open ? ChatFormatting.RED : ChatFormatting.YELLOW;
+            source.sendSuccess(() -> Component.literal(line).withStyle(color), false);
+        }
+        
+        return 1;
+    }
+
+    // 显示盘口
+    private static int showOrderBook(CommandSourceStack source, String symbol) {
+        Stock stock = StockMarket.getStock(symbol);
+        if (stock == null) {
+            source.sendFailure(Component.literal("未找到股票: " + symbol));
+            return 0;
+        }
+        
+        long[][] asks = StockExchange.getDepth(stock, false, ORDER_BOOK_LEVELS);
+        long[][] bids = StockExchange.getDepth(stock, true, ORDER_BOOK_LEVELS);
+        
+        source.sendSuccess(() -> Component.literal("=== " + stock.getSymbol() + " 盘口 ===").withStyle(ChatFormatting.GOLD), false);
+        for (int i = asks.length - 1; i >= 0; i--) {
+            long[] level = asks[i];
+            source.sendSuccess(() -> Component.literal(String.format("卖%d  %8d  %10d", i + 1, level[0], level[1]))
+                    .withStyle(ChatFormatting.RED), false);
+        }
+        source.sendSuccess(() -> Component.literal("最新价: " + stock.getCurrentPrice() + " 金币").withStyle(ChatFormatting.YELLOW), false);
+        for (int i = 0; i < bids.length; i++) {
+            long[] level = bids[i];
+            source.sendSuccess(() -> Component.literal(String.format("买%d  %8d  %10d", i + 1, level[0], level[1]))
                     .withStyle(ChatFormatting.GREEN), false);
-        } else {
-            source.sendFailure(Component.literal("卖出失败，可能是持仓不足"));
         }
         
         return 1;
@@ -338,6 +555,24 @@ public class StockCommands {
         return 1;
     }
 
+    // 显示24小时成交量榜
+    private static int showTopVolume(CommandSourceStack source, int limit) {
+        List<Stock> stocks = StockMarket.getTopVolumeStocks(limit);
+        
+        source.sendSuccess(() -> Component.literal("=== 成交量榜 (24h) ===").withStyle(ChatFormatting.AQUA), false);
+        
+        for (int i = 0; i < stocks.size(); i++) {
+            Stock stock = stocks.get(i);
+            int rank = i + 1;
+            source.sendSuccess(() -> Component.literal(String.format("%d. %s (%s) %d股 %d金币",
+                    rank, stock.getSymbol(), stock.getCompanyName(),
+                    stock.getVolume24h(), stock.getCurrentPrice()))
+                    .withStyle(ChatFormatting.AQUA), false);
+        }
+        
+        return 1;
+    }
+
     // 搜索股票
     private static int searchStocks(CommandSourceStack source, String keyword) {
         List<Stock> results = StockMarket.searchStocks(keyword);
@@ -394,15 +629,71 @@ public class StockCommands {
         
         source.sendSuccess(() -> Component.literal("=== 行业分类 ===").withStyle(ChatFormatting.BLUE), false);
         
+        Map<String, Double> sectorIndices = StockMarket.getSectorIndices();
         for (String industry : industries) {
             int count = StockMarket.getStocksByIndustry(industry).size();
-            source.sendSuccess(() -> Component.literal(industry + " (" + count + " 只股票)")
+            Double index = sectorIndices.get(industry);
+            String indexText = index != null ? "  行业指数 " + df.format(index) : "";
+            source.sendSuccess(() -> Component.literal(industry + " (" + count + " 只股票)" + indexText)
                     .withStyle(ChatFormatting.GRAY), false);
         }
         
         return 1;
     }
 
+    // 显示近期出现均线交叉信号的股票
+    private static int showSignals(CommandSourceStack source, int hours) {
+        List<Stock> stocks = StockMarket.getCrossoverStocks(EconomyClock.millis() - hours * EconomyClock.HOUR_MILLIS);
+        if (stocks.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("最近 " + hours + " 小时没有均线交叉信号").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+        
+        source.sendSuccess(() -> Component.literal("=== 均线交叉信号 (" + hours + "小时) ===").withStyle(ChatFormatting.GOLD), false);
+        for (Stock stock : stocks) {
+            IndicatorEngine indicators = stock.getIndicators();
+            boolean golden = indicators.getLastCross() == IndicatorEngine.CrossSignal.GOLDEN;
+            source.sendSuccess(() -> Component.literal(stock.getSymbol() + " " + describeCross(indicators)
+                    + "  现价 " + stock.getCurrentPrice() + " 金币")
+                    .withStyle(golden ? ChatFormatting.GREEN : ChatFormatting.RED), false);
+        }
+        
+        return 1;
+    }
+
+    private static String describeCross(IndicatorEngine indicators) {
+        if (indicators.getLastCross() == IndicatorEngine.CrossSignal.NONE) {
+            return IndicatorEngine.CrossSignal.NONE.getDisplayName();
+        }
+        return indicators.getLastCross().getDisplayName() + " ("
+                + EconomyClock.toDateTime(indicators.getLastCrossTime()).format(SIGNAL_TIME_FORMAT) + ")";
+    }
+
+    // 未满窗口的指标显示为 -
+    private static String formatIndicator(double value) {
+        return Double.isNaN(value) ? "-" : df.format(value);
+    }
+
+    // 显示大宗商品指数
+    private static int showCommodities(CommandSourceStack source) {
+        List<CommodityIndex.Quote> quotes = EconomyManager.getCommodityIndex().getQuotes(EconomyClock.millis());
+        if (quotes.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("暂无关联股票的大宗商品").withStyle(ChatFormatting.YELLOW), false);
+            return 1;
+        }
+        
+        source.sendSuccess(() -> Component.literal("=== 大宗商品指数 ===").withStyle(ChatFormatting.GOLD), false);
+        for (CommodityIndex.Quote quote : quotes) {
+            String price = quote.getVolume() > 0 ? df.format(quote.getPrice()) + " 金币" : "暂无成交";
+            source.sendSuccess(() -> Component.literal(quote.getName() + " ").withStyle(ChatFormatting.YELLOW)
+                    .append(Component.literal(price).withStyle(ChatFormatting.GREEN))
+                    .append(Component.literal(" (加权成交量 " + df.format(quote.getVolume()) + ")")
+                            .withStyle(ChatFormatting.GRAY)), false);
+        }
+        
+        return 1;
+    }
+
     // 显示交易历史
     private static int showTransactionHistory(CommandSourceStack source, int limit) {
         if (!(source.getEntity() instanceof ServerPlayer player)) {
@@ -449,8 +740,12 @@ public class StockCommands {
 
     // 管理员命令：更新价格
     private static int adminUpdatePrices(CommandSourceStack source) {
-        StockMarket.updateAllPrices();
-        source.sendSuccess(() -> Component.literal("已更新所有股票价格"), false);
+        int updated = StockMarket.updateAllPrices();
+        if (updated < 0) {
+            source.sendFailure(Component.literal("股票市场已闭市，无法更新价格"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("已更新 " + updated + " 只股票的价格"), false);
         return 1;
     }
 
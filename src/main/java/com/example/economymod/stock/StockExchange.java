@@ -0,0 +1,338 @@
+package com.example.economymod.stock;
+
+import com.example.economymod.economy.EconomyManager;
+import com.example.economymod.economy.TransactionType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 股票交易所 - 每只股票一个限价订单簿，负责下单托管（买单冻结资金、卖单冻结持仓）、逐笔结算和系统做市
+// 系统以未流通的股份在当前价上下挂出几档报价提供流动性，大单会吃掉多档报价，价格冲击与订单大小相关
+public class StockExchange {
+    private static final double MAKER_STEP = 0.005;       // 系统做市每档价差（0.5%）
+    private static final int MAKER_LEVELS = 5;            // 系统做市每侧档数
+    private static final long MAKER_DEPTH_DIVISOR = 200;  // 每档数量 = 总股数 / 200
+
+    private static final Map<String, Market> markets = new ConcurrentHashMap<>();
+
+    // 下单：limitPrice为OrderBook.MARKET时为市价单（未成交部分作废）
+    public static synchronized OrderResult placeOrder(UUID playerId, Stock stock, boolean buy, long shares, long limitPrice) {
+        if (shares <= 0 || limitPrice < 0) return OrderResult.failure(OrderResult.Status.INVALID);
+        if (!StockMarket.isMarketOpen() || !stock.isActive()) return OrderResult.failure(OrderResult.Status.MARKET_CLOSED);
+
+        Market market = marketFor(stock);
+        boolean marketOrder = limitPrice == OrderBook.MARKET;
+        long price = limitPrice;
+        if (marketOrder && buy) {
+            // 市价买单按能成交到的最差价格作为限价托管资金，撮合后撤销剩余部分
+            price = market.book.getMarketablePrice(true, shares);
+        }
+        if (marketOrder && market.book.getMarketablePrice(buy, shares) == 0) {
+            return OrderResult.failure(OrderResult.Status.NO_LIQUIDITY);
+        }
+
+        long reserve = 0;
+        if (buy) {
+            reserve = price * shares + buyerFee(price * shares);
+            if (!EconomyManager.holdFunds(playerId, reserve)) {
+                return OrderResult.failure(OrderResult.Status.INSUFFICIENT_FUNDS);
+            }
+        } else if (!StockMarket.getPortfolio(playerId).reserveShares(stock.getSymbol(), shares)) {
+            return OrderResult.failure(OrderResult.Status.INSUFFICIENT_SHARES);
+        }
+
+        market.beginMatch(reserve);
+        long orderId = market.book.submit(buy, buy ? price : limitPrice, shares, playerId, market);
+        if (marketOrder && market.book.isOpen(orderId)) {
+            market.book.cancel(orderId);
+        }
+
+        boolean resting = market.book.isOpen(orderId);
+        long unfilled = shares - market.filled;
+        if (resting) {
+            market.book.setReserved(orderId, market.takerReserved);
+        } else if (buy) {
+            EconomyManager.releaseHeldFunds(playerId, market.takerReserved);
+        } else if (unfilled > 0) {
+            StockMarket.getPortfolio(playerId).releaseShares(stock.getSymbol(), unfilled);
+        }
+
+        market.endMatch();
+        OrderResult result = OrderResult.success(resting ? orderId : 0, market.filled, market.notional, resting ? unfilled : 0);
+        if (market.filled > 0) {
+            market.refreshQuotes();
+        }
+        EconomyManager.saveData();
+        return result;
+    }
+
+    // 撤销玩家自己的挂单，返回撤销的股数，订单不存在时返回-1
+    public static synchronized long cancelOrder(UUID playerId, long orderId) {
+        for (Market market : markets.values()) {
+            OrderBook book = market.book;
+            if (book.isOpen(orderId) && playerId.equals(book.getOwner(orderId))) {
+                market.releaseOrder(orderId);
+                long cancelled = book.cancel(orderId);
+                EconomyManager.saveData();
+                return cancelled;
+            }
+        }
+        return -1;
+    }
+
+    // 撤销某只股票（为null时为全部股票）的所有玩家挂单并退回托管，用于关服和股票分割
+    public static synchronized void cancelAll(String symbol) {
+        for (Market market : markets.values()) {
+            if (symbol != null && !market.stock.getSymbol().equals(symbol)) continue;
+            for (long orderId : market.book.getPlayerOrderIds()) {
+                market.releaseOrder(orderId);
+                market.book.cancel(orderId);
+            }
+            market.refreshQuotes();
+        }
+        EconomyManager.saveData();
+    }
+
+    // 按股票当前价格重新挂出系统做市报价（价格更新、上市后调用）
+    // 返回新报价是否与玩家挂单成交；成交改变了账户和持仓，调用方处理完所有股票后保存一次
+    public static synchronized boolean refreshQuotes(Stock stock) {
+        Market market = marketFor(stock);
+        market.refreshQuotes();
+        return market.volume > 0;
+    }
+
+    // 玩家的所有挂单
+    public static synchronized List<OpenOrder> getOpenOrders(UUID playerId) {
+        List<OpenOrder> orders = new ArrayList<>();
+        for (Market market : markets.values()) {
+            OrderBook book = market.book;
+            for (long orderId : book.getOrderIds(playerId)) {
+                orders.add(new OpenOrder(market.stock.getSymbol(), orderId, book.isBuy(orderId),
+                        book.getPrice(orderId), book.getRemaining(orderId)));
+            }
+        }
+        orders.sort(Comparator.comparingLong(OpenOrder::getOrderId));
+        return orders;
+    }
+
+    // 盘口：从最优价开始的若干档 [价格, 数量]
+    public static synchronized long[][] getDepth(Stock stock, boolean bidSide, int levels) {
+        long[] prices = new long[levels];
+        long[] volumes = new long[levels];
+        int count = marketFor(stock).book.depth(bidSide, prices, volumes);
+        long[][] result = new long[count][];
+        for (int i = 0; i < count; i++) {
+            result[i] = new long[]{prices[i], volumes[i]};
+        }
+        return result;
+    }
+
+    // 买方手续费0.1%，按每笔成交计
+    private static long buyerFee(long value) {
+        return value / 1000;
+    }
+
+    // 卖方手续费0.1%加0.05%印花税
+    private static long sellerFee(long value) {
+        return value / 1000 + value / 2000;
+    }
+
+    private static Market marketFor(Stock stock) {
+        return markets.computeIfAbsent(stock.getSymbol(), symbol -> new Market(stock));
+    }
+
+    // 单只股票的订单簿和撮合中的累计数据
+    private static class Market implements OrderBook.Listener {
+        final Stock stock;
+        final OrderBook book = new OrderBook();
+        final long[] makerOrders = new long[MAKER_LEVELS * 2];
+
+        long takerReserved;  // 主动方剩余的托管资金
+        long filled;         // 主动方成交股数
+        long notional;       // 主动方成交金额
+        long lastPrice;
+        long volume;
+
+        Market(Stock stock) {
+            this.stock = stock;
+        }
+
+        void beginMatch(long reserve) {
+            takerReserved = reserve;
+            filled = 0;
+            notional = 0;
+            volume = 0;
+        }
+
+        // 本次撮合的成交汇总为一条成交记录，驱动最新价、成交量和日内高低价
+        void endMatch() {
+            if (volume > 0) {
+                stock.setPriceWithVolume(lastPrice, volume);
+            }
+        }
+
+        // 系统做市：撤掉旧报价，在当前价上下各挂MAKER_LEVELS档，卖出数量不超过未流通股数
+        void refreshQuotes() {
+            for (long orderId : makerOrders) {
+                book.cancel(orderId);
+            }
+            Arrays.fill(makerOrders, 0);
+            if (!stock.isActive()) return;
+
+            long center = stock.getCurrentPrice();
+            long step = Math.max(1, Math.round(center * MAKER_STEP));
+            long depth = Math.max(1, stock.getTotalShares() / MAKER_DEPTH_DIVISOR);
+            long floatLeft = stock.getAvailableShares();
+
+            beginMatch(0);
+            for (int i = 1; i <= MAKER_LEVELS; i++) {
+                long ask = Math.min(depth, floatLeft);
+                if (ask > 0) {
+                    floatLeft -= ask;
+                    makerOrders[i - 1] = book.submit(false, center + step * i, ask, null, this);
+                }
+                long bidPrice = center - step * i;
+                if (bidPrice >= 1) {
+                    makerOrders[MAKER_LEVELS + i - 1] = book.submit(true, bidPrice, depth, null, this);
+                }
+            }
+            endMatch();
+        }
+
+        // 退回挂单的托管（资金或持仓）
+        void releaseOrder(long orderId) {
+            UUID owner = book.getOwner(orderId);
+            if (owner == null) return;
+            if (book.isBuy(orderId)) {
+                EconomyManager.releaseHeldFunds(owner, book.getReserved(orderId));
+            } else {
+                StockMarket.getPortfolio(owner).releaseShares(stock.getSymbol(), book.getRemaining(orderId));
+            }
+        }
+
+        @Override
+        public void onFill(long makerId, UUID maker, long takerId, UUID taker, boolean takerBuys, long price, long quantity) {
+            String symbol = stock.getSymbol();
+            long value = price * quantity;
+            UUID buyer = takerBuys ? taker : maker;
+            UUID seller = takerBuys ? maker : taker;
+
+            if (buyer != null) {
+                long cost = value + buyerFee(value);
+                EconomyManager.payFromHeldFunds(buyer, cost, TransactionType.STOCK_BUY,
+                        "买入 " + symbol + " " + quantity + " 股 @ " + price);
+                StockMarket.getPortfolio(buyer).buyStock(symbol, quantity, price);
+                if (takerBuys) {
+                    takerReserved -= cost;
+                } else if (book.getRemaining(makerId) == 0) {
+                    // 挂单全部成交，退回按单笔取整多冻结的零头
+                    EconomyManager.releaseHeldFunds(buyer, book.getReserved(makerId) - cost);
+                    book.setReserved(makerId, 0);
+                } else {
+                    book.setReserved(makerId, book.getReserved(makerId) - cost);
+                }
+            } else {
+                stock.sellShares(quantity); // 系统买回的股份回到未流通股数
+            }
+
+            if (seller != null) {
+                long fee = sellerFee(value);
+                Portfolio portfolio = StockMarket.getPortfolio(seller);
+                portfolio.releaseShares(symbol, quantity);
+                portfolio.sellStock(symbol, quantity, price);
+                EconomyManager.creditFunds(seller, value - fee, fee, TransactionType.STOCK_SELL,
+                        "卖出 " + symbol + " " + quantity + " 股 @ " + price + " (费用: " + fee + ")");
+            } else {
+                stock.buyShares(quantity);
+            }
+
+            if (taker != null) {
+                filled += quantity;
+                notional += value;
+            }
+            lastPrice = price;
+            volume += quantity;
+        }
+
+        @Override
+        public void onCancel(long orderId, UUID owner, boolean buy, long price, long remaining) {
+            releaseOrder(orderId);
+        }
+    }
+
+    // 下单结果
+    public static class OrderResult {
+        public enum Status {
+            SUCCESS("下单成功"),
+            INVALID("订单参数无效"),
+            UNKNOWN_STOCK("未找到该股票"),
+            MARKET_CLOSED("市场已闭市或股票已停牌"),
+            NO_LIQUIDITY("对手盘为空，市价单无法成交"),
+            INSUFFICIENT_FUNDS("余额不足"),
+            INSUFFICIENT_SHARES("可用持仓不足");
+
+            private final String description;
+
+            Status(String description) {
+                this.description = description;
+            }
+
+            public String getDescription() {
+                return description;
+            }
+        }
+
+        private final Status status;
+        private final long orderId;   // 仍在订单簿中的挂单号，全部成交或作废时为0
+        private final long filled;
+        private final long notional;
+        private final long resting;
+
+        private OrderResult(Status status, long orderId, long filled, long notional, long resting) {
+            this.status = status;
+            this.orderId = orderId;
+            this.filled = filled;
+            this.notional = notional;
+            this.resting = resting;
+        }
+
+        static OrderResult success(long orderId, long filled, long notional, long resting) {
+            return new OrderResult(Status.SUCCESS, orderId, filled, notional, resting);
+        }
+
+        static OrderResult failure(Status status) {
+            return new OrderResult(status, 0, 0, 0, 0);
+        }
+
+        public boolean isSuccess() { return status == Status.SUCCESS; }
+        public Status getStatus() { return status; }
+        public long getOrderId() { return orderId; }
+        public long getFilled() { return filled; }
+        public long getNotional() { return notional; }
+        public long getResting() { return resting; }
+        public long getAveragePrice() { return filled > 0 ? notional / filled : 0; }
+    }
+
+    // 玩家挂单
+    public static class OpenOrder {
+        private final String symbol;
+        private final long orderId;
+        private final boolean buy;
+        private final long price;
+        private final long remaining;
+
+        public OpenOrder(String symbol, long orderId, boolean buy, long price, long remaining) {
+            this.symbol = symbol;
+            this.orderId = orderId;
+            this.buy = buy;
+            this.price = price;
+            this.remaining = remaining;
+        }
+
+        public String getSymbol() { return symbol; }
+        public long getOrderId() { return orderId; }
+        public boolean isBuy() { return buy; }
+        public long getPrice() { return price; }
+        public long getRemaining() { return remaining; }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.economymod.stock;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.resources.FileToIdConverter;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.GsonHelper;
+import net.minecraft.util.profiling.ProfilerFiller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Reader;
+import java.util.Map;
+
+// 上市股票数据包加载器 - 读取 data/<命名空间>/stock_listings/*.json
+public class StockListingLoader extends SimplePreparableReloadListener<StockListings> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockListingLoader.class);
+    private static final FileToIdConverter LISTER = FileToIdConverter.json("stock_listings");
+
+    @Override
+    protected StockListings prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
+        StockListings.Builder builder = new StockListings.Builder();
+        for (Map.Entry<ResourceLocation, Resource> file : LISTER.listMatchingResources(resourceManager).entrySet()) {
+            try (Reader reader = file.getValue().openAsReader()) {
+                JsonObject root = GsonHelper.convertToJsonObject(JsonParser.parseReader(reader), "stock_listings");
+                for (JsonElement element : GsonHelper.getAsJsonArray(root, "stocks")) {
+                    JsonObject stock = GsonHelper.convertToJsonObject(element, "stock");
+                    builder.add(GsonHelper.getAsString(stock, "symbol"),
+                            GsonHelper.getAsString(stock, "name"),
+                            GsonHelper.getAsString(stock, "industry"),
+                            GsonHelper.getAsLong(stock, "price"),
+                            GsonHelper.getAsLong(stock, "shares"),
+                            GsonHelper.getAsDouble(stock, "volatility", Double.NaN),
+                            GsonHelper.getAsString(stock, "commodity", null),
+                            parseIndicators(GsonHelper.getAsJsonObject(stock, "indicators", null)),
+                            GsonHelper.getAsString(stock, "model", null));
+                }
+            } catch (Exception e) {
+                LOGGER.error("无法加载上市股票文件 {}: {}", file.getKey(), e.getMessage());
+            }
+        }
+        return builder.build();
+    }
+
+    // 可选的技术指标参数，未指定的项使用默认值
+    private static IndicatorSettings parseIndicators(JsonObject json) {
+        if (json == null) return null;
+        IndicatorSettings defaults = IndicatorSettings.DEFAULT;
+        return new IndicatorSettings(
+                GsonHelper.getAsInt(json, "sma", defaults.getSmaWindow()),
+                GsonHelper.getAsInt(json, "ema", defaults.getEmaPeriod()),
+                GsonHelper.getAsInt(json, "rsi", defaults.getRsiPeriod()),
+                GsonHelper.getAsInt(json, "bollinger", defaults.getBollingerWindow()),
+                GsonHelper.getAsDouble(json, "bollinger_width", defaults.getBollingerWidth()),
+                GsonHelper.getAsInt(json, "fast", defaults.getFastWindow()),
+                GsonHelper.getAsInt(json, "slow", defaults.getSlowWindow()));
+    }
+
+    @Override
+    protected void apply(StockListings listings, ResourceManager resourceManager, ProfilerFiller profiler) {
+        StockMarket.applyListings(listings);
+    }
+}
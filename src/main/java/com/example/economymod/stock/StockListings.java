@@ -0,0 +1,113 @@
+package com.example.economymod.stock;
+
+import com.example.economymod.economy.ItemFingerprint;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// 上市股票表 - 从数据包加载后不可变，按下标存放在并列数组中
+public final class StockListings {
+    public static final StockListings EMPTY = new Builder().build();
+
+    private final String[] symbols;
+    private final String[] companyNames;
+    private final String[] industries;
+    private final long[] initialPrices;
+    private final long[] totalShares;
+    private final double[] volatilities; // 未指定时为NaN（保持默认波动率）
+    private final String[] commodities;  // 关联的大宗商品物品ID，没有关联时为空
+    private final IndicatorSettings[] indicators;
+    private final String[] priceModels;  // 股价模型名称，未指定时为空
+
+    private StockListings(Builder builder) {
+        int size = builder.entries.size();
+        this.symbols = new String[size];
+        this.companyNames = new String[size];
+        this.industries = new String[size];
+        this.initialPrices = new long[size];
+        this.totalShares = new long[size];
+        this.volatilities = new double[size];
+        this.commodities = new String[size];
+        this.indicators = new IndicatorSettings[size];
+        this.priceModels = new String[size];
+
+        int i = 0;
+        for (Listing listing : builder.entries.values()) {
+            symbols[i] = listing.symbol;
+            companyNames[i] = listing.companyName;
+            industries[i] = listing.industry;
+            initialPrices[i] = listing.initialPrice;
+            totalShares[i] = listing.totalShares;
+            volatilities[i] = listing.volatility;
+            commodities[i] = listing.commodity;
+            indicators[i] = listing.indicators;
+            priceModels[i] = listing.priceModel;
+            i++;
+        }
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public String getSymbol(int i) { return symbols[i]; }
+    public String getCompanyName(int i) { return companyNames[i]; }
+    public String getIndustry(int i) { return industries[i]; }
+    public long getInitialPrice(int i) { return initialPrices[i]; }
+    public long getTotalShares(int i) { return totalShares[i]; }
+    public double getVolatility(int i) { return volatilities[i]; }
+    public boolean hasVolatility(int i) { return !Double.isNaN(volatilities[i]); }
+    public String getCommodity(int i) { return commodities[i]; }
+    public IndicatorSettings getIndicators(int i) { return indicators[i]; }
+    public String getPriceModel(int i) { return priceModels[i]; }
+
+    // 上市股票表构建器，同一代码以后添加的为准
+    public static class Builder {
+        private final Map<String, Listing> entries = new LinkedHashMap<>();
+
+        public Builder add(String symbol, String companyName, String industry, long initialPrice, long totalShares,
+                           double volatility, String commodity, IndicatorSettings indicators, String priceModel) {
+            String normalized = symbol.trim().toUpperCase(Locale.ROOT);
+            String commodityId = commodity != null && !commodity.isBlank() ? ItemFingerprint.normalizeId(commodity) : null;
+            entries.put(normalized, new Listing(normalized, companyName, industry,
+                    Math.max(1, initialPrice), Math.max(1, totalShares), volatility, commodityId,
+                    indicators != null ? indicators : IndicatorSettings.DEFAULT,
+                    priceModel != null && !priceModel.isBlank() ? priceModel.toLowerCase(Locale.ROOT) : null));
+            return this;
+        }
+
+        public int size() {
+            return entries.size();
+        }
+
+        public StockListings build() {
+            return new StockListings(this);
+        }
+    }
+
+    private static class Listing {
+        final String symbol;
+        final String companyName;
+        final String industry;
+        final long initialPrice;
+        final long totalShares;
+        final double volatility;
+        final String commodity;
+        final IndicatorSettings indicators;
+        final String priceModel;
+
+        Listing(String symbol, String companyName, String industry, long initialPrice, long totalShares,
+                double volatility, String commodity, IndicatorSettings indicators, String priceModel) {
+            this.symbol = symbol;
+            this.companyName = companyName;
+            this.industry = industry;
+            this.initialPrice = initialPrice;
+            this.totalShares = totalShares;
+            this.volatility = volatility;
+            this.commodity = commodity;
+            this.indicators = indicators;
+            this.priceModel = priceModel;
+        }
+    }
+}
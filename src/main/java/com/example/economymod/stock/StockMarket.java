@@ -1,6 +1,10 @@
 package com.example.economymod.stock;
 
+import com.example.economymod.Config;
+import com.example.economymod.economy.CommodityIndex;
+import com.example.economymod.economy.EconomyClock;
 import com.example.economymod.economy.EconomyManager;
+import com.example.economymod.economy.ItemFingerprint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,71 +20,91 @@ public class StockMarket {
     // 股票数据
     private static final Map<String, Stock> stocks = new ConcurrentHashMap<>();
     
+    // 股价模拟引擎
+    private static final PriceSimulator simulator = new PriceSimulator();
+    private static volatile boolean factorModelDirty = true; // 上市股票变化后需要重建因子模型
+    private static long lastSimulationMillis; // 上一次应用模拟结果的时间
+    
+    // 当前数据包中的上市股票表
+    private static volatile StockListings listings = StockListings.EMPTY;
+    
     // 玩家投资组合
     private static final Map<UUID, Portfolio> portfolios = new ConcurrentHashMap<>();
     
     // 市场状态
     private static boolean marketOpen = true;
-    private static LocalDateTime marketOpenTime = LocalDateTime.now();
-    private static LocalDateTime lastPriceUpdate = LocalDateTime.now();
+    private static LocalDateTime marketOpenTime = EconomyClock.now();
+    private static LocalDateTime lastPriceUpdate = EconomyClock.now();
     
-    // 市场统计
-    private static long totalMarketCap = 0;
-    private static long totalVolume = 0;
-    private static int totalListedCompanies = 0;
+    // 市场统计（按价格和股本变化增量维护）
+    private static final MarketStats stats = new MarketStats();
+    private static final StockRankings rankings = new StockRankings();
+    private static final VolumeWindow marketVolume = new VolumeWindow(); // 全市场24小时成交量
     
     // 初始化股票市场
     public static void init() {
         LOGGER.info("正在初始化股票市场...");
         
-        // 创建默认股票
-        createDefaultStocks();
-        
-        // 启动价格更新任务
-        startPriceUpdateTask();
+        // 上市股票由数据包定义（data/<命名空间>/stock_listings），在加载数据包时上市
+        // 价格由服务器tick按间隔驱动（tickPrices），模拟在后台线程计算
         
-        LOGGER.info("股票市场初始化完成，共有 {} 只股票上市", stocks.size());
+        LOGGER.info("股票市场初始化完成");
     }
     
-    // 创建默认股票
-    private static void createDefaultStocks() {
-        // 科技股
-        addStock("MCTC", "Minecraft科技", "科技", 150, 10000);
-        addStock("REDSTONE", "红石电子", "科技", 80, 15000);
-        addStock("ENDER", "末影传送", "科技", 200, 8000);
-        
-        // 矿业股
-        addStock("DIAMOND", "钻石矿业", "矿业", 300, 5000);
-        addStock("IRON", "铁矿集团", "矿业", 50, 25000);
-        addStock("GOLD", "黄金开采", "矿业", 180, 12000);
-        
-        // 建筑股
-        addStock("COBBLE", "圆石建筑", "建筑", 25, 40000);
-        addStock("OAK", "橡木建材", "建筑", 35, 30000);
-        addStock("STONE", "石材工程", "建筑", 40, 28000);
-        
-        // 农业股
-        addStock("WHEAT", "小麦农业", "农业", 20, 50000);
-        addStock("CARROT", "胡萝卜食品", "农业", 15, 60000);
-        addStock("POTATO", "马铃薯集团", "农业", 18, 55000);
-        
-        // 交通股
-        addStock("RAIL", "铁路运输", "交通", 120, 15000);
-        addStock("BOAT", "水路运输", "交通", 90, 18000);
-        addStock("HORSE", "马匹快递", "交通", 60, 22000);
-        
-        // 能源股
-        addStock("COAL", "煤炭能源", "能源", 45, 35000);
-        addStock("LAVA", "岩浆发电", "能源", 75, 20000);
-        addStock("WIND", "风力发电", "能源", 55, 25000);
-        
-        // 娱乐股
-        addStock("MUSIC", "音符娱乐", "娱乐", 85, 16000);
-        addStock("BOOK", "附魔图书", "娱乐", 110, 12000);
-        addStock("ART", "艺术创作", "娱乐", 95, 14000);
+    // 应用数据包中的上市股票表：新代码上市，已有股票保留价格和持仓，
+    // 从上一版数据包中移除的股票停止交易（管理员手动上市的股票不受影响）
+    public static synchronized void applyListings(StockListings newListings) {
+        Set<String> listed = new HashSet<>();
+        Map<String, String> commodities = new HashMap<>();
+        for (int i = 0; i < newListings.size(); i++) {
+            String symbol = newListings.getSymbol(i);
+            listed.add(symbol);
+
+            Stock stock = stocks.get(symbol);
+            if (stock == null) {
+                addStock(symbol, newListings.getCompanyName(i), newListings.getIndustry(i),
+                        newListings.getInitialPrice(i), newListings.getTotalShares(i));
+                stock = stocks.get(symbol);
+            } else {
+                stock.setActive(true);
+            }
+            if (newListings.hasVolatility(i)) {
+                stock.setVolatility(newListings.getVolatility(i));
+            }
+            stock.setIndicatorSettings(newListings.getIndicators(i));
+            stock.setPriceModel(newListings.getPriceModel(i));
+            if (newListings.getPriceModel(i) != null && !PriceModels.exists(newListings.getPriceModel(i))) {
+                LOGGER.warn("股票 {} 的股价模型 {} 不存在，使用默认模型", symbol, newListings.getPriceModel(i));
+            }
+
+            String commodity = newListings.getCommodity(i);
+            String commodityKey = commodity != null ? ItemFingerprint.ofName(commodity).toKey() : null;
+            stock.setCommodityKey(commodityKey);
+            if (commodityKey != null) {
+                commodities.put(commodityKey, commodity);
+            }
+        }
+        EconomyManager.getCommodityIndex().configure(commodities);
+
+        for (int i = 0; i < listings.size(); i++) {
+            Stock stock = stocks.get(listings.getSymbol(i));
+            if (stock != null && !listed.contains(stock.getSymbol())) {
+                stock.setActive(false);
+                LOGGER.info("股票已退市: {}", stock.getSymbol());
+            }
+        }
+
+        boolean filled = false;
+        for (Stock stock : stocks.values()) {
+            filled |= StockExchange.refreshQuotes(stock);
+        }
+        if (filled) {
+            EconomyManager.saveData();
+        }
         
-        // 更新市场统计
-        updateMarketStats();
+        listings = newListings;
+        factorModelDirty = true;
+        LOGGER.info("已加载 {} 只上市股票", newListings.size());
     }
     
     // 添加新股票
@@ -92,10 +116,14 @@ public class StockMarket {
         
         Stock stock = new Stock(symbol, companyName, industry, initialPrice, totalShares);
         stocks.put(symbol, stock);
-        totalListedCompanies++;
+        stats.add(stock);
+        rankings.update(stock);
+        factorModelDirty = true;
+        if (StockExchange.refreshQuotes(stock)) {
+            EconomyManager.saveData();
+        }
         
         LOGGER.info("新股票上市: {} - {}", symbol, companyName);
-        updateMarketStats();
         
         return true;
     }
@@ -130,109 +158,110 @@ public class StockMarket {
         return portfolios.computeIfAbsent(playerId, Portfolio::new);
     }
     
-    // 买入股票
-    public static boolean buyStock(UUID playerId, String symbol, long shares) {
-        if (!marketOpen) return false;
-        
-        Stock stock = getStock(symbol);
-        if (stock == null || !stock.isActive()) return false;
-        
-        long totalCost = shares * stock.getCurrentPrice();
-        long fees = calculateTradingFees(totalCost, StockTransaction.TransactionType.BUY);
-        long totalRequired = totalCost + fees;
-        
-        // 检查玩家资金
-        if (EconomyManager.getMoney(playerId) < totalRequired) {
-            return false; // 资金不足
-        }
-        
-        // 检查股票可用性
-        if (!stock.buyShares(shares)) {
-            return false; // 可用股数不足
-        }
-        
-        // 扣除资金
-        if (!EconomyManager.removeMoney(playerId, totalRequired)) {
-            stock.sellShares(shares); // 回滚股票
-            return false;
-        }
-        
-        // 更新投资组合
-        Portfolio portfolio = getPortfolio(playerId);
-        portfolio.buyStock(symbol, shares, stock.getCurrentPrice());
-        
-        // 更新股票价格（买入压力）
-        stock.setPriceWithVolume(stock.getCurrentPrice() + 1, shares);
-        
-        updateMarketStats();
-        LOGGER.debug("玩家 {} 买入 {} 股票 {} 股", playerId, symbol, shares);
-        
-        return true;
+    // 市价买入股票：按价格优先吃掉卖盘，大单会推高成交价
+    public static StockExchange.OrderResult buyStock(UUID playerId, String symbol, long shares) {
+        return placeOrder(playerId, symbol, true, shares, OrderBook.MARKET);
     }
     
-    // 卖出股票
-    public static boolean sellStock(UUID playerId, String symbol, long shares) {
-        if (!marketOpen) return false;
-        
+    // 市价卖出股票
+    public static StockExchange.OrderResult sellStock(UUID playerId, String symbol, long shares) {
+        return placeOrder(playerId, symbol, false, shares, OrderBook.MARKET);
+    }
+    
+    // 下限价单（price为OrderBook.MARKET时为市价单），未成交的部分挂在订单簿中
+    public static StockExchange.OrderResult placeOrder(UUID playerId, String symbol, boolean buy, long shares, long price) {
         Stock stock = getStock(symbol);
-        if (stock == null || !stock.isActive()) return false;
+        if (stock == null) return StockExchange.OrderResult.failure(StockExchange.OrderResult.Status.UNKNOWN_STOCK);
         
-        Portfolio portfolio = getPortfolio(playerId);
-        Portfolio.Holding holding = portfolio.getHoldings().get(symbol);
-        
-        if (holding == null || holding.getShares() < shares) {
-            return false; // 持仓不足
+        StockExchange.OrderResult result = StockExchange.placeOrder(playerId, stock, buy, shares, price);
+        if (result.getFilled() > 0) {
+            LOGGER.debug("玩家 {} {} {} 股票 {} 股", playerId, buy ? "买入" : "卖出", stock.getSymbol(), result.getFilled());
         }
-        
-        long totalValue = shares * stock.getCurrentPrice();
-        long fees = calculateTradingFees(totalValue, StockTransaction.TransactionType.SELL);
-        long netValue = totalValue - fees;
-        
-        // 更新投资组合
-        if (!portfolio.sellStock(symbol, shares, stock.getCurrentPrice())) {
-            return false;
+        return result;
+    }
+    
+    // 按配置的间隔自动调价，每个服务器tick调用：到达间隔时先取走后台算好的一步写回股票，
+    // 再装载下一步交给工作线程计算；结果还没算完时下一个tick再试
+    public static synchronized void tickPrices() {
+        if (!marketOpen || Config.stockUpdateIntervalMinutes <= 0) return;
+        
+        long now = EconomyClock.millis();
+        if (now - lastSimulationMillis < Config.stockUpdateIntervalMinutes * EconomyClock.MINUTE_MILLIS) return;
+        
+        PriceSimulator.State result = simulator.swap();
+        if (result != null) {
+            lastSimulationMillis = now;
+            applySimulation(result);
+        } else if (simulator.isBusy()) {
+            return;
         }
-        
-        // 增加资金
-        EconomyManager.addMoney(playerId, netValue);
-        
-        // 更新股票数据
-        stock.sellShares(shares);
-        
-        // 更新股票价格（卖出压力）
-        long newPrice = Math.max(1, stock.getCurrentPrice() - 1);
-        stock.setPriceWithVolume(newPrice, shares);
-        
-        updateMarketStats();
-        LOGGER.debug("玩家 {} 卖出 {} 股票 {} 股", playerId, symbol, shares);
-        
-        return true;
+        loadSimulation();
+        simulator.submit();
     }
     
-    // 计算交易费用
-    private static long calculateTradingFees(long amount, StockTransaction.TransactionType type) {
-        long commission = Math.max(1, amount / 1000); // 0.1%手续费，最低1金币
-        long tax = 0;
-        
-        if (type == StockTransaction.TransactionType.SELL) {
-            tax = amount / 2000; // 卖出时0.05%印花税
+    // 立即更新所有股票价格（管理员命令）：有正在计算的一步时等它完成，否则在当前线程计算
+    // 返回更新的股票数，闭市时返回-1
+    public static synchronized int updateAllPrices() {
+        if (!marketOpen) return -1;
+        
+        PriceSimulator.State result = simulator.await();
+        if (result == null) {
+            loadSimulation();
+            simulator.computeNow();
+            result = simulator.swap();
         }
         
-        return commission + tax;
+        lastSimulationMillis = EconomyClock.millis();
+        int updated = applySimulation(result);
+        loadSimulation();
+        simulator.submit();
+        return updated;
     }
     
-    // 更新所有股票价格
-    public static void updateAllPrices() {
-        if (!marketOpen) return;
+    // 把所有活跃股票装入模拟器的后台缓冲区
+    private static void loadSimulation() {
+        if (factorModelDirty) {
+            factorModelDirty = false;
+            simulator.setFactorModel(new FactorModel(getActiveStocks(),
+                    Config.marketCorrelation, Config.sectorCorrelation));
+        }
         
+        CommodityIndex commodityIndex = EconomyManager.getCommodityIndex();
+        simulator.clear();
         for (Stock stock : stocks.values()) {
             if (stock.isActive()) {
-                stock.updatePrice();
+                simulator.add(stock, commodityDrift(stock, commodityIndex));
             }
         }
+    }
+    
+    // 在服务器线程依次写回：涨跌幅作用于当前价格，计算期间的成交不会被覆盖
+    // 新报价与玩家挂单成交时在全部写回后只保存一次
+    private static int applySimulation(PriceSimulator.State result) {
+        int updated = 0;
+        boolean filled = false;
+        for (int i = 0; i < result.size(); i++) {
+            Stock stock = result.getStock(i);
+            if (!stock.isActive()) continue;
+            
+            long newPrice = Math.max(1, (long) (stock.getCurrentPrice() * (1 + result.getChange(i))));
+            stock.setPriceWithVolume(newPrice, result.getVolume(i));
+            filled |= StockExchange.refreshQuotes(stock);
+            updated++;
+        }
+        if (filled) {
+            EconomyManager.saveData();
+        }
         
-        lastPriceUpdate = LocalDateTime.now();
-        updateMarketStats();
+        lastPriceUpdate = EconomyClock.now();
+        return updated;
+    }
+    
+    // 关联了大宗商品的股票按商品指数的涨跌获得漂移
+    private static double commodityDrift(Stock stock, CommodityIndex commodityIndex) {
+        if (stock.getCommodityKey() == null) return 0;
+        double commodityReturn = stock.takeCommodityReturn(commodityIndex.getPrice(stock.getCommodityKey()));
+        return commodityReturn * Config.commodityDriftWeight;
     }
     
     // 发放股息
@@ -252,77 +281,76 @@ public class StockMarket {
         LOGGER.info("股息发放完成");
     }
     
-    // 启动价格更新任务
-    private static void startPriceUpdateTask() {
-        // 这里应该使用定时任务，简化版本只是记录开始时间
-        // 在实际应用中，您可能需要使用ScheduledExecutorService
-        LOGGER.info("股票价格更新任务已启动");
+    // 股票价格变化：增量更新市场统计，并只为这只股票重新排序排行榜
+    static void onPriceChanged(Stock stock, long oldMarketCap, int oldDirection) {
+        stats.onPriceChanged(stock, oldMarketCap, oldDirection);
+        rankings.update(stock);
     }
     
-    // 更新市场统计
-    private static void updateMarketStats() {
-        totalMarketCap = stocks.values().stream()
-                .mapToLong(Stock::getMarketCap)
-                .sum();
-        
-        totalVolume = stocks.values().stream()
-                .mapToLong(stock -> stock.getPriceHistory().stream()
-                        .filter(history -> history.getTimestamp().isAfter(LocalDateTime.now().minusHours(24)))
-                        .mapToLong(Stock.PriceHistory::getVolume)
-                        .sum())
-                .sum();
-        
-        totalListedCompanies = (int) stocks.values().stream()
-                .filter(Stock::isActive)
-                .count();
+    // 股票停牌或复牌
+    static void onActiveChanged(Stock stock) {
+        factorModelDirty = true;
+        if (stock.isActive()) {
+            stats.add(stock);
+            rankings.update(stock);
+        } else {
+            stats.remove(stock);
+            rankings.remove(stock);
+        }
     }
     
-    // 获取市场指数
+    // 每条价格记录的成交量同时计入全市场的滑动窗口
+    static void recordVolume(long volume, long now) {
+        marketVolume.add(volume, now);
+    }
+    
+    // 获取市场指数（市值加权，基期1000点）
     public static long getMarketIndex() {
-        if (stocks.isEmpty()) return 1000;
-        
-        // 简化的市场指数计算
-        long totalValue = stocks.values().stream()
-                .mapToLong(stock -> stock.getCurrentPrice() * 100) // 标准化
-                .sum();
-        
-        return totalValue / stocks.size();
+        return Math.round(stats.getIndex());
+    }
+    
+    // 行业指数（市值加权，基期1000点）
+    public static Map<String, Double> getSectorIndices() {
+        return stats.getSectorIndices();
     }
     
     // 获取涨跌幅排行榜
     public static List<Stock> getTopGainers(int limit) {
-        return stocks.values().stream()
-                .filter(Stock::isActive)
-                .sorted((s1, s2) -> Double.compare(s2.getPriceChangePercent(), s1.getPriceChangePercent()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return toStocks(rankings.topGainers(limit));
     }
     
     // 获取跌幅排行榜
     public static List<Stock> getTopLosers(int limit) {
-        return stocks.values().stream()
-                .filter(Stock::isActive)
-                .sorted((s1, s2) -> Double.compare(s1.getPriceChangePercent(), s2.getPriceChangePercent()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return toStocks(rankings.topLosers(limit));
     }
     
     // 获取成交量排行榜
     public static List<Stock> getTopVolumeStocks(int limit) {
+        return toStocks(rankings.topVolume(limit, symbol -> {
+            Stock stock = stocks.get(symbol);
+            return stock != null ? stock.getVolume24h() : 0;
+        }));
+    }
+    
+    private static List<Stock> toStocks(List<String> symbols) {
+        List<Stock> result = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            Stock stock = stocks.get(symbol);
+            if (stock != null) {
+                result.add(stock);
+            }
+        }
+        return result;
+    }
+    
+    // 指定时间之后出现均线交叉信号的股票，按信号时间从新到旧
+    public static List<Stock> getCrossoverStocks(long sinceMillis) {
         return stocks.values().stream()
                 .filter(Stock::isActive)
-                .sorted((s1, s2) -> {
-                    long v1 = s1.getPriceHistory().stream()
-                            .filter(h -> h.getTimestamp().isAfter(LocalDateTime.now().minusHours(24)))
-                            .mapToLong(Stock.PriceHistory::getVolume)
-                            .sum();
-                    long v2 = s2.getPriceHistory().stream()
-                            .filter(h -> h.getTimestamp().isAfter(LocalDateTime.now().minusHours(24)))
-                            .mapToLong(Stock.PriceHistory::getVolume)
-                            .sum();
-                    return Long.compare(v2, v1);
-                })
-                .limit(limit)
+                .filter(stock -> stock.getIndicators().getLastCross() != IndicatorEngine.CrossSignal.NONE)
+                .filter(stock -> stock.getIndicators().getLastCrossTime() > sinceMillis)
+                .sorted((s1, s2) -> Long.compare(s2.getIndicators().getLastCrossTime(),
+                        s1.getIndicators().getLastCrossTime()))
                 .collect(Collectors.toList());
     }
     
@@ -340,7 +368,7 @@ public class StockMarket {
     // 开市/闭市
     public static void openMarket() {
         marketOpen = true;
-        marketOpenTime = LocalDateTime.now();
+        marketOpenTime = EconomyClock.now();
         LOGGER.info("股票市场开市");
     }
     
@@ -353,9 +381,10 @@ public class StockMarket {
     public static boolean isMarketOpen() { return marketOpen; }
     public static LocalDateTime getMarketOpenTime() { return marketOpenTime; }
     public static LocalDateTime getLastPriceUpdate() { return lastPriceUpdate; }
-    public static long getTotalMarketCap() { return totalMarketCap; }
-    public static long getTotalVolume() { return totalVolume; }
-    public static int getTotalListedCompanies() { return totalListedCompanies; }
+    public static long getTotalMarketCap() { return stats.getTotalMarketCap(); }
+    public static long getTotalVolume() { return marketVolume.getTotal(EconomyClock.millis()); }
+    public static int getTotalListedCompanies() { return stats.getListedCompanies(); }
+    public static MarketStats getStats() { return stats; }
     
     // 获取所有行业
     public static List<String> getAllIndustries() {
@@ -371,7 +400,12 @@ public class StockMarket {
         Stock stock = getStock(symbol);
         if (stock == null || ratio <= 1) return false;
         
+        // 分割前的挂单价格已失效，全部撤销并退回托管
+        StockExchange.cancelAll(stock.getSymbol());
         stock.stockSplit(ratio);
+        if (StockExchange.refreshQuotes(stock)) {
+            EconomyManager.saveData();
+        }
         
         // 更新所有持有该股票的投资组合
         for (Portfolio portfolio : portfolios.values()) {
@@ -398,18 +432,7 @@ public class StockMarket {
     public static String getMarketSummary() {
         if (stocks.isEmpty()) return "市场暂无数据";
         
-        int upCount = 0, downCount = 0, flatCount = 0;
-        
-        for (Stock stock : stocks.values()) {
-            if (!stock.isActive()) continue;
-            
-            double change = stock.getPriceChangePercent();
-            if (change > 0) upCount++;
-            else if (change < 0) downCount++;
-            else flatCount++;
-        }
-        
         return String.format("上涨:%d 下跌:%d 平盘:%d 总市值:%d金币", 
-                upCount, downCount, flatCount, totalMarketCap);
+                stats.getUpCount(), stats.getDownCount(), stats.getFlatCount(), stats.getTotalMarketCap());
     }
 }
\ No newline at end of file
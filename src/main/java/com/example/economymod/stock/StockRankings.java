@@ -0,0 +1,118 @@
+package com.example.economymod.stock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+
+// 排行榜 - 涨跌幅和24小时成交量各用一个按键值排序的有序集合维护，只有价格变化的股票才重新排序（O(log n)）
+// 涨幅榜从大到小、跌幅榜从小到大遍历同一个集合，取前K名是O(K)
+// 24小时成交量会随滑动窗口过期而变小，停止交易的股票不会触发重新排序，取成交量榜时按实时值校正遍历到的条目
+public class StockRankings {
+    private final Ranking change = new Ranking();
+    private final Ranking volume = new Ranking();
+
+    // 股票价格或成交量变化后重新排序
+    public synchronized void update(Stock stock) {
+        if (!stock.isActive()) {
+            remove(stock);
+            return;
+        }
+        change.put(stock.getSymbol(), stock.getPriceChangePercent());
+        volume.put(stock.getSymbol(), stock.getVolume24h());
+    }
+
+    public synchronized void remove(Stock stock) {
+        change.remove(stock.getSymbol());
+        volume.remove(stock.getSymbol());
+    }
+
+    public synchronized List<String> topGainers(int limit) {
+        return change.top(limit, true);
+    }
+
+    public synchronized List<String> topLosers(int limit) {
+        return change.top(limit, false);
+    }
+
+    public synchronized List<String> topVolume(int limit, ToDoubleFunction<String> currentVolume) {
+        return volume.topRefreshed(limit, currentVolume);
+    }
+
+    // 单个排行：代码 -> 当前键值，以及按（键值，代码）排序的集合
+    private static class Ranking {
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final TreeSet<Entry> ordered = new TreeSet<>();
+
+        void put(String symbol, double key) {
+            Entry old = entries.get(symbol);
+            if (old != null) {
+                if (old.key == key) return;
+                ordered.remove(old);
+            }
+            Entry entry = new Entry(symbol, key);
+            entries.put(symbol, entry);
+            ordered.add(entry);
+        }
+
+        void remove(String symbol) {
+            Entry old = entries.remove(symbol);
+            if (old != null) {
+                ordered.remove(old);
+            }
+        }
+
+        List<String> top(int limit, boolean descending) {
+            List<String> result = new ArrayList<>(Math.min(limit, ordered.size()));
+            Iterator<Entry> iterator = descending ? ordered.descendingIterator() : ordered.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next().symbol);
+            }
+            return result;
+        }
+
+        // 从大到小取前K名，遍历到的条目先与实时键值比对，不一致的重新排序后继续；
+        // 存储的键值只会偏大（成交量只随过期减少），重新排序的条目只会后移，已取出的名次不受影响
+        List<String> topRefreshed(int limit, ToDoubleFunction<String> current) {
+            List<String> result = new ArrayList<>(Math.min(limit, ordered.size()));
+            Entry last = null;
+            while (result.size() < limit) {
+                Entry candidate = last == null ? (ordered.isEmpty() ? null : ordered.last()) : ordered.lower(last);
+                if (candidate == null) break;
+
+                double key = current.applyAsDouble(candidate.symbol);
+                if (key == candidate.key) {
+                    result.add(candidate.symbol);
+                    last = candidate;
+                    continue;
+                }
+                put(candidate.symbol, key);
+                if (key > candidate.key) {
+                    // 键值变大时可能排到已取出的名次之前，从头重新取
+                    result.clear();
+                    last = null;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        final String symbol;
+        final double key;
+
+        Entry(String symbol, double key) {
+            this.symbol = symbol;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int result = Double.compare(key, other.key);
+            return result != 0 ? result : other.symbol.compareTo(symbol); // 同值时代码靠前的排名靠前
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.economymod.stock;
 
+import com.example.economymod.economy.EconomyClock;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -11,6 +13,7 @@ public class StockTransaction {
     private long pricePerShare;        // 每股价格
     private long totalAmount;          // 总金额
     private LocalDateTime timestamp;    // 交易时间
+    private long timestampMillis;      // 交易时间（毫秒）
     private String transactionId;      // 交易ID
     private String notes;              // 备注
     
@@ -22,6 +25,7 @@ public class StockTransaction {
         this.pricePerShare = pricePerShare;
         this.totalAmount = shares * pricePerShare;
         this.timestamp = timestamp;
+        this.timestampMillis = EconomyClock.toMillis(timestamp);
         this.transactionId = generateTransactionId();
         this.notes = "";
     }
@@ -137,19 +141,17 @@ public class StockTransaction {
     
     // 判断是否为当日交易
     public boolean isToday() {
-        return timestamp.toLocalDate().equals(LocalDateTime.now().toLocalDate());
+        return timestamp.toLocalDate().equals(EconomyClock.today());
     }
     
     // 判断是否为本周交易
     public boolean isThisWeek() {
-        LocalDateTime weekAgo = LocalDateTime.now().minusWeeks(1);
-        return timestamp.isAfter(weekAgo);
+        return EconomyClock.millis() - timestampMillis < 7 * EconomyClock.DAY_MILLIS;
     }
     
     // 判断是否为本月交易
     public boolean isThisMonth() {
-        LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
-        return timestamp.isAfter(monthAgo);
+        return EconomyClock.millis() - timestampMillis < 30 * EconomyClock.DAY_MILLIS;
     }
     
     // 获取交易状态（成功/失败）
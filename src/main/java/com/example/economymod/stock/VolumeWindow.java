@@ -0,0 +1,52 @@
+package com.example.economymod.stock;
+
+import com.example.economymod.economy.EconomyClock;
+
+import java.util.Arrays;
+
+// 滑动窗口成交量计数器 - 把24小时分成288个5分钟的桶，成交计入当前桶并维护窗口合计
+// 时间前进时清空过期的桶并从合计中减去，写入和读取都是O(1)（清桶的代价按时间均摊）
+public class VolumeWindow {
+    public static final long BUCKET_MILLIS = 5 * EconomyClock.MINUTE_MILLIS;
+    public static final int BUCKET_COUNT = (int) (EconomyClock.DAY_MILLIS / BUCKET_MILLIS);
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long headBucket = Long.MIN_VALUE; // 最新的桶编号
+    private long total;
+
+    // 计入一笔成交量
+    public void add(long volume, long now) {
+        if (volume <= 0) return;
+        advance(now);
+        buckets[slot(headBucket)] += volume;
+        total += volume;
+    }
+
+    // 最近24小时的成交量
+    public long getTotal(long now) {
+        advance(now);
+        return total;
+    }
+
+    // 前进到当前时间所在的桶，清空窗口外的桶；时钟回拨时仍计入最新的桶
+    private void advance(long now) {
+        long bucket = Math.floorDiv(now, BUCKET_MILLIS);
+        if (bucket <= headBucket) return;
+
+        if (headBucket == Long.MIN_VALUE || bucket - headBucket >= BUCKET_COUNT) {
+            Arrays.fill(buckets, 0);
+            total = 0;
+        } else {
+            for (long expired = headBucket + 1; expired <= bucket; expired++) {
+                int index = slot(expired);
+                total -= buckets[index];
+                buckets[index] = 0;
+            }
+        }
+        headBucket = bucket;
+    }
+
+    private static int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) BUCKET_COUNT);
+    }
+}
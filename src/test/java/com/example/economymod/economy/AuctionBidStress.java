@@ -0,0 +1,214 @@
+package com.example.economymod.economy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// 单个热门拍卖的出价压力测试（独立的main，不依赖测试框架）
+// 第一阶段：N个线程直接对同一个拍卖调用Auction.placeBid，测量CAS出价路径的吞吐量
+//           （加价幅度是价格的5%，价格到达上限后换一个新拍卖继续，避免后面全是被拒绝的出价）
+// 第二阶段：N个线程调用AuctionBidQueue.offer，另一个线程模拟服务器tick定时drain并结算，测量入队吞吐量和合并比例
+// 两个阶段结束后都校验最终领先者的上限等于所有被接受出价中的最高上限
+// 用法：AuctionBidStress [线程数=8] [出价者数=64] [每阶段秒数=5]
+public final class AuctionBidStress {
+    private static final long TICK_MILLIS = 50;
+    private static final long PRICE_LIMIT = 1_000_000_000L; // 价格上限，避免按5%加价连续上涨后溢出
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int bidderCount = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 5;
+
+        UUID[] bidders = new UUID[bidderCount];
+        for (int i = 0; i < bidderCount; i++) {
+            bidders[i] = new UUID(1, i);
+        }
+
+        System.out.printf("线程数 %d，出价者 %d，每阶段 %d 秒%n", threads, bidderCount, seconds);
+        runDirect(threads, bidders, seconds);
+        runQueued(threads, bidders, seconds);
+    }
+
+    // 第一阶段：直接CAS出价
+    private static void runDirect(int threads, UUID[] bidders, long seconds) throws InterruptedException {
+        AtomicReference<Round> current = new AtomicReference<>(new Round(1));
+        Queue<Round> rounds = new ConcurrentLinkedQueue<>();
+        rounds.add(current.get());
+        AtomicLong[] results = newCounters(Auction.BidResult.values().length);
+
+        long elapsed = runWorkers(threads, seconds, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Round round = current.get();
+            long maxAmount = nextAmount(round.auction, random);
+            if (maxAmount >= PRICE_LIMIT) {
+                Round next = new Round(round.auction.getAuctionId() + 1);
+                if (current.compareAndSet(round, next)) {
+                    rounds.add(next);
+                }
+                return;
+            }
+
+            UUID bidder = bidders[random.nextInt(bidders.length)];
+            Auction.BidResult result = round.auction.placeBid(bidder, "bidder", maxAmount);
+            results[result.ordinal()].incrementAndGet();
+            if (result == Auction.BidResult.LEADING || result == Auction.BidResult.RAISED) {
+                round.acceptedMax.accumulate(maxAmount);
+            }
+        });
+
+        long total = sum(results);
+        System.out.printf("[直接出价] %d 次出价，%.0f 次/秒，%d 个拍卖%n", total, total * 1000.0 / elapsed, rounds.size());
+        for (Auction.BidResult result : Auction.BidResult.values()) {
+            System.out.printf("    %-8s %d%n", result, results[result.ordinal()].get());
+        }
+        for (Round round : rounds) {
+            verify(round.auction, round.acceptedMax.get(), round == current.get());
+        }
+    }
+
+    // 第二阶段：出价入队，模拟tick定时合并结算
+    private static void runQueued(int threads, UUID[] bidders, long seconds) throws InterruptedException {
+        Auction auction = newAuction(1);
+        AuctionBidQueue queue = new AuctionBidQueue();
+        LongAccumulator acceptedMax = new LongAccumulator(Math::max, 0);
+        AtomicLong offered = new AtomicLong();
+        AtomicLong settled = new AtomicLong();
+        AtomicLong drained = new AtomicLong();
+        AtomicLong ticks = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Runnable settle = () -> {
+            List<AuctionBidQueue.PendingBid> bids = queue.drain(auction.getAuctionId());
+            drained.addAndGet(bids.size());
+            int accepted = 0;
+            for (AuctionBidQueue.PendingBid bid : bids) {
+                if (accepted >= 2) break;
+                Auction.BidResult result = auction.placeBid(bid.getBidderId(), bid.getBidderName(), bid.getMaxAmount());
+                settled.incrementAndGet();
+                if (result != Auction.BidResult.REJECTED) {
+                    accepted++;
+                }
+                if (result == Auction.BidResult.LEADING || result == Auction.BidResult.RAISED) {
+                    acceptedMax.accumulate(bid.getMaxAmount());
+                }
+            }
+            ticks.incrementAndGet();
+        };
+        Thread server = new Thread(() -> {
+            while (running.get()) {
+                settle.run();
+                try {
+                    Thread.sleep(TICK_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "stress-server-tick");
+        server.start();
+
+        long elapsed = runWorkers(threads, seconds, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            UUID bidder = bidders[random.nextInt(bidders.length)];
+            if (queue.offer(auction, bidder, "bidder", nextAmount(auction, random)) == AuctionBidQueue.OfferResult.QUEUED) {
+                offered.incrementAndGet();
+            }
+        });
+        running.set(false);
+        server.join();
+        settle.run(); // 结算最后一批
+
+        System.out.printf("[队列出价] %d 次入队，%.0f 次/秒；%d 个tick，合并后 %d 个出价，实际结算 %d 次（每tick %.1f 次）%n",
+                offered.get(), offered.get() * 1000.0 / elapsed, ticks.get(), drained.get(), settled.get(),
+                (double) settled.get() / Math.max(1, ticks.get()));
+        System.out.printf("    残留队列: %d%n", queue.getPendingAuctionIds().size());
+        verify(auction, acceptedMax.get(), true);
+    }
+
+    // 所有线程同时开始，运行指定时间后停止，返回实际耗时（毫秒）
+    private static long runWorkers(int threads, long seconds, Runnable body) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running.get()) {
+                    body.run();
+                }
+            }, "stress-bidder-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(seconds * 1000);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return Math.max(1, (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    // 在当前价格附近出价，使出价持续有效并互相竞争（到达上限后出价被拒绝，仍然经过CAS前的读取路径）
+    private static long nextAmount(Auction auction, ThreadLocalRandom random) {
+        Auction.BidState state = auction.getBidState();
+        return Math.min(PRICE_LIMIT, state.minimumBid(auction.getStartingBid()) + random.nextLong(0, 50));
+    }
+
+    private static Auction newAuction(int auctionId) {
+        return new Auction(auctionId, new UUID(0, 0), "seller", "minecraft:diamond",
+                "stress-item", 100, 24);
+    }
+
+    // 校验领先者的上限等于被接受的最高上限（只打印最后一个拍卖，其余只在不一致时报告）
+    private static void verify(Auction auction, long acceptedMax, boolean print) {
+        Auction.BidState state = auction.getBidState();
+        boolean ok = state.maxBid == acceptedMax && state.currentBid <= state.maxBid;
+        if (print || !ok) {
+            System.out.printf("    拍卖 #%d 最终价格 %d，领先上限 %d，被接受的最高上限 %d：%s%n", auction.getAuctionId(),
+                    state.currentBid, state.maxBid, acceptedMax, ok ? "一致" : "不一致");
+        }
+        if (!ok) {
+            throw new IllegalStateException("代理出价状态与被接受的出价不一致");
+        }
+    }
+
+    // 第一阶段中的一个拍卖及其被接受出价的最高上限
+    private static final class Round {
+        final Auction auction;
+        final LongAccumulator acceptedMax = new LongAccumulator(Math::max, 0);
+
+        Round(int auctionId) {
+            this.auction = newAuction(auctionId);
+        }
+    }
+
+    private static AtomicLong[] newCounters(int count) {
+        AtomicLong[] counters = new AtomicLong[count];
+        for (int i = 0; i < count; i++) {
+            counters[i] = new AtomicLong();
+        }
+        return counters;
+    }
+
+    private static long sum(AtomicLong[] counters) {
+        long total = 0;
+        for (AtomicLong counter : counters) {
+            total += counter.get();
+        }
+        return total;
+    }
+}